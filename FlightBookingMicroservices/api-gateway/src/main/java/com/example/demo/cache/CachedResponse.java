@@ -0,0 +1,38 @@
+package com.example.demo.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A downstream response held by ResponseCacheGatewayFilterFactory: status, end-to-end headers and
+ * the full body, plus how long it may be served and the request header values it was stored for
+ * (see ResponseCacheGatewayFilterFactory.variant).
+ */
+record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, Instant storedAt, Duration ttl,
+                      String variant) {
+
+    /** Approximate heap footprint, for the cache's byte bound. */
+    int weight(String key) {
+        int headerBytes = 0;
+        for (var header : headers.entrySet()) {
+            headerBytes += header.getKey().length();
+            for (String value : header.getValue()) {
+                headerBytes += value.length();
+            }
+        }
+        return key.length() + headerBytes + variant.length() + body.length + 64;
+    }
+
+    Mono<Void> writeTo(ServerHttpResponse response, Instant now) {
+        response.setStatusCode(status);
+        response.getHeaders().putAll(headers);
+        response.getHeaders().set(HttpHeaders.AGE, String.valueOf(Math.max(0, Duration.between(storedAt, now).getSeconds())));
+        response.getHeaders().set(ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER, "HIT");
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
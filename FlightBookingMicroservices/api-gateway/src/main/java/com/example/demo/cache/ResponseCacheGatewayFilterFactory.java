@@ -0,0 +1,386 @@
+package com.example.demo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Route filter "ResponseCache": serves repeated reads of a route (flight search, flight details) from
+ * an in-memory cache instead of calling the downstream service.
+ *
+ * The key is route id + method + path + query, plus a SHA-256 of the request body for POST (flight
+ * search posts its criteria). Only 200 responses are stored, for the route's ttl or, when shorter, the
+ * response's s-maxage / max-age; responses marked no-store, no-cache or private, or carrying
+ * Set-Cookie or Vary: *, are not stored, nor are bodies above max-body-size. A response with Vary is
+ * stored with the values of the varied request headers and only served to requests with the same
+ * values; one variant is kept per key. A request with Cache-Control: no-cache skips the lookup and
+ * refreshes the entry, no-store bypasses the cache.
+ * All routes share one Caffeine cache bounded by gateway.response-cache.max-size (bytes).
+ *
+ * Responses carry X-Cache: HIT or MISS (and Age on hits). Metrics:
+ * gateway.response.cache.requests{route,result=hit|miss|bypass},
+ * gateway.response.cache.hit.ratio{route}, and cache.*{cache=gatewayResponses} for the cache itself.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Pattern MAX_AGE = Pattern.compile("(?:^|[,\\s])(s-maxage|max-age)\\s*=\\s*\"?(\\d+)");
+
+    private final Cache<String, CachedResponse> cache;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteStats> stats = new ConcurrentHashMap<>();
+
+    public ResponseCacheGatewayFilterFactory(MeterRegistry meterRegistry,
+                                             @Value("${gateway.response-cache.max-size:64MB}") DataSize maxSize) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse value) -> value.weight(key))
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gatewayResponses");
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // must wrap the response before NettyWriteResponseFilter writes the downstream body into it
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, config),
+                NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!config.caches(request.getMethod())) {
+            return chain.filter(exchange);
+        }
+        String route = routeId(exchange);
+        String requestCacheControl = lower(request.getHeaders().getCacheControl());
+        if (requestCacheControl.contains("no-store")) {
+            stats(route).bypass.increment();
+            return chain.filter(exchange);
+        }
+        boolean refresh = requestCacheControl.contains("no-cache") || lower(request.getHeaders().getPragma()).contains("no-cache");
+
+        if (HttpMethod.POST.equals(request.getMethod())) {
+            return ServerWebExchangeUtils.cacheRequestBody(exchange, cachedRequest -> {
+                ServerWebExchange withBody = exchange.mutate().request(cachedRequest).build();
+                DataBuffer body = withBody.getAttribute(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR);
+                return lookup(withBody, chain, config, route, key(route, cachedRequest, body), refresh);
+            });
+        }
+        return lookup(exchange, chain, config, route, key(route, request, null), refresh);
+    }
+
+    private Mono<Void> lookup(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                              String route, String key, boolean refresh) {
+        RouteStats routeStats = stats(route);
+        if (!refresh) {
+            CachedResponse hit = cache.getIfPresent(key);
+            if (hit != null && hit.variant().equals(variant(hit.headers().getVary(), exchange.getRequest().getHeaders()))) {
+                routeStats.hit();
+                return hit.writeTo(exchange.getResponse(), Instant.now());
+            }
+        }
+        routeStats.miss();
+        CachingResponse response = new CachingResponse(exchange.getResponse(), exchange.getRequest().getHeaders(), key, config);
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    /**
+     * Passes the downstream body through unchanged while copying it; stores the copy once the body
+     * completed, if the response is cacheable and not larger than max-body-size.
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final HttpHeaders requestHeaders;
+        private final String key;
+        private final Config config;
+
+        CachingResponse(ServerHttpResponse delegate, HttpHeaders requestHeaders, String key, Config config) {
+            super(delegate);
+            this.requestHeaders = requestHeaders;
+            this.key = key;
+            this.config = config;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+            Duration ttl = ttlFor(getStatusCode(), getHeaders(), config.getTtl());
+            if (ttl == null) {
+                return super.writeWith(body);
+            }
+            long limit = config.getMaxBodySize().toBytes();
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            boolean[] tooLarge = {false};
+            Flux<? extends DataBuffer> teed = Flux.from(body)
+                    .doOnNext(buffer -> {
+                        if (tooLarge[0]) {
+                            return;
+                        }
+                        if (copy.size() + buffer.readableByteCount() > limit) {
+                            tooLarge[0] = true;
+                            return;
+                        }
+                        try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                            while (chunks.hasNext()) {
+                                ByteBuffer chunk = chunks.next();
+                                byte[] bytes = new byte[chunk.remaining()];
+                                chunk.get(bytes);
+                                copy.write(bytes, 0, bytes.length);
+                            }
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if (!tooLarge[0]) {
+                            HttpHeaders headers = storableHeaders(getHeaders());
+                            cache.put(key, new CachedResponse(getStatusCode(), headers, copy.toByteArray(),
+                                    Instant.now(), ttl, variant(headers.getVary(), requestHeaders)));
+                        }
+                    });
+            return super.writeWith(teed);
+        }
+    }
+
+    /** How long a response may be cached, or null if it must not be. */
+    static Duration ttlFor(HttpStatusCode status, HttpHeaders headers, Duration routeTtl) {
+        if (status == null || status.value() != 200 || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || headers.getVary().contains("*")) {
+            return null;
+        }
+        String cacheControl = lower(headers.getCacheControl());
+        if (cacheControl.contains("no-store") || cacheControl.contains("no-cache") || cacheControl.contains("private")) {
+            return null;
+        }
+        Long maxAge = null;
+        Matcher m = MAX_AGE.matcher(cacheControl);
+        while (m.find()) {
+            long seconds = Long.parseLong(m.group(2));
+            if ("s-maxage".equals(m.group(1))) {
+                maxAge = seconds;   // shared caches prefer s-maxage
+                break;
+            }
+            maxAge = seconds;
+        }
+        Duration ttl = maxAge == null ? routeTtl : min(Duration.ofSeconds(maxAge), routeTtl);
+        return ttl.isZero() || ttl.isNegative() ? null : ttl;
+    }
+
+    /** The request's values of the headers a response varies on, e.g. "accept-encoding=gzip". */
+    static String variant(List<String> vary, HttpHeaders requestHeaders) {
+        if (vary.isEmpty()) {
+            return "";
+        }
+        StringBuilder variant = new StringBuilder();
+        vary.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).sorted().forEach(name ->
+                variant.append(name).append('=').append(requestHeaders.getOrDefault(name, List.of())).append('\n'));
+        return variant.toString();
+    }
+
+    private static HttpHeaders storableHeaders(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        for (String hopByHop : List.of(HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.AGE, CACHE_STATUS_HEADER)) {
+            copy.remove(hopByHop);
+        }
+        return copy;
+    }
+
+    static String key(String route, ServerHttpRequest request, DataBuffer body) {
+        StringBuilder key = new StringBuilder(route).append(' ')
+                .append(request.getMethod().name()).append(' ')
+                .append(request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            key.append('?').append(request.getURI().getRawQuery());
+        }
+        if (HttpMethod.POST.equals(request.getMethod())) {
+            key.append(" #").append(sha256(body));
+        }
+        return key.toString();
+    }
+
+    private static String sha256(DataBuffer body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (body != null) {
+                try (DataBuffer.ByteBufferIterator chunks = body.readableByteBuffers()) {
+                    while (chunks.hasNext()) {
+                        digest.update(chunks.next());
+                    }
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route == null ? "unknown" : route.getId();
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private RouteStats stats(String route) {
+        return stats.computeIfAbsent(route, r -> new RouteStats(r, meterRegistry));
+    }
+
+    /** Per-route counters plus the hit-ratio gauge derived from them. */
+    private static final class RouteStats {
+
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final Counter hitCounter;
+        private final Counter missCounter;
+        private final Counter bypass;
+
+        RouteStats(String route, MeterRegistry meterRegistry) {
+            this.hitCounter = requests(route, "hit", meterRegistry);
+            this.missCounter = requests(route, "miss", meterRegistry);
+            this.bypass = requests(route, "bypass", meterRegistry);
+            Gauge.builder("gateway.response.cache.hit.ratio", this, RouteStats::hitRatio)
+                    .description("Share of cacheable requests served from the gateway cache")
+                    .tag("route", route)
+                    .register(meterRegistry);
+        }
+
+        private static Counter requests(String route, String result, MeterRegistry meterRegistry) {
+            return Counter.builder("gateway.response.cache.requests")
+                    .description("Cacheable requests by cache result")
+                    .tag("route", route)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        void hit() {
+            hits.incrementAndGet();
+            hitCounter.increment();
+        }
+
+        void miss() {
+            misses.incrementAndGet();
+            missCounter.increment();
+        }
+
+        double hitRatio() {
+            long h = hits.get();
+            long total = h + misses.get();
+            return total == 0 ? 0.0 : (double) h / total;
+        }
+    }
+
+    public static class Config {
+
+        /** Upper bound on how long a response is served from the cache. */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        /** Methods whose responses are cached; add POST only on routes whose POSTs are reads (search). */
+        private List<String> methods = new ArrayList<>(List.of("GET"));
+
+        /** Larger responses are passed through without being cached. */
+        private DataSize maxBodySize = DataSize.ofKilobytes(512);
+
+        boolean caches(HttpMethod method) {
+            return method != null && methods.stream().anyMatch(m -> m.equalsIgnoreCase(method.name()));
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public Config setTtl(Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public Config setMethods(List<String> methods) {
+            this.methods = methods;
+            return this;
+        }
+
+        public DataSize getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public Config setMaxBodySize(DataSize maxBodySize) {
+            this.maxBodySize = maxBodySize;
+            return this;
+        }
+    }
+}
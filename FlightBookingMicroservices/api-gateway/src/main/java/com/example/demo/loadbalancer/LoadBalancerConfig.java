@@ -0,0 +1,14 @@
+package com.example.demo.loadbalancer;
+
+import com.flightbooking.loadbalancer.PeakEwmaLoadBalancerConfig;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * lb:// routes pick instances by latency and outstanding requests instead of round robin;
+ * see PeakEwmaLoadBalancer in common-loadbalancer.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfig.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,173 @@
+package com.example.demo.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process RateLimiter for RequestRateLimiter, in place of the Redis one: one token bucket per
+ * route and key (see UserOrIpKeyResolver). Limits are per gateway instance.
+ *
+ * A bucket is a single AtomicLong updated by CAS (GCRA: the time at which the bucket will be full
+ * again), so checking a request is lock-free and allocation-free apart from the response headers.
+ * Buckets live in a Caffeine map bounded by gateway.rate-limiter.max-keys and dropped after
+ * gateway.rate-limiter.idle-eviction without requests; an evicted bucket comes back full.
+ *
+ * Per route: args local-rate-limiter.replenish-rate (tokens/s), burst-capacity and requested-tokens;
+ * routes without them use gateway.rate-limiter.default.*. A denied request gets 429 with Retry-After
+ * (seconds until the request would pass). Metrics: gateway.ratelimit.requests{route,result},
+ * gateway.ratelimit.keys.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Cache<String, AtomicLong> buckets;
+    private final Config defaultConfig;
+    private final LongSupplier nanoClock;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LocalRateLimiter(ConfigurationService configurationService,
+                            MeterRegistry meterRegistry,
+                            @Value("${gateway.rate-limiter.default.replenish-rate:10}") int replenishRate,
+                            @Value("${gateway.rate-limiter.default.burst-capacity:20}") int burstCapacity,
+                            @Value("${gateway.rate-limiter.max-keys:100000}") long maxKeys,
+                            @Value("${gateway.rate-limiter.idle-eviction:10m}") Duration idleEviction) {
+        this(configurationService, meterRegistry, new Config().setReplenishRate(replenishRate).setBurstCapacity(burstCapacity),
+                maxKeys, idleEviction, System::nanoTime);
+    }
+
+    LocalRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry, Config defaultConfig,
+                     long maxKeys, Duration idleEviction, LongSupplier nanoClock) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.defaultConfig = defaultConfig;
+        this.nanoClock = nanoClock;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleEviction)
+                .build();
+        Gauge.builder("gateway.ratelimit.keys", buckets, Cache::estimatedSize)
+                .description("Rate-limit buckets currently held")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        return Mono.just(check(routeId, id));
+    }
+
+    Response check(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        long interval = NANOS_PER_SECOND / config.getReplenishRate();
+        long capacity = interval * config.getBurstCapacity();
+        long cost = interval * config.getRequestedTokens();
+
+        AtomicLong bucket = buckets.get(routeId + '|' + id, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + cost;
+            long debt = next - now;
+            if (debt > capacity) {
+                count(routeId, false);
+                return response(false, config, 0, debt - capacity);
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                count(routeId, true);
+                return response(true, config, (capacity - debt) / interval, 0);
+            }
+        }
+    }
+
+    private static Response response(boolean allowed, Config config, long remaining, long waitNanos) {
+        Map<String, String> headers = new HashMap<>(8);
+        headers.put(REMAINING_HEADER, String.valueOf(remaining));
+        headers.put(REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()));
+        if (!allowed) {
+            long seconds = (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+            headers.put(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, seconds)));
+        }
+        return new Response(allowed, headers);
+    }
+
+    private void count(String routeId, boolean allowed) {
+        Counter[] byResult = counters.computeIfAbsent(routeId, r -> new Counter[] {
+                requests(r, "allowed"), requests(r, "denied")});
+        byResult[allowed ? 0 : 1].increment();
+    }
+
+    private Counter requests(String routeId, String result) {
+        return Counter.builder("gateway.ratelimit.requests")
+                .description("Requests checked by the local rate limiter")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public static class Config {
+
+        /** Tokens added per second (sustained requests per second). */
+        private int replenishRate = 10;
+
+        /** Bucket size: requests allowed in a burst. */
+        private int burstCapacity = 20;
+
+        /** Tokens one request costs. */
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public Config setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Locale;
+
+/**
+ * Rate-limit key for RequestRateLimiter: the caller's remote IP. Use as key-resolver: "#{@userOrIpKeyResolver}".
+ *
+ * The gateway does not authenticate X-User-Email, so by default the header is ignored: otherwise a client
+ * sending a different email per request would get a fresh bucket each time. Only when a proxy in front of
+ * the gateway authenticates the caller and sets the header (gateway.rate-limiter.trust-user-header=true)
+ * are requests carrying it keyed by user instead.
+ */
+@Component("userOrIpKeyResolver")
+public class UserOrIpKeyResolver implements KeyResolver {
+
+    static final String USER_HEADER = "X-User-Email";
+
+    private final boolean trustUserHeader;
+
+    public UserOrIpKeyResolver(@Value("${gateway.rate-limiter.trust-user-header:false}") boolean trustUserHeader) {
+        this.trustUserHeader = trustUserHeader;
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        if (trustUserHeader) {
+            String email = exchange.getRequest().getHeaders().getFirst(USER_HEADER);
+            if (email != null && !email.isBlank()) {
+                return Mono.just("user:" + email.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        if (remote == null || remote.getAddress() == null) {
+            // empty key: RequestRateLimiter denies it (deny-empty-key) or lets it through
+            return Mono.empty();
+        }
+        return Mono.just("ip:" + remote.getAddress().getHostAddress());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.ratelimit.LocalRateLimiter;
+import com.example.demo.ratelimit.UserOrIpKeyResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the local rate limiter (key resolution + bucket check) with 4 threads hitting
+ * a small or large population of keys. At 50k req/s one core has 20us per request, so the ns/op
+ * reported here divided by 20_000 is the share of a core the limiter takes at that rate.
+ * "hotKey" is the worst case for the CAS loop: every thread updates the same bucket.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.example.demo.benchmark.LocalRateLimiterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LocalRateLimiterBenchmark {
+
+    @Param({"100", "100000"})
+    public int keys;
+
+    private LocalRateLimiter limiter;
+    private UserOrIpKeyResolver resolver;
+    private String[] ids;
+    private MockServerWebExchange exchange;
+
+    @Setup
+    public void setUp() {
+        limiter = new LocalRateLimiter(null, new SimpleMeterRegistry(), 1_000_000, 1_000_000,
+                200_000, Duration.ofMinutes(10));
+        resolver = new UserOrIpKeyResolver(false);
+        ids = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            ids[i] = "user:traveller" + i + "@example.com";
+            limiter.isAllowed("flight-search", ids[i]).block();
+        }
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/flights/search")
+                .remoteAddress(new InetSocketAddress("10.1.2.3", 40000)));
+    }
+
+    @Benchmark
+    public RateLimiter.Response check() {
+        String id = ids[ThreadLocalRandom.current().nextInt(keys)];
+        return limiter.isAllowed("flight-search", id).block();
+    }
+
+    @Benchmark
+    public RateLimiter.Response hotKey() {
+        return limiter.isAllowed("flight-search", ids[0]).block();
+    }
+
+    @Benchmark
+    public RateLimiter.Response resolveAndCheck() {
+        String id = resolver.resolve(exchange).block();
+        return limiter.isAllowed("flight-search", id).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opts = new OptionsBuilder()
+                .include(LocalRateLimiterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opts).run();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GatewayFilter filter;
+    private final AtomicInteger downstreamCalls = new AtomicInteger();
+    private String downstreamCacheControl;
+    private String downstreamVary;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        ResponseCacheGatewayFilterFactory factory = new ResponseCacheGatewayFilterFactory(meterRegistry, DataSize.ofMegabytes(1));
+        filter = factory.apply(new ResponseCacheGatewayFilterFactory.Config()
+                .setTtl(Duration.ofMinutes(1))
+                .setMethods(List.of("GET", "POST")));
+    }
+
+    /** Stands in for flight-service: answers "flight-<n>" for the n-th call. */
+    private final GatewayFilterChain downstream = exchange -> {
+        int call = downstreamCalls.incrementAndGet();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        if (downstreamCacheControl != null) {
+            response.getHeaders().setCacheControl(downstreamCacheControl);
+        }
+        if (downstreamVary != null) {
+            response.getHeaders().setVary(List.of(downstreamVary));
+        }
+        byte[] body = ("flight-" + call).getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    };
+
+    private MockServerWebExchange send(MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("flights").uri("http://flight-service").predicate(e -> true).build());
+        filter.filter(exchange, downstream).block();
+        return exchange;
+    }
+
+    private static String body(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block();
+    }
+
+    @Test
+    void get_isServedFromCacheOnTheSecondCall() {
+        MockServerWebExchange first = send(MockServerHttpRequest.get("/api/flights/7").build());
+        MockServerWebExchange second = send(MockServerHttpRequest.get("/api/flights/7").build());
+        MockServerWebExchange other = send(MockServerHttpRequest.get("/api/flights/8").build());
+
+        assertThat(body(first)).isEqualTo("flight-1");
+        assertThat(first.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(body(second)).isEqualTo("flight-1");
+        assertThat(second.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(second.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(body(other)).isEqualTo("flight-2");
+        assertThat(downstreamCalls).hasValue(2);
+
+        assertThat(meterRegistry.get("gateway.response.cache.requests").tag("route", "flights").tag("result", "hit")
+                .counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("gateway.response.cache.hit.ratio").tag("route", "flights").gauge().value())
+                .isCloseTo(1.0 / 3, within(1e-9));
+    }
+
+    @Test
+    void post_isKeyedByBodyHash() {
+        send(MockServerHttpRequest.post("/api/flights/search").body("{\"origin\":\"HYD\"}"));
+        MockServerWebExchange same = send(MockServerHttpRequest.post("/api/flights/search").body("{\"origin\":\"HYD\"}"));
+        MockServerWebExchange different = send(MockServerHttpRequest.post("/api/flights/search").body("{\"origin\":\"BLR\"}"));
+
+        assertThat(body(same)).isEqualTo("flight-1");
+        assertThat(body(different)).isEqualTo("flight-2");
+        assertThat(downstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void responseCacheControl_noStoreOrZeroMaxAge_isNotCached() {
+        downstreamCacheControl = "no-store";
+        send(MockServerHttpRequest.get("/api/flights/7").build());
+        send(MockServerHttpRequest.get("/api/flights/7").build());
+        downstreamCacheControl = "public, max-age=0";
+        send(MockServerHttpRequest.get("/api/flights/7").build());
+        send(MockServerHttpRequest.get("/api/flights/7").build());
+
+        assertThat(downstreamCalls).hasValue(4);
+    }
+
+    @Test
+    void requestCacheControl_noCacheRefreshes_noStoreBypasses() {
+        send(MockServerHttpRequest.get("/api/flights/7").build());
+        MockServerWebExchange refreshed = send(MockServerHttpRequest.get("/api/flights/7")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache").build());
+        MockServerWebExchange cached = send(MockServerHttpRequest.get("/api/flights/7").build());
+        send(MockServerHttpRequest.get("/api/flights/7").header(HttpHeaders.CACHE_CONTROL, "no-store").build());
+
+        assertThat(body(refreshed)).isEqualTo("flight-2");
+        assertThat(body(cached)).isEqualTo("flight-2");
+        assertThat(downstreamCalls).hasValue(3);
+        assertThat(meterRegistry.get("gateway.response.cache.requests").tag("result", "bypass").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void varyingResponse_isOnlyServedToRequestsWithTheSameVariedHeaders() {
+        downstreamVary = "Accept-Encoding";
+        send(MockServerHttpRequest.get("/api/flights/7").header(HttpHeaders.ACCEPT_ENCODING, "gzip").build());
+        MockServerWebExchange sameEncoding = send(MockServerHttpRequest.get("/api/flights/7")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").build());
+        MockServerWebExchange identity = send(MockServerHttpRequest.get("/api/flights/7").build());
+
+        assertThat(body(sameEncoding)).isEqualTo("flight-1");
+        assertThat(sameEncoding.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("HIT");
+        assertThat(body(identity)).isEqualTo("flight-2");
+        assertThat(identity.getResponse().getHeaders().getFirst("X-Cache")).isEqualTo("MISS");
+        assertThat(downstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void ttlFor_prefersSharedMaxAge_cappedByRouteTtl() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("max-age=5, s-maxage=20");
+        assertThat(ResponseCacheGatewayFilterFactory.ttlFor(HttpStatus.OK, headers, Duration.ofSeconds(60)))
+                .isEqualTo(Duration.ofSeconds(20));
+        assertThat(ResponseCacheGatewayFilterFactory.ttlFor(HttpStatus.OK, headers, Duration.ofSeconds(10)))
+                .isEqualTo(Duration.ofSeconds(10));
+        assertThat(ResponseCacheGatewayFilterFactory.ttlFor(HttpStatus.NOT_FOUND, new HttpHeaders(), Duration.ofSeconds(10)))
+                .isNull();
+    }
+}
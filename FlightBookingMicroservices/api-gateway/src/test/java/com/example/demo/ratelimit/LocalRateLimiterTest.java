@@ -0,0 +1,102 @@
+package com.example.demo.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LocalRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private SimpleMeterRegistry meterRegistry;
+    private LocalRateLimiter limiter;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new LocalRateLimiter(null, meterRegistry,
+                new LocalRateLimiter.Config().setReplenishRate(2).setBurstCapacity(3),
+                1_000, Duration.ofMinutes(10), clock::get);
+    }
+
+    private RateLimiter.Response check(String route, String key) {
+        return limiter.isAllowed(route, key).block();
+    }
+
+    @Test
+    void allowsTheBurst_thenDeniesWithRetryAfter_untilTokensRefill() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(check("search", "ip:1.2.3.4").isAllowed()).isTrue();
+        }
+        RateLimiter.Response denied = check("search", "ip:1.2.3.4");
+
+        assertThat(denied.isAllowed()).isFalse();
+        assertThat(denied.getHeaders()).containsEntry(HttpHeaders.RETRY_AFTER, "1")
+                .containsEntry(LocalRateLimiter.REMAINING_HEADER, "0");
+
+        clock.addAndGet(Duration.ofMillis(500).toNanos());   // one token at 2/s
+        RateLimiter.Response refilled = check("search", "ip:1.2.3.4");
+        assertThat(refilled.isAllowed()).isTrue();
+        assertThat(refilled.getHeaders()).containsEntry(LocalRateLimiter.REMAINING_HEADER, "0");
+        assertThat(check("search", "ip:1.2.3.4").isAllowed()).isFalse();
+
+        assertThat(meterRegistry.get("gateway.ratelimit.requests").tag("route", "search").tag("result", "denied")
+                .counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void bucketsAreSeparatePerKeyAndRoute_andRoutesUseTheirOwnLimits() {
+        limiter.getConfig().put("detail", new LocalRateLimiter.Config().setReplenishRate(1).setBurstCapacity(1));
+
+        assertThat(check("detail", "user:a@x.com").isAllowed()).isTrue();
+        assertThat(check("detail", "user:a@x.com").isAllowed()).isFalse();
+        assertThat(check("detail", "user:b@x.com").isAllowed()).isTrue();
+        assertThat(check("search", "user:a@x.com").isAllowed()).isTrue();
+        assertThat(meterRegistry.get("gateway.ratelimit.keys").gauge().value()).isEqualTo(3.0);
+    }
+
+    @Test
+    void longIdle_refillsOnlyUpToBurstCapacity() {
+        check("search", "k");
+        clock.addAndGet(Duration.ofHours(1).toNanos());
+
+        int allowed = 0;
+        while (check("search", "k").isAllowed()) {
+            allowed++;
+        }
+        assertThat(allowed).isEqualTo(3);
+    }
+
+    @Test
+    void keyResolver_keysByRemoteIp_andIgnoresUnauthenticatedUserHeader() {
+        MockServerWebExchange scraper = MockServerWebExchange.from(MockServerHttpRequest.post("/api/flights/search")
+                .header("X-User-Email", "random-123@x.com").remoteAddress(new InetSocketAddress("10.0.0.7", 5000)));
+        MockServerWebExchange anonymous = MockServerWebExchange.from(MockServerHttpRequest.post("/api/flights/search")
+                .remoteAddress(new InetSocketAddress("10.0.0.7", 5000)));
+
+        UserOrIpKeyResolver resolver = new UserOrIpKeyResolver(false);
+        assertThat(resolver.resolve(scraper).block()).isEqualTo("ip:10.0.0.7");
+        assertThat(resolver.resolve(anonymous).block()).isEqualTo("ip:10.0.0.7");
+    }
+
+    @Test
+    void keyResolver_withTrustedUserHeader_prefersUserEmail_thenRemoteIp() {
+        UserOrIpKeyResolver resolver = new UserOrIpKeyResolver(true);
+        MockServerWebExchange user = MockServerWebExchange.from(MockServerHttpRequest.post("/api/flights/search")
+                .header("X-User-Email", " Ann@X.com ").remoteAddress(new InetSocketAddress("10.0.0.7", 5000)));
+        MockServerWebExchange anonymous = MockServerWebExchange.from(MockServerHttpRequest.post("/api/flights/search")
+                .remoteAddress(new InetSocketAddress("10.0.0.7", 5000)));
+
+        assertThat(resolver.resolve(user).block()).isEqualTo("user:ann@x.com");
+        assertThat(resolver.resolve(anonymous).block()).isEqualTo("ip:10.0.0.7");
+    }
+}
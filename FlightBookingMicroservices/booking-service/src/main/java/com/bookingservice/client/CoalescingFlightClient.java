@@ -0,0 +1,91 @@
+package com.bookingservice.client;
+
+import com.bookingservice.client.dto.FlightDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single-flight wrapper around FlightClient.
+ *
+ * Concurrent lookups for the same flightId share one in-flight call: the first caller (leader)
+ * performs the remote call, every caller arriving while it is running waits on the same future.
+ * Nothing is cached once the call completes, so the next burst triggers a fresh lookup.
+ */
+public class CoalescingFlightClient implements FlightClient {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingFlightClient.class);
+
+    private final FlightClient delegate;
+    private final ConcurrentMap<Long, CompletableFuture<FlightDto>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaderCounter;
+    private final Counter coalescedCounter;
+
+    public CoalescingFlightClient(FlightClient delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.leaderCounter = Counter.builder("booking.flight.lookup")
+                .description("Flight lookups by role in the single-flight group")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("booking.flight.lookup")
+                .description("Flight lookups by role in the single-flight group")
+                .tag("role", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("booking.flight.lookup.inflight", inFlight, ConcurrentMap::size)
+                .description("Distinct flightIds with a lookup currently in flight")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public FlightDto getFlightById(Long id) {
+        if (id == null) {
+            return delegate.getFlightById(null);
+        }
+
+        CompletableFuture<FlightDto> mine = new CompletableFuture<>();
+        CompletableFuture<FlightDto> existing = inFlight.putIfAbsent(id, mine);
+
+        if (existing != null) {
+            coalescedCounter.increment();
+            log.debug("Coalesced flight lookup for flightId={}", id);
+            return await(existing);
+        }
+
+        leaderCounter.increment();
+        try {
+            FlightDto flight = delegate.getFlightById(id);
+            mine.complete(flight);
+            return flight;
+        } catch (Throwable ex) {
+            // Errors too (e.g. OutOfMemoryError), or followers would wait on the future forever
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private static FlightDto await(CompletableFuture<FlightDto> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            // Rethrow the leader's exception as-is so followers see the same failure
+            // (and the circuit breaker / error mapping in BookingService treats them alike).
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
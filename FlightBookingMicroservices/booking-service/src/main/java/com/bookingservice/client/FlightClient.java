@@ -5,9 +5,15 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
-@FeignClient(name = "flight-service", configuration = FlightClientConfig.class)
+/**
+ * Feign client for flight-service.
+ * Registered as a non-primary bean so callers get the coalescing wrapper (see FlightLookupConfig);
+ * the raw Feign proxy is available under the "feignFlightClient" qualifier.
+ */
+@FeignClient(name = "flight-service", configuration = FlightClientConfig.class,
+        primary = false, qualifiers = "feignFlightClient")
 public interface FlightClient {
 
     @GetMapping("/api/flights/{id}")
     FlightDto getFlightById(@PathVariable("id") Long id);
-}
\ No newline at end of file
+}
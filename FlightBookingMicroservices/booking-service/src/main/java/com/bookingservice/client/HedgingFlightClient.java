@@ -0,0 +1,144 @@
+package com.bookingservice.client;
+
+import com.bookingservice.client.dto.FlightDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking flight-service client with hedged requests.
+ *
+ * Each lookup goes to the next instance from discovery (round robin) with a per-call timeout. If it has
+ * not answered after the hedge delay (the observed p95 call latency, clamped to [min-delay, max-delay]),
+ * a second request goes to a different instance; the first response wins and the other call is
+ * cancelled, which closes its connection. A 404 maps to null, like a missing flight.
+ *
+ * Implements the blocking FlightClient contract by blocking on the race, so it can replace the Feign
+ * client without touching BookingService.
+ */
+public class HedgingFlightClient implements FlightClient {
+
+    private static final Logger log = LoggerFactory.getLogger(HedgingFlightClient.class);
+
+    /** Below this many recorded calls the p95 is noise; use the configured initial delay instead. */
+    private static final long MIN_SAMPLES = 50;
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    public record Settings(String serviceId,
+                           Duration callTimeout,
+                           boolean hedgeEnabled,
+                           double hedgePercentile,
+                           Duration initialDelay,
+                           Duration minDelay,
+                           Duration maxDelay) {
+    }
+
+    private final WebClient webClient;
+    private final DiscoveryClient discoveryClient;
+    private final Settings settings;
+
+    private final AtomicInteger nextInstance = new AtomicInteger();
+    private final AtomicLong hedgeDelayNanos;
+    private final AtomicLong delayComputedAt = new AtomicLong();
+
+    private final Timer callTimer;
+    private final Counter callsCounter;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+
+    public HedgingFlightClient(WebClient webClient, DiscoveryClient discoveryClient, Settings settings,
+                               MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.discoveryClient = discoveryClient;
+        this.settings = settings;
+        this.hedgeDelayNanos = new AtomicLong(settings.initialDelay().toNanos());
+
+        this.callTimer = Timer.builder("booking.flight.client.call")
+                .description("Latency of single flight-service calls (primary and hedge) that returned a response")
+                .publishPercentiles(settings.hedgePercentile())
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry);
+        this.callsCounter = Counter.builder("booking.flight.client.lookups")
+                .description("Flight lookups through the hedging client")
+                .register(meterRegistry);
+        this.hedgesSent = Counter.builder("booking.flight.client.hedges")
+                .description("Hedged second requests by result")
+                .tag("result", "sent")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("booking.flight.client.hedges")
+                .description("Hedged second requests by result")
+                .tag("result", "won")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public FlightDto getFlightById(Long id) {
+        List<ServiceInstance> instances = discoveryClient.getInstances(settings.serviceId());
+        if (instances.isEmpty()) {
+            throw new IllegalStateException("No " + settings.serviceId() + " instances available");
+        }
+        callsCounter.increment();
+
+        int first = Math.floorMod(nextInstance.getAndIncrement(), instances.size());
+        Mono<Optional<FlightDto>> lookup = call(instances.get(first), id);
+
+        if (settings.hedgeEnabled() && instances.size() > 1) {
+            ServiceInstance other = instances.get((first + 1) % instances.size());
+            Mono<Optional<FlightDto>> hedge = Mono.delay(Duration.ofNanos(currentHedgeDelayNanos()))
+                    .doOnNext(t -> {
+                        hedgesSent.increment();
+                        log.debug("Hedging flight lookup flightId={} to {}", id, other.getUri());
+                    })
+                    .then(call(other, id))
+                    .doOnNext(r -> hedgesWon.increment());
+            lookup = Mono.firstWithValue(lookup, hedge);
+        }
+
+        // every leg has its own timeout, so this bound is only a safety net
+        return lookup.block(settings.callTimeout().multipliedBy(2)).orElse(null);
+    }
+
+    private Mono<Optional<FlightDto>> call(ServiceInstance instance, Long id) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return webClient.get()
+                    .uri(instance.getUri() + "/api/flights/{id}", id)
+                    .retrieve()
+                    .bodyToMono(FlightDto.class)
+                    .map(Optional::of)
+                    .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(Optional.empty()))
+                    .defaultIfEmpty(Optional.empty())
+                    .timeout(settings.callTimeout())
+                    .doOnNext(r -> callTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /** p95 of recent calls, recomputed at most once a second. */
+    long currentHedgeDelayNanos() {
+        long now = System.nanoTime();
+        long last = delayComputedAt.get();
+        if (now - last > DELAY_REFRESH_NANOS && delayComputedAt.compareAndSet(last, now)
+                && callTimer.count() >= MIN_SAMPLES) {
+            for (ValueAtPercentile v : callTimer.takeSnapshot().percentileValues()) {
+                long nanos = (long) v.value(TimeUnit.NANOSECONDS);
+                hedgeDelayNanos.set(Math.max(settings.minDelay().toNanos(), Math.min(settings.maxDelay().toNanos(), nanos)));
+            }
+        }
+        return hedgeDelayNanos.get();
+    }
+}
@@ -0,0 +1,28 @@
+package com.bookingservice.config;
+
+import com.bookingservice.security.AdminTokenFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Access control for the operator endpoints under /api/admin/*. Checked before the concurrency
+ * limiter and every other filter.
+ */
+@Configuration
+public class AdminAccessConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdminTokenFilter> adminTokenFilter(
+            @Value("${booking.admin.token:}") String token,
+            MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AdminTokenFilter> registration = new FilterRegistrationBean<>(
+                new AdminTokenFilter(token, meterRegistry));
+        registration.addUrlPatterns("/api/admin/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
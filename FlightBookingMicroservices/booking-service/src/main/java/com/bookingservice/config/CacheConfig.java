@@ -0,0 +1,23 @@
+package com.bookingservice.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Enables Spring caching (Caffeine, configured via spring.cache.* properties).
+ *
+ * The cache advice runs before the transaction advice, so a cache hit returns without opening a
+ * transaction or borrowing a connection, and evictions happen after the cancel has committed.
+ *
+ * Caches are local to each instance: a cancel, saga outcome, pending-queue decision or archive run only
+ * evicts the copy on the instance that made the change. Other instances keep serving their copy until it
+ * expires, so a ticket can show its previous status for up to expireAfterWrite (30s).
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    /** Fully materialized BookingResponseDto by PNR. */
+    public static final String BOOKINGS_BY_PNR = "bookingsByPnr";
+}
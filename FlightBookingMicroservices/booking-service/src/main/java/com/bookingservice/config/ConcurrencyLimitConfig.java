@@ -0,0 +1,46 @@
+package com.bookingservice.config;
+
+import com.bookingservice.limiter.AimdConcurrencyLimiter;
+import com.bookingservice.limiter.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Adaptive load shedding for booking writes.
+ *
+ * Only POST /api/flight/booking/* is limited: shedding the write storm early keeps threads and
+ * DB connections free for ticket lookups (GET /api/flight/ticket/*), which are never limited here.
+ */
+@Configuration
+@ConditionalOnProperty(name = "booking.limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public AimdConcurrencyLimiter createBookingLimiter(
+            @Value("${booking.limiter.create.initial-limit:20}") int initialLimit,
+            @Value("${booking.limiter.create.min-limit:4}") int minLimit,
+            @Value("${booking.limiter.create.max-limit:200}") int maxLimit,
+            @Value("${booking.limiter.create.latency-target:500ms}") Duration latencyTarget,
+            @Value("${booking.limiter.create.backoff-ratio:0.9}") double backoffRatio) {
+        return new AimdConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyTarget.toNanos(), backoffRatio);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> createBookingLimitFilter(
+            AimdConcurrencyLimiter createBookingLimiter,
+            MeterRegistry meterRegistry,
+            @Value("${booking.limiter.retry-after-seconds:1}") int retryAfterSeconds) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter("createBooking", createBookingLimiter, "POST", retryAfterSeconds, meterRegistry));
+        registration.addUrlPatterns("/api/flight/booking/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,69 @@
+package com.bookingservice.config;
+
+import com.bookingservice.client.CoalescingFlightClient;
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.client.HedgingFlightClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+@Configuration
+public class FlightLookupConfig {
+
+    /**
+     * Primary FlightClient used by the services. booking.flight-client.mode picks the transport
+     * (feign, or webclient for the hedging client); unless booking.flight-client.coalescing.enabled=false
+     * it is wrapped so concurrent lookups of the same flight share one call.
+     */
+    @Bean
+    @Primary
+    public FlightClient flightClient(@Qualifier("feignFlightClient") FlightClient feignFlightClient,
+                                     ObjectProvider<HedgingFlightClient> hedgingFlightClient,
+                                     @Value("${booking.flight-client.mode:feign}") String mode,
+                                     @Value("${booking.flight-client.coalescing.enabled:true}") boolean coalescing,
+                                     MeterRegistry meterRegistry) {
+        FlightClient transport = switch (mode) {
+            case "feign" -> feignFlightClient;
+            case "webclient" -> hedgingFlightClient.getObject();
+            default -> throw new IllegalArgumentException("Unknown booking.flight-client.mode: " + mode);
+        };
+        return coalescing ? new CoalescingFlightClient(transport, meterRegistry) : transport;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "booking.flight-client.mode", havingValue = "webclient")
+    public HedgingFlightClient hedgingFlightClient(
+            WebClient.Builder webClientBuilder,
+            DiscoveryClient discoveryClient,
+            MeterRegistry meterRegistry,
+            @Value("${booking.flight-client.webclient.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${booking.flight-client.webclient.call-timeout:2s}") Duration callTimeout,
+            @Value("${booking.flight-client.hedge.enabled:true}") boolean hedgeEnabled,
+            @Value("${booking.flight-client.hedge.percentile:0.95}") double hedgePercentile,
+            @Value("${booking.flight-client.hedge.initial-delay:100ms}") Duration initialDelay,
+            @Value("${booking.flight-client.hedge.min-delay:20ms}") Duration minDelay,
+            @Value("${booking.flight-client.hedge.max-delay:500ms}") Duration maxDelay) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(callTimeout);
+        WebClient webClient = webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return new HedgingFlightClient(webClient, discoveryClient,
+                new HedgingFlightClient.Settings("flight-service", callTimeout, hedgeEnabled, hedgePercentile,
+                        initialDelay, minDelay, maxDelay),
+                meterRegistry);
+    }
+}
@@ -1,16 +1,104 @@
 package com.bookingservice.config;
 
+import com.bookingservice.event.BookingEventDto;
+import com.bookingservice.kafka.BookingEventSerializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka wiring for booking events. KafkaAutoConfiguration is excluded in application.properties,
+ * so admin, producer factory and template are declared here explicitly.
+ */
 @Configuration
 public class KafkaConfig {
 
     public static final String TOPIC_BOOKING_EVENTS = "booking-events";
 
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    /** binary (compact, versioned) or json (Spring JsonSerializer); consumers read both. */
+    @Value("${booking.kafka.codec:binary}")
+    private String codec;
+
+    @Bean
+    public KafkaAdmin kafkaAdmin(@Value("${booking.kafka.admin.auto-create:true}") boolean autoCreate) {
+        KafkaAdmin admin = new KafkaAdmin(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers));
+        // off when running without a broker (load tests), otherwise startup waits for the admin timeout
+        admin.setAutoCreate(autoCreate);
+        return admin;
+    }
+
+    /**
+     * Events are keyed by flightId, so partitions bound consumer parallelism while keeping
+     * per-flight ordering.
+     */
     @Bean
-    public NewTopic bookingEventsTopic() {
-        return new NewTopic(TOPIC_BOOKING_EVENTS, 1, (short) 1);
+    public NewTopic bookingEventsTopic(@Value("${booking.kafka.topic.partitions:12}") int partitions,
+                                       @Value("${booking.kafka.topic.replicas:1}") short replicas) {
+        return TopicBuilder.name(TOPIC_BOOKING_EVENTS)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    @Bean
+    public KafkaProducerTuning kafkaProducerTuning(@Value("${booking.kafka.producer.linger-ms:5}") int lingerMs,
+                                                   @Value("${booking.kafka.producer.batch-size:65536}") int batchSize,
+                                                   @Value("${booking.kafka.producer.compression-type:lz4}") String compressionType,
+                                                   @Value("${booking.kafka.producer.acks:all}") String acks) {
+        return new KafkaProducerTuning(lingerMs, batchSize, compressionType, acks);
+    }
+
+    @Bean
+    public ProducerFactory<String, BookingEventDto> bookingEventProducerFactory(KafkaProducerTuning tuning,
+                                                                                MeterRegistry meterRegistry) {
+        DefaultKafkaProducerFactory<String, BookingEventDto> factory =
+                new DefaultKafkaProducerFactory<>(producerProps(bootstrapServers, tuning, codec));
+        // exposes kafka.producer.* client metrics (record-send-rate, batch-size-avg, request-latency-avg, ...)
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry, tuning.tags().stream().toList()));
+        return factory;
+    }
+
+    @Bean
+    public KafkaTemplate<String, BookingEventDto> bookingEventKafkaTemplate(
+            ProducerFactory<String, BookingEventDto> bookingEventProducerFactory) {
+        return new KafkaTemplate<>(bookingEventProducerFactory);
+    }
+
+    public static Map<String, Object> producerProps(String bootstrapServers, KafkaProducerTuning tuning, String codec) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializerFor(codec));
+        props.put(ProducerConfig.LINGER_MS_CONFIG, tuning.lingerMs());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, tuning.batchSize());
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, tuning.compressionType());
+        props.put(ProducerConfig.ACKS_CONFIG, tuning.acks());
+        return props;
+    }
+
+    static Class<?> valueSerializerFor(String codec) {
+        return switch (codec) {
+            case "binary" -> BookingEventSerializer.class;
+            case "json" -> JsonSerializer.class;
+            default -> throw new IllegalArgumentException("Unknown booking.kafka.codec: " + codec);
+        };
     }
-}
\ No newline at end of file
+}
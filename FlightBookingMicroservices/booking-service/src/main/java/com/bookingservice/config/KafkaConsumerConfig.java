@@ -0,0 +1,131 @@
+package com.bookingservice.config;
+
+import com.bookingservice.event.BookingEventDto;
+import com.bookingservice.kafka.BookingEventDeserializer;
+import com.bookingservice.kafka.BookingEventSerializer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Consumer side of booking-events: a batch listener container with one consumer thread per
+ * booking.kafka.listener.concurrency (match it to the partition count), offsets committed after each
+ * successfully processed batch, and poison records routed to booking-events.DLT.
+ */
+@Configuration
+@EnableKafka
+public class KafkaConsumerConfig {
+
+    public static final String TOPIC_BOOKING_EVENTS_DLT = KafkaConfig.TOPIC_BOOKING_EVENTS + ".DLT";
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    /** DLT needs at least as many partitions as the source: records keep their partition number. */
+    @Bean
+    public NewTopic bookingEventsDltTopic(@Value("${booking.kafka.topic.partitions:12}") int partitions,
+                                          @Value("${booking.kafka.topic.replicas:1}") short replicas) {
+        return TopicBuilder.name(TOPIC_BOOKING_EVENTS_DLT)
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
+
+    @Bean
+    public ConsumerFactory<String, BookingEventDto> bookingEventConsumerFactory(
+            MeterRegistry meterRegistry,
+            @Value("${booking.kafka.listener.max-poll-records:500}") int maxPollRecords) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        // deserialization failures surface as null values + headers instead of a poll loop crash
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
+        // reads both the binary codec and plain JSON, always into BookingEventDto
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, BookingEventDeserializer.class);
+
+        DefaultKafkaConsumerFactory<String, BookingEventDto> factory = new DefaultKafkaConsumerFactory<>(props);
+        // exposes kafka.consumer.* client metrics, incl. records-lag-max and records-consumed-rate
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    /**
+     * Template used only to publish failed records to the DLT. Values are either the deserialized
+     * event (processing failure) or the raw bytes (deserialization failure).
+     */
+    @Bean
+    public KafkaTemplate<Object, Object> deadLetterKafkaTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+
+        Map<Class<?>, Serializer<?>> keySerializers = new LinkedHashMap<>();
+        keySerializers.put(byte[].class, new ByteArraySerializer());
+        keySerializers.put(String.class, new StringSerializer());
+        Map<Class<?>, Serializer<?>> valueSerializers = new LinkedHashMap<>();
+        valueSerializers.put(byte[].class, new ByteArraySerializer());
+        valueSerializers.put(BookingEventDto.class, new BookingEventSerializer());
+
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props,
+                new DelegatingByTypeSerializer(keySerializers),
+                new DelegatingByTypeSerializer(valueSerializers)));
+    }
+
+    @Bean
+    public DefaultErrorHandler bookingEventsErrorHandler(
+            KafkaTemplate<Object, Object> deadLetterKafkaTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${booking.kafka.listener.retry-interval-ms:500}") long retryIntervalMs,
+            @Value("${booking.kafka.listener.retry-attempts:2}") long retryAttempts) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(deadLetterKafkaTemplate);
+        Counter deadLettered = Counter.builder("booking.events.dead_lettered")
+                .description("Booking events sent to the dead-letter topic")
+                .register(meterRegistry);
+        return new DefaultErrorHandler((rec, ex) -> {
+            deadLettered.increment();
+            recoverer.accept(rec, ex);
+        }, new FixedBackOff(retryIntervalMs, retryAttempts));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BookingEventDto> bookingEventsListenerFactory(
+            ConsumerFactory<String, BookingEventDto> bookingEventConsumerFactory,
+            DefaultErrorHandler bookingEventsErrorHandler,
+            @Value("${booking.kafka.listener.concurrency:3}") int concurrency,
+            @Value("${booking.kafka.listener.enabled:true}") boolean enabled) {
+        ConcurrentKafkaListenerContainerFactory<String, BookingEventDto> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(bookingEventConsumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(bookingEventsErrorHandler);
+        factory.setAutoStartup(enabled);
+        return factory;
+    }
+}
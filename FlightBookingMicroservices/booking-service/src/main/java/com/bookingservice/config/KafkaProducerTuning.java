@@ -0,0 +1,16 @@
+package com.bookingservice.config;
+
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Producer batching settings for booking-events (booking.kafka.producer.*).
+ * Also used as metric tags so throughput/latency can be compared per setting.
+ */
+public record KafkaProducerTuning(int lingerMs, int batchSize, String compressionType, String acks) {
+
+    public Tags tags() {
+        return Tags.of("linger.ms", String.valueOf(lingerMs),
+                "batch.size", String.valueOf(batchSize),
+                "compression", compressionType);
+    }
+}
@@ -0,0 +1,15 @@
+package com.bookingservice.config;
+
+import com.flightbooking.loadbalancer.PeakEwmaLoadBalancerConfig;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Service-to-service calls through Spring Cloud LoadBalancer (the Feign FlightClient) pick instances
+ * by latency and outstanding requests instead of round robin; see PeakEwmaLoadBalancer in
+ * common-loadbalancer.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfig.class)
+public class LoadBalancerConfig {
+}
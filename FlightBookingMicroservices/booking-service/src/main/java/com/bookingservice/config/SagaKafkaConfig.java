@@ -0,0 +1,102 @@
+package com.bookingservice.config;
+
+import com.bookingservice.saga.SagaMessage;
+import com.bookingservice.saga.SagaOrchestrator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Kafka wiring of the booking saga (see SagaOrchestrator): commands to flight-service on
+ * flight-seat-commands, replies from it on flight-seat-replies. Both carry SagaMessage as plain JSON
+ * without type headers, keyed by flightId, so flight-service needs no booking-service classes.
+ */
+@Configuration
+public class SagaKafkaConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Bean
+    public NewTopic seatCommandsTopic(@Value("${booking.kafka.topic.partitions:12}") int partitions,
+                                      @Value("${booking.kafka.topic.replicas:1}") short replicas) {
+        return TopicBuilder.name(SagaOrchestrator.TOPIC_SEAT_COMMANDS).partitions(partitions).replicas(replicas).build();
+    }
+
+    @Bean
+    public NewTopic seatRepliesTopic(@Value("${booking.kafka.topic.partitions:12}") int partitions,
+                                     @Value("${booking.kafka.topic.replicas:1}") short replicas) {
+        return TopicBuilder.name(SagaOrchestrator.TOPIC_SEAT_REPLIES).partitions(partitions).replicas(replicas).build();
+    }
+
+    @Bean
+    public KafkaTemplate<String, SagaMessage> sagaKafkaTemplate(KafkaProducerTuning tuning, MeterRegistry meterRegistry) {
+        DefaultKafkaProducerFactory<String, SagaMessage> factory =
+                new DefaultKafkaProducerFactory<>(producerProps(bootstrapServers, tuning));
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry, tuning.tags().stream().toList()));
+        return new KafkaTemplate<>(factory);
+    }
+
+    /**
+     * Record (not batch) listener: each reply is one short shard transaction. A failure, e.g. an
+     * optimistic lock conflict with the timeout scan, is retried; after that the record is skipped and
+     * the scan takes over.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, SagaMessage> sagaReplyListenerFactory(
+            MeterRegistry meterRegistry,
+            @Value("${booking.saga.listener.concurrency:3}") int concurrency,
+            @Value("${booking.kafka.listener.retry-interval-ms:500}") long retryIntervalMs,
+            @Value("${booking.kafka.listener.retry-attempts:2}") long retryAttempts,
+            @Value("${booking.saga.enabled:false}") boolean enabled) {
+        DefaultKafkaConsumerFactory<String, SagaMessage> consumerFactory =
+                new DefaultKafkaConsumerFactory<>(consumerProps(bootstrapServers, "booking-service-saga"));
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+
+        ConcurrentKafkaListenerContainerFactory<String, SagaMessage> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(new FixedBackOff(retryIntervalMs, retryAttempts)));
+        factory.setAutoStartup(enabled);
+        return factory;
+    }
+
+    public static Map<String, Object> producerProps(String bootstrapServers, KafkaProducerTuning tuning) {
+        Map<String, Object> props = KafkaConfig.producerProps(bootstrapServers, tuning, "json");
+        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        return props;
+    }
+
+    public static Map<String, Object> consumerProps(String bootstrapServers, String groupId) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, SagaMessage.class.getName());
+        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, SagaMessage.class.getPackageName());
+        return props;
+    }
+}
@@ -0,0 +1,109 @@
+package com.bookingservice.config;
+
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardRoutingDataSource;
+import com.bookingservice.shard.ShardSequenceSeeder;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Booking storage sharded by flightId (see ShardRouter).
+ *
+ * The ShardRouter bean always exists; without booking.sharding.enabled it is a single-shard router
+ * and Boot's own DataSource is used unchanged. With sharding on, every booking.sharding.shards[i]
+ * gets a Hikari pool named shard-i (hikaricp.* metrics tagged pool=shard-i) behind a routing
+ * DataSource. Cannot be combined with booking.datasource.replica.enabled.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties,
+                                   @Value("${booking.pnr.shard-bits:0}") int pnrShardBits) {
+        if (!properties.isEnabled()) {
+            return ShardRouter.single();
+        }
+
+        int configured = properties.getShards().size();
+        int current = properties.currentShardCount();
+        int target = properties.getMigration().isEnabled() ? properties.getMigration().getTargetShardCount() : 0;
+        if (current <= 0 || current > configured) {
+            throw new IllegalStateException("booking.sharding.shard-count must be in [1, " + configured + "]");
+        }
+        if (properties.getMigration().isEnabled() && (target <= 0 || target > configured)) {
+            throw new IllegalStateException("booking.sharding.migration.target-shard-count must be in [1, " + configured + "]");
+        }
+        // PNRs carry the shard they were created on, so every configured shard must fit in shard-bits
+        if (configured > (1 << pnrShardBits)) {
+            throw new IllegalStateException("booking.pnr.shard-bits=" + pnrShardBits
+                    + " cannot address " + configured + " shards");
+        }
+        return new ShardRouter(current, properties.getVirtualNodes(), target);
+    }
+
+    /** Unsharded: the single database still needs its sequences moved past the existing ids. */
+    @Bean
+    @ConditionalOnProperty(name = "booking.sharding.enabled", havingValue = "false", matchIfMissing = true)
+    public ShardSequenceSeeder sequenceSeeder(DataSource dataSource) {
+        return new ShardSequenceSeeder(List.of(dataSource));
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "booking.sharding.enabled", havingValue = "true")
+    static class ShardDataSourceConfig {
+
+        @Bean
+        public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties properties,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             MeterRegistry meterRegistry,
+                                                             @Value("${booking.datasource.replica.enabled:false}") boolean replicaEnabled) {
+            if (replicaEnabled) {
+                throw new IllegalStateException("booking.sharding.enabled and booking.datasource.replica.enabled are mutually exclusive");
+            }
+            if (properties.getShards().isEmpty()) {
+                throw new IllegalStateException("booking.sharding.shards must list at least one datasource");
+            }
+
+            List<HikariDataSource> pools = new ArrayList<>();
+            for (int i = 0; i < properties.getShards().size(); i++) {
+                ShardingProperties.Shard shard = properties.getShards().get(i);
+                HikariDataSource ds = new HikariDataSource();
+                ds.setPoolName("shard-" + i);
+                ds.setJdbcUrl(shard.getUrl());
+                ds.setUsername(shard.getUsername() != null ? shard.getUsername() : dataSourceProperties.getUsername());
+                ds.setPassword(shard.getPassword() != null ? shard.getPassword() : dataSourceProperties.getPassword());
+                if (dataSourceProperties.getDriverClassName() != null) {
+                    ds.setDriverClassName(dataSourceProperties.getDriverClassName());
+                }
+                ds.setMaximumPoolSize(properties.getPoolSize());
+                ds.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+                pools.add(ds);
+            }
+            return new ShardRoutingDataSource(pools);
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+            return ShardRoutingDataSource.lazy(shardRoutingDataSource);
+        }
+
+        @Bean
+        public ShardSequenceSeeder shardSequenceSeeder(ShardRoutingDataSource shardRoutingDataSource) {
+            return new ShardSequenceSeeder(shardRoutingDataSource.shards());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.bookingservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * booking.sharding.*: booking storage split over several databases by flightId.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("booking.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    /** Shards in the current ring; defaults to all configured shards. */
+    private Integer shardCount;
+
+    /** Points per shard on the consistent-hash ring. */
+    private int virtualNodes = 128;
+
+    /** Connection pool size per shard. */
+    private int poolSize = 10;
+
+    /** One entry per physical database, index = shard number. Shard 0 is the home shard. */
+    private List<Shard> shards = new ArrayList<>();
+
+    private Migration migration = new Migration();
+
+    public int currentShardCount() {
+        return shardCount == null ? shards.size() : shardCount;
+    }
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+
+    @Getter
+    @Setter
+    public static class Migration {
+        /** Dual-write every booking to its owner under target-shard-count as well. */
+        private boolean enabled = false;
+        private int targetShardCount;
+        /** Bookings per backfill chunk. */
+        private int chunkSize = 500;
+    }
+}
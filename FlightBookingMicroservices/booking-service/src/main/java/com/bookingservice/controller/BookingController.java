@@ -1,7 +1,11 @@
 package com.bookingservice.controller;
 
+import com.bookingservice.dto.BookingHistoryPage;
 import com.bookingservice.dto.BookingRequest;
 import com.bookingservice.dto.BookingResponseDto;
+import com.bookingservice.dto.BulkBookingRequest;
+import com.bookingservice.dto.BulkBookingResponse;
+import com.bookingservice.saga.SagaOrchestrator;
 import com.bookingservice.service.BookingService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +30,8 @@ public class BookingController {
 
     /**
      * POST /api/flight/booking/{flightId} - Create booking
+     * 201, or 202 when the booking was queued as PENDING (degraded mode, see PendingBookingQueue)
+     * or is RESERVING its seats (booking saga, see SagaOrchestrator)
      */
     @PostMapping("/booking/{flightId}")
     public ResponseEntity<BookingResponseDto> bookTicket(
@@ -48,9 +54,25 @@ public class BookingController {
                 .buildAndExpand(resp.getPnr())
                 .toUri();
 
+        if ("PENDING".equals(resp.getStatus()) || SagaOrchestrator.STATUS_RESERVING.equals(resp.getStatus())) {
+            // not confirmed yet; the outcome follows as an event
+            return ResponseEntity.accepted().location(location).body(resp);
+        }
         return ResponseEntity.created(location).body(resp); 
     }
 
+    /**
+     * POST /api/flight/booking/bulk - Create many bookings at once (group / agency bookings).
+     * Always 200; each item carries its own status in the results.
+     */
+    @PostMapping("/booking/bulk")
+    public ResponseEntity<BulkBookingResponse> bookBulk(
+            @Valid @RequestBody BulkBookingRequest request,
+            @RequestHeader(USER_HEADER) String userEmail) {
+        BulkBookingResponse resp = bookingService.createBookings(request.getBookings(), userEmail);
+        return ResponseEntity.ok(resp);
+    }
+
     /**
      * GET /api/flight/ticket/{pnr}
      */
@@ -69,6 +91,19 @@ public class BookingController {
         return ResponseEntity.ok(list); 
     }
 
+    /**
+     * GET /api/flight/booking/history/{emailId}/page?size=20&cursor=...
+     * Keyset-paginated history; pass nextCursor from the previous page to continue.
+     */
+    @GetMapping("/booking/history/{emailId}/page")
+    public ResponseEntity<BookingHistoryPage> historyPage(
+            @PathVariable("emailId") String emailId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        BookingHistoryPage page = bookingService.getHistoryPage(emailId, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     /**
      * DELETE /api/flight/booking/cancel/{pnr}
      * Requires header X-User-Email to match booking owner
@@ -0,0 +1,45 @@
+package com.bookingservice.controller;
+
+import com.bookingservice.export.BookingExportService;
+import com.bookingservice.export.ExportFormat;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin")
+public class BookingExportController {
+
+    private final BookingExportService bookingExportService;
+
+    public BookingExportController(BookingExportService bookingExportService) {
+        this.bookingExportService = bookingExportService;
+    }
+
+    /**
+     * GET /api/admin/bookings/export?date=2024-05-01&format=csv|ndjson&gzip=true - all bookings created
+     * that day as a streamed file download (reconciliation)
+     */
+    @GetMapping("/bookings/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        String filename = "bookings-" + date + "." + exportFormat.extension() + (gzip ? ".gz" : "");
+
+        StreamingResponseBody body = out -> bookingExportService.exportDay(date, exportFormat, gzip, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.contentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,43 @@
+package com.bookingservice.controller;
+
+import com.bookingservice.dto.FlightCancellationStatus;
+import com.bookingservice.service.FlightCancellationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/admin")
+public class FlightAdminController {
+
+    private final FlightCancellationService flightCancellationService;
+
+    public FlightAdminController(FlightCancellationService flightCancellationService) {
+        this.flightCancellationService = flightCancellationService;
+    }
+
+    /**
+     * POST /api/admin/flights/{flightId}/cancel - cancel every booking on a flight (async, 202)
+     */
+    @PostMapping("/flights/{flightId}/cancel")
+    public ResponseEntity<FlightCancellationStatus> cancelFlight(@PathVariable("flightId") Long flightId) {
+        FlightCancellationStatus status = flightCancellationService.startCancellation(flightId);
+
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/admin/flight-cancellations/{jobId}")
+                .buildAndExpand(status.getJobId())
+                .toUri();
+
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    /**
+     * GET /api/admin/flight-cancellations/{jobId} - progress of a cancellation job
+     */
+    @GetMapping("/flight-cancellations/{jobId}")
+    public ResponseEntity<FlightCancellationStatus> cancellationStatus(@PathVariable("jobId") String jobId) {
+        return ResponseEntity.ok(flightCancellationService.getStatus(jobId));
+    }
+}
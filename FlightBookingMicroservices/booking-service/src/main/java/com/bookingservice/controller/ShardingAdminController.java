@@ -0,0 +1,43 @@
+package com.bookingservice.controller;
+
+import com.bookingservice.dto.ShardBackfillStatus;
+import com.bookingservice.shard.ShardBackfillService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/admin/sharding")
+public class ShardingAdminController {
+
+    private final ShardBackfillService shardBackfillService;
+
+    public ShardingAdminController(ShardBackfillService shardBackfillService) {
+        this.shardBackfillService = shardBackfillService;
+    }
+
+    /**
+     * POST /api/admin/sharding/backfill - copy existing bookings to their target shard (async, 202)
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<ShardBackfillStatus> startBackfill() {
+        ShardBackfillStatus status = shardBackfillService.startBackfill();
+
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/admin/sharding/backfill")
+                .build()
+                .toUri();
+
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    /**
+     * GET /api/admin/sharding/backfill - progress of the last backfill run
+     */
+    @GetMapping("/backfill")
+    public ResponseEntity<ShardBackfillStatus> backfillStatus() {
+        return ResponseEntity.ok(shardBackfillService.getStatus());
+    }
+}
@@ -0,0 +1,15 @@
+package com.bookingservice.dto;
+
+import java.util.List;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingHistoryPage {
+    private List<BookingResponseDto> items;
+    /** Opaque cursor for the next page; null when this is the last page. */
+    private String nextCursor;
+}
@@ -0,0 +1,17 @@
+package com.bookingservice.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkBookingItemResult {
+    /** Position of the item in BulkBookingRequest.bookings. */
+    private int index;
+    /** HTTP-style status for this item: 201 on success, 202 when queued as PENDING (degraded mode), otherwise 400/404/409/500/503. */
+    private int status;
+    private String error;
+    private BookingResponseDto booking;
+}
@@ -0,0 +1,19 @@
+package com.bookingservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkBookingRequest {
+
+    // items are validated one by one in BookingService so a bad item does not reject the whole batch
+    @NotEmpty
+    @Size(max = 200)
+    private List<BookingRequest> bookings;
+}
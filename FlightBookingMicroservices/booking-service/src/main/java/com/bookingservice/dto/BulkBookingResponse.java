@@ -0,0 +1,15 @@
+package com.bookingservice.dto;
+
+import java.util.List;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkBookingResponse {
+    private int succeeded;
+    private int failed;
+    private List<BulkBookingItemResult> results;
+}
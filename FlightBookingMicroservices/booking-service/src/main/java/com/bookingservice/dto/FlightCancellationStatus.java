@@ -0,0 +1,23 @@
+package com.bookingservice.dto;
+
+import java.time.Instant;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlightCancellationStatus {
+    private String jobId;
+    private Long flightId;
+    /** RUNNING, COMPLETED or FAILED. */
+    private String state;
+    /** Active bookings on the flight when the job started. */
+    private long totalBookings;
+    private long cancelledBookings;
+    private long eventsPublished;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
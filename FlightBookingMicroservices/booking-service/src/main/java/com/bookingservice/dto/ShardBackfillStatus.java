@@ -0,0 +1,25 @@
+package com.bookingservice.dto;
+
+import java.time.Instant;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ShardBackfillStatus {
+    private String jobId;
+    /** RUNNING, COMPLETED or FAILED. */
+    private String state;
+    /** Shards in the current ring and in the target ring. */
+    private int currentShards;
+    private int targetShards;
+    /** Bookings examined on their current owner shard. */
+    private long scannedBookings;
+    /** Bookings copied to their target shard. */
+    private long copiedBookings;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
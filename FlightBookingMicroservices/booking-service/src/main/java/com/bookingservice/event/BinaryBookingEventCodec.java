@@ -0,0 +1,241 @@
+package com.bookingservice.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact, versioned binary format for booking events.
+ *
+ * <pre>
+ * byte    MAGIC (0xB7, never the first byte of a JSON document)
+ * byte    schema version
+ * varint  presence mask, one bit per field in declaration order (null fields are not written)
+ * fields  strings: varint length + UTF-8; numbers: zig-zag varints;
+ *         createdAt: epoch seconds + nanos; passengers: varint count, each with its own mask
+ * </pre>
+ *
+ * Adding or changing a field means a new version: bump {@link #CURRENT_VERSION}, write the new layout
+ * and keep the reader of every older version, so records already on the topic stay readable.
+ */
+public class BinaryBookingEventCodec implements BookingEventCodec {
+
+    public static final byte MAGIC = (byte) 0xB7;
+    public static final byte CURRENT_VERSION = 1;
+
+    private static final int F_PNR = 1;
+    private static final int F_FLIGHT_ID = 1 << 1;
+    private static final int F_USER_EMAIL = 1 << 2;
+    private static final int F_NUM_SEATS = 1 << 3;
+    private static final int F_CREATED_AT = 1 << 4;
+    private static final int F_EVENT_TYPE = 1 << 5;
+    private static final int F_PASSENGERS = 1 << 6;
+    private static final int V1_EVENT_FIELDS = (1 << 7) - 1;
+
+    private static final int P_NAME = 1;
+    private static final int P_GENDER = 1 << 1;
+    private static final int P_AGE = 1 << 2;
+    private static final int P_SEAT = 1 << 3;
+    private static final int P_MEAL = 1 << 4;
+    private static final int V1_PASSENGER_FIELDS = (1 << 5) - 1;
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    @Override
+    public byte[] encode(BookingEventDto event) {
+        Writer w = new Writer(64 + 48 * (event.getPassengers() == null ? 0 : event.getPassengers().size()));
+        w.writeByte(MAGIC);
+        w.writeByte(CURRENT_VERSION);
+
+        int mask = (event.getPnr() != null ? F_PNR : 0)
+                | (event.getFlightId() != null ? F_FLIGHT_ID : 0)
+                | (event.getUserEmail() != null ? F_USER_EMAIL : 0)
+                | (event.getNumSeats() != null ? F_NUM_SEATS : 0)
+                | (event.getCreatedAt() != null ? F_CREATED_AT : 0)
+                | (event.getEventType() != null ? F_EVENT_TYPE : 0)
+                | (event.getPassengers() != null ? F_PASSENGERS : 0);
+        w.writeVarLong(mask);
+
+        if ((mask & F_PNR) != 0) w.writeString(event.getPnr());
+        if ((mask & F_FLIGHT_ID) != 0) w.writeZigZag(event.getFlightId());
+        if ((mask & F_USER_EMAIL) != 0) w.writeString(event.getUserEmail());
+        if ((mask & F_NUM_SEATS) != 0) w.writeZigZag(event.getNumSeats());
+        if ((mask & F_CREATED_AT) != 0) {
+            w.writeZigZag(event.getCreatedAt().getEpochSecond());
+            w.writeVarLong(event.getCreatedAt().getNano());
+        }
+        if ((mask & F_EVENT_TYPE) != 0) w.writeString(event.getEventType());
+        if ((mask & F_PASSENGERS) != 0) {
+            List<BookingEventDto.PassengerInfo> passengers = event.getPassengers();
+            w.writeVarLong(passengers.size());
+            for (BookingEventDto.PassengerInfo p : passengers) {
+                writePassenger(w, p);
+            }
+        }
+        return w.toByteArray();
+    }
+
+    private static void writePassenger(Writer w, BookingEventDto.PassengerInfo p) {
+        int mask = (p.getName() != null ? P_NAME : 0)
+                | (p.getGender() != null ? P_GENDER : 0)
+                | (p.getAge() != null ? P_AGE : 0)
+                | (p.getSeatNumber() != null ? P_SEAT : 0)
+                | (p.getMealPreference() != null ? P_MEAL : 0);
+        w.writeVarLong(mask);
+        if ((mask & P_NAME) != 0) w.writeString(p.getName());
+        if ((mask & P_GENDER) != 0) w.writeString(p.getGender());
+        if ((mask & P_AGE) != 0) w.writeZigZag(p.getAge());
+        if ((mask & P_SEAT) != 0) w.writeString(p.getSeatNumber());
+        if ((mask & P_MEAL) != 0) w.writeString(p.getMealPreference());
+    }
+
+    @Override
+    public BookingEventDto decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new SerializationException("Not a binary booking event (bad magic byte)");
+        }
+        Reader r = new Reader(data, 2);
+        try {
+            return switch (data[1]) {
+                case 1 -> readV1(r);
+                default -> throw new SerializationException("Unsupported booking event schema version " + data[1]);
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated booking event", e);
+        }
+    }
+
+    private static BookingEventDto readV1(Reader r) {
+        int mask = checkMask(r.readVarLong(), V1_EVENT_FIELDS);
+        BookingEventDto event = new BookingEventDto();
+        if ((mask & F_PNR) != 0) event.setPnr(r.readString());
+        if ((mask & F_FLIGHT_ID) != 0) event.setFlightId(r.readZigZag());
+        if ((mask & F_USER_EMAIL) != 0) event.setUserEmail(r.readString());
+        if ((mask & F_NUM_SEATS) != 0) event.setNumSeats((int) r.readZigZag());
+        if ((mask & F_CREATED_AT) != 0) {
+            long seconds = r.readZigZag();
+            event.setCreatedAt(Instant.ofEpochSecond(seconds, r.readVarLong()));
+        }
+        if ((mask & F_EVENT_TYPE) != 0) event.setEventType(r.readString());
+        if ((mask & F_PASSENGERS) != 0) {
+            int count = r.readLength();
+            List<BookingEventDto.PassengerInfo> passengers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                passengers.add(readPassengerV1(r));
+            }
+            event.setPassengers(passengers);
+        }
+        return event;
+    }
+
+    private static BookingEventDto.PassengerInfo readPassengerV1(Reader r) {
+        int mask = checkMask(r.readVarLong(), V1_PASSENGER_FIELDS);
+        BookingEventDto.PassengerInfo p = new BookingEventDto.PassengerInfo();
+        if ((mask & P_NAME) != 0) p.setName(r.readString());
+        if ((mask & P_GENDER) != 0) p.setGender(r.readString());
+        if ((mask & P_AGE) != 0) p.setAge((int) r.readZigZag());
+        if ((mask & P_SEAT) != 0) p.setSeatNumber(r.readString());
+        if ((mask & P_MEAL) != 0) p.setMealPreference(r.readString());
+        return p;
+    }
+
+    private static int checkMask(long mask, int known) {
+        if ((mask & ~known) != 0) {
+            throw new SerializationException("Unknown fields in booking event mask: " + Long.toBinaryString(mask));
+        }
+        return (int) mask;
+    }
+
+    private static final class Writer {
+        private byte[] buf;
+        private int pos;
+
+        Writer(int capacity) {
+            this.buf = new byte[capacity];
+        }
+
+        void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+
+        void writeByte(byte b) {
+            ensure(1);
+            buf[pos++] = b;
+        }
+
+        void writeVarLong(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        void writeZigZag(long v) {
+            writeVarLong((v << 1) ^ (v >> 63));
+        }
+
+        void writeString(String s) {
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, buf, pos, utf8.length);
+            pos += utf8.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf[pos++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new SerializationException("Malformed varint in booking event");
+        }
+
+        long readZigZag() {
+            long v = readVarLong();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        int readLength() {
+            long len = readVarLong();
+            if (len < 0 || len > buf.length - pos) {
+                throw new SerializationException("Invalid length " + len + " in booking event");
+            }
+            return (int) len;
+        }
+
+        String readString() {
+            int len = readLength();
+            String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.bookingservice.event;
+
+/**
+ * Wire format for {@link BookingEventDto}. Implementations must be thread-safe: one instance is
+ * shared by every producer and consumer thread.
+ */
+public interface BookingEventCodec {
+
+    byte[] encode(BookingEventDto event);
+
+    BookingEventDto decode(byte[] data);
+}
@@ -0,0 +1,36 @@
+package com.bookingservice.event;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+
+/**
+ * Plain JSON, bound to {@link BookingEventDto} only: no type headers and no polymorphic typing,
+ * so a payload can never pick the class it is deserialized into.
+ */
+public class JsonBookingEventCodec implements BookingEventCodec {
+
+    private final ObjectMapper mapper = JacksonUtils.enhancedObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Override
+    public byte[] encode(BookingEventDto event) {
+        try {
+            return mapper.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot encode booking event as JSON", e);
+        }
+    }
+
+    @Override
+    public BookingEventDto decode(byte[] data) {
+        try {
+            return mapper.readValue(data, BookingEventDto.class);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot decode booking event from JSON", e);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.bookingservice.export;
+
+import com.bookingservice.shard.ShardTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams every booking created on one day, passengers included, for finance reconciliation.
+ *
+ * One forward-only query per shard (bookings left join passengers, ordered by created_at, id) read
+ * with a JDBC fetch size inside a read-only transaction; each booking is written as soon as its
+ * last passenger row has been read. Nothing is collected, so memory stays flat however many rows a
+ * day has. Bookings come shard by shard, each shard in creation order.
+ *
+ * On MySQL the driver only honours the fetch size with useCursorFetch=true on the JDBC URL;
+ * without it the whole result set is buffered client-side.
+ */
+@Service
+public class BookingExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingExportService.class);
+
+    static final String EXPORT_QUERY = "select b.id, b.pnr, b.flight_id, b.user_email, b.num_seats, b.total_price,"
+            + " b.status, b.created_at, b.cancelled_at, p.id as passenger_id, p.passenger_name, p.gender, p.age,"
+            + " p.seat_number, p.meal_preference"
+            + " from bookings b left join passengers p on p.booking_id = b.id"
+            + " where b.created_at >= ? and b.created_at < ?"
+            + " order by b.created_at, b.id, p.id";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ShardTemplate shards;
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper objectMapper;
+    private final ZoneId zone;
+    private final MeterRegistry meterRegistry;
+    private final Timer exportTimer;
+
+    public BookingExportService(ShardTemplate shards,
+                                DataSource dataSource,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${booking.export.fetch-size:1000}") int fetchSize,
+                                @Value("${booking.export.zone:UTC}") ZoneId zone) {
+        this.shards = shards;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+        this.zone = zone;
+        this.meterRegistry = meterRegistry;
+        this.exportTimer = Timer.builder("booking.export.duration")
+                .description("Time to stream one booking export")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Write the day's bookings (day boundaries in booking.export.zone) to out in the given format,
+     * gzip-compressed if asked. out is flushed but not closed.
+     *
+     * @return number of bookings written
+     */
+    public long exportDay(LocalDate day, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        Instant from = day.atStartOfDay(zone).toInstant();
+        Instant to = day.plusDays(1).atStartOfDay(zone).toInstant();
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer chars = new BufferedWriter(new OutputStreamWriter(gzip ? compressed : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        BookingExportWriter writer = BookingExportWriter.create(format, chars, objectMapper);
+
+        long exported = 0;
+        for (int shard = 0; shard < shards.router().shardCount(); shard++) {
+            exported += exportShard(shard, from, to, writer);
+        }
+
+        writer.flush();
+        chars.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+
+        sample.stop(exportTimer);
+        Counter.builder("booking.export.bookings")
+                .description("Bookings written by exports")
+                .tag("format", format.extension())
+                .register(meterRegistry)
+                .increment(exported);
+        log.info("Booking export done: day={} format={} gzip={} bookings={}", day, format, gzip, exported);
+        return exported;
+    }
+
+    private long exportShard(int shard, Instant from, Instant to, BookingExportWriter writer) throws IOException {
+        try {
+            return shards.inShard(shard, true, () -> {
+                BookingAssembler assembler = new BookingAssembler(shard, writer);
+                Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+                jdbc.query(EXPORT_QUERY, ps -> {
+                    ps.setTimestamp(1, Timestamp.from(from), utc);
+                    ps.setTimestamp(2, Timestamp.from(to), utc);
+                }, assembler);
+                assembler.finish();
+                return assembler.count;
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Folds the joined rows of one booking into an ExportedBooking and hands it to the writer when
+     * the next booking starts. Rows of flights the shard does not own (reshard leftovers) are skipped.
+     */
+    private final class BookingAssembler implements RowCallbackHandler {
+
+        private final int shard;
+        private final BookingExportWriter writer;
+        private final Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        private ExportedBooking current;
+        private long count;
+
+        BookingAssembler(int shard, BookingExportWriter writer) {
+            this.shard = shard;
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (current == null || current.id() != id) {
+                finish();
+                long flightId = rs.getLong("flight_id");
+                if (shards.router().shardForFlight(flightId) != shard) {
+                    current = null;
+                    return;
+                }
+                current = new ExportedBooking(id, rs.getString("pnr"), flightId, rs.getString("user_email"),
+                        rs.getInt("num_seats"), rs.getDouble("total_price"), rs.getString("status"),
+                        instant(rs, "created_at"), instant(rs, "cancelled_at"), new ArrayList<>());
+            }
+            if (rs.getObject("passenger_id") != null) {
+                current.passengers().add(new ExportedBooking.Passenger(rs.getString("passenger_name"),
+                        rs.getString("gender"), rs.getObject("age", Integer.class),
+                        rs.getString("seat_number"), rs.getString("meal_preference")));
+            }
+        }
+
+        void finish() {
+            if (current == null) {
+                return;
+            }
+            try {
+                writer.write(current);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            count++;
+            current = null;
+        }
+
+        private Instant instant(ResultSet rs, String column) throws SQLException {
+            Timestamp ts = rs.getTimestamp(column, utc);
+            return ts == null ? null : ts.toInstant();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.bookingservice.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Serializes exported bookings one at a time onto a character stream.
+ */
+public interface BookingExportWriter {
+
+    void write(ExportedBooking booking) throws IOException;
+
+    /** Flush anything buffered; does not close the underlying stream. */
+    void flush() throws IOException;
+
+    static BookingExportWriter create(ExportFormat format, Writer out, ObjectMapper mapper) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvBookingExportWriter(out);
+            case NDJSON -> new NdjsonBookingExportWriter(out, mapper);
+        };
+    }
+}
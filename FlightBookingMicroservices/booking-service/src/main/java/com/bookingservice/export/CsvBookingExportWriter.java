@@ -0,0 +1,84 @@
+package com.bookingservice.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV, one record per passenger (a booking without passengers still gets one record).
+ *
+ * Free-text fields that a spreadsheet would evaluate as a formula (leading = + - @) are prefixed
+ * with a single quote.
+ */
+class CsvBookingExportWriter implements BookingExportWriter {
+
+    static final String HEADER = "booking_id,pnr,flight_id,user_email,num_seats,total_price,status,created_at,cancelled_at,"
+            + "passenger_name,gender,age,seat_number,meal_preference";
+
+    private static final ExportedBooking.Passenger NO_PASSENGER = new ExportedBooking.Passenger(null, null, null, null, null);
+
+    private final Writer out;
+
+    CsvBookingExportWriter(Writer out) throws IOException {
+        this.out = out;
+        out.write(HEADER);
+        out.write("\r\n");
+    }
+
+    @Override
+    public void write(ExportedBooking b) throws IOException {
+        List<ExportedBooking.Passenger> passengers = b.passengers().isEmpty() ? List.of(NO_PASSENGER) : b.passengers();
+        for (ExportedBooking.Passenger p : passengers) {
+            field(b.id(), false);
+            field(b.pnr(), false);
+            field(b.flightId(), false);
+            text(b.userEmail(), false);
+            field(b.numSeats(), false);
+            field(b.totalPrice(), false);
+            field(b.status(), false);
+            field(b.createdAt(), false);
+            field(b.cancelledAt(), false);
+            text(p.name(), false);
+            text(p.gender(), false);
+            field(p.age(), false);
+            text(p.seatNumber(), false);
+            text(p.mealPreference(), true);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void field(Object value, boolean last) throws IOException {
+        if (value != null) {
+            out.write(value.toString());
+        }
+        out.write(last ? "\r\n" : ",");
+    }
+
+    private void text(String value, boolean last) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            String safe = "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+            if (needsQuoting(safe)) {
+                out.write('"');
+                out.write(safe.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(safe);
+            }
+        }
+        out.write(last ? "\r\n" : ",");
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+package com.bookingservice.export;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/** Wire formats of the booking export. */
+public enum ExportFormat {
+    /** One line per passenger, booking columns repeated. */
+    CSV("text/csv", "csv"),
+    /** One JSON object per booking and line, passengers nested. */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat parse(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+        }
+    }
+}
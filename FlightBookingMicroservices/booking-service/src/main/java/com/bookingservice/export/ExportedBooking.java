@@ -0,0 +1,22 @@
+package com.bookingservice.export;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One booking with its passengers as read by the export query; lives only until it is written.
+ */
+public record ExportedBooking(Long id,
+                              String pnr,
+                              Long flightId,
+                              String userEmail,
+                              Integer numSeats,
+                              Double totalPrice,
+                              String status,
+                              Instant createdAt,
+                              Instant cancelledAt,
+                              List<Passenger> passengers) {
+
+    public record Passenger(String name, String gender, Integer age, String seatNumber, String mealPreference) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.bookingservice.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Newline-delimited JSON: one booking object (passengers nested) per line.
+ * One generator for the whole stream, never flushed per record. Timestamps are always ISO-8601,
+ * whatever the application's ObjectMapper does with dates.
+ */
+class NdjsonBookingExportWriter implements BookingExportWriter {
+
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+
+    NdjsonBookingExportWriter(Writer out, ObjectMapper mapper) throws IOException {
+        this.generator = mapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // records are terminated by '\n' below instead of the default " " between root values
+        this.writer = mapper.writerFor(ExportedBooking.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .withRootValueSeparator("");
+    }
+
+    @Override
+    public void write(ExportedBooking booking) throws IOException {
+        writer.writeValue(generator, booking);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+}
@@ -0,0 +1,25 @@
+package com.bookingservice.kafka;
+
+import com.bookingservice.event.BinaryBookingEventCodec;
+import com.bookingservice.event.BookingEventDto;
+import com.bookingservice.event.JsonBookingEventCodec;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer for booking events. Detects the format per record from the first byte, so
+ * binary and JSON records can sit on the topic side by side while producers switch
+ * booking.kafka.codec. JSON is always bound to {@link BookingEventDto}; type headers are ignored.
+ */
+public class BookingEventDeserializer implements Deserializer<BookingEventDto> {
+
+    private final BinaryBookingEventCodec binary = new BinaryBookingEventCodec();
+    private final JsonBookingEventCodec json = new JsonBookingEventCodec();
+
+    @Override
+    public BookingEventDto deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return BinaryBookingEventCodec.isBinary(data) ? binary.decode(data) : json.decode(data);
+    }
+}
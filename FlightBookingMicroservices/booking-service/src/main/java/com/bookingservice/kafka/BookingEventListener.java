@@ -1,22 +1,59 @@
 package com.bookingservice.kafka;
 
 import com.bookingservice.event.BookingEventDto;
-import com.bookingservice.config.KafkaConfig; // if you want constants or use literal
+import com.bookingservice.config.KafkaConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class BookingEventListener {
 
     private static final Logger log = LoggerFactory.getLogger(BookingEventListener.class);
 
-    @KafkaListener(topics = "booking-events", groupId = "flight-service-group")
-    public void onBookingEvent(BookingEventDto event) {
-        
+    private final Counter consumedCounter;
+
+    public BookingEventListener(MeterRegistry meterRegistry) {
+        this.consumedCounter = Counter.builder("booking.events.consumed")
+                .description("Booking events processed by the listener")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Batch listener. Each container thread owns a set of partitions and processes its batch in order,
+     * so events of one flight (same key, same partition) are handled in publish order.
+     *
+     * A failing record is reported with its index: the error handler commits the records before it,
+     * retries from it and, once retries are exhausted, sends it to booking-events.DLT.
+     * Offsets are committed after the batch returns (AckMode.BATCH).
+     */
+    @KafkaListener(topics = KafkaConfig.TOPIC_BOOKING_EVENTS, groupId = "flight-service-group",
+            containerFactory = "bookingEventsListenerFactory")
+    public void onBookingEvents(List<ConsumerRecord<String, BookingEventDto>> records) {
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, BookingEventDto> rec = records.get(i);
+            if (rec.value() == null) {
+                // ErrorHandlingDeserializer leaves null when the payload could not be decoded
+                throw new BatchListenerFailedException("Undeserializable booking event", i);
+            }
+            try {
+                onBookingEvent(rec.value());
+            } catch (RuntimeException ex) {
+                throw new BatchListenerFailedException("Failed to process booking event", ex, i);
+            }
+            consumedCounter.increment();
+        }
+    }
+
+    void onBookingEvent(BookingEventDto event) {
         log.info("Received booking event: type={} pnr={} flightId={} user={}",
                 event.getEventType(), event.getPnr(), event.getFlightId(), event.getUserEmail());
-
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,19 @@
 package com.bookingservice.kafka;
 
+import com.bookingservice.config.KafkaProducerTuning;
 import com.bookingservice.event.BookingEventDto;
 import com.bookingservice.config.KafkaConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
-import org.springframework.util.concurrent.ListenableFutureCallback;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class BookingEventPublisher {
@@ -14,32 +21,67 @@ public class BookingEventPublisher {
     private final KafkaTemplate<String, BookingEventDto> kafkaTemplate;
     private static final Logger log = LoggerFactory.getLogger(BookingEventPublisher.class);
 
-    public BookingEventPublisher(KafkaTemplate<String, BookingEventDto> kafkaTemplate) {
+    private final Timer ackTimer;
+    private final Counter failedCounter;
+
+    public BookingEventPublisher(KafkaTemplate<String, BookingEventDto> kafkaTemplate,
+                                 KafkaProducerTuning tuning,
+                                 MeterRegistry meterRegistry) {
         this.kafkaTemplate = kafkaTemplate;
+        // tagged with the producer settings so runs with different linger/batch/compression can be compared
+        this.ackTimer = Timer.builder("booking.events.publish")
+                .description("Time from send() to broker acknowledgement of a booking event")
+                .tags(tuning.tags())
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("booking.events.publish.failed")
+                .tags(tuning.tags())
+                .register(meterRegistry);
     }
 
     /**
      * Publish event (fire-and-forget but with callbacks logged).
+     * Keyed by flightId: all events of a flight land on one partition and stay ordered.
      */
     public void publishBookingEvent(BookingEventDto event) {
+        long start = System.nanoTime();
         try {
-            kafkaTemplate.send(KafkaConfig.TOPIC_BOOKING_EVENTS, event.getPnr(), event)
-                    .addCallback(new ListenableFutureCallback<>() {
-                        @Override
-                        public void onFailure(Throwable ex) {
-                            log.warn("Failed to publish booking event pnr={} error={}", event.getPnr(), ex.toString());
-                        }
-
-                        @Override
-                        public void onSuccess(org.springframework.kafka.support.SendResult<String, BookingEventDto> result) {
-                            log.info("Published booking-event pnr={} partition={} offset={}",
-                                    event.getPnr(),
-                                    result.getRecordMetadata().partition(),
-                                    result.getRecordMetadata().offset());
-                        }
-                    });
+            kafkaTemplate.send(KafkaConfig.TOPIC_BOOKING_EVENTS, keyOf(event), event)
+                    .whenComplete((result, ex) -> onComplete(event, result, ex, start));
         } catch (Exception e) {
+            failedCounter.increment();
             log.warn("Exception while publishing booking event pnr={} : {}", event.getPnr(), e.toString());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Publish a batch of events and flush, so the whole batch leaves the producer before returning.
+     * Used by bulk jobs (e.g. flight cancellation) that emit one event per booking.
+     */
+    public void publishBookingEvents(List<BookingEventDto> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        for (BookingEventDto event : events) {
+            publishBookingEvent(event);
+        }
+        kafkaTemplate.flush();
+    }
+
+    static String keyOf(BookingEventDto event) {
+        return event.getFlightId() != null ? String.valueOf(event.getFlightId()) : event.getPnr();
+    }
+
+    private void onComplete(BookingEventDto event, SendResult<String, BookingEventDto> result, Throwable ex, long start) {
+        if (ex != null) {
+            failedCounter.increment();
+            log.warn("Failed to publish booking event pnr={} error={}", event.getPnr(), ex.toString());
+            return;
+        }
+        ackTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Published booking-event pnr={} partition={} offset={}",
+                event.getPnr(),
+                result.getRecordMetadata().partition(),
+                result.getRecordMetadata().offset());
+    }
+}
@@ -0,0 +1,27 @@
+package com.bookingservice.kafka;
+
+import com.bookingservice.event.BinaryBookingEventCodec;
+import com.bookingservice.event.BookingEventCodec;
+import com.bookingservice.event.BookingEventDto;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer for booking events using the compact binary codec.
+ */
+public class BookingEventSerializer implements Serializer<BookingEventDto> {
+
+    private final BookingEventCodec codec;
+
+    public BookingEventSerializer() {
+        this(new BinaryBookingEventCodec());
+    }
+
+    public BookingEventSerializer(BookingEventCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(String topic, BookingEventDto data) {
+        return data == null ? null : codec.encode(data);
+    }
+}
@@ -0,0 +1,113 @@
+package com.bookingservice.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Adaptive concurrency limiter using AIMD (additive increase / multiplicative decrease)
+ * driven by observed request latency.
+ *
+ *  - a request completing under the latency target grows the limit by 1/limit, so about +1 per
+ *    window of limit requests
+ *  - a request slower than the target, or one that failed with an overload signal, multiplies the
+ *    limit by backoffRatio, at most once per round trip: only a request that started after the last
+ *    decrease can trigger the next one
+ *
+ * The round-trip rule is TCP's: the slow requests of one window all report the same congestion, so a
+ * burst of them cuts the limit once instead of collapsing it to minLimit in one go.
+ *
+ * Requests above the current limit are rejected immediately instead of queueing on Tomcat threads
+ * and Hikari connections. The state is three atomics; no locks are taken on the request path.
+ */
+public class AimdConcurrencyLimiter {
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** Current limit as raw double bits, so fractional additive increases accumulate. */
+    private final AtomicLong limitBits;
+    /** System.nanoTime() of the last decrease, NEVER before the first one. */
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(NEVER);
+
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                  long latencyTargetNanos, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("require 1 <= minLimit <= maxLimit");
+        }
+        if (backoffRatio <= 0.0 || backoffRatio >= 1.0) {
+            throw new IllegalArgumentException("backoffRatio must be in (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.backoffRatio = backoffRatio;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(clamp(initialLimit)));
+    }
+
+    /**
+     * Try to reserve a slot. Returns false when the request should be shed.
+     * Every successful acquire must be paired with exactly one {@link #release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release a slot and feed the observed latency back into the limit.
+     *
+     * @param latencyNanos wall time of the request
+     * @param overloaded   true when the request failed in a way that signals overload (timeouts, 503)
+     */
+    public void release(long latencyNanos, boolean overloaded) {
+        release(latencyNanos, overloaded, System.nanoTime());
+    }
+
+    void release(long latencyNanos, boolean overloaded, long nowNanos) {
+        inFlight.decrementAndGet();
+        if (overloaded || latencyNanos > latencyTargetNanos) {
+            long last = lastDecreaseNanos.get();
+            if (last != NEVER && nowNanos - latencyNanos - last < 0) {
+                return;   // started before the last decrease: that congestion has been answered already
+            }
+            if (lastDecreaseNanos.compareAndSet(last, nowNanos)) {
+                updateLimit(limit -> limit * backoffRatio);
+            }
+        } else {
+            updateLimit(limit -> limit + 1.0 / limit);
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void updateLimit(DoubleUnaryOperator fn) {
+        limitBits.updateAndGet(bits -> Double.doubleToLongBits(clamp(fn.applyAsDouble(Double.longBitsToDouble(bits)))));
+    }
+
+    private double clamp(double limit) {
+        return Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+}
@@ -0,0 +1,101 @@
+package com.bookingservice.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter that guards a group of endpoints with an AimdConcurrencyLimiter.
+ *
+ * Excess requests are shed before they reach the controller, so they never hold a Tomcat thread
+ * through a Feign call or a Hikari connection. The status tells the caller why, both with Retry-After:
+ *
+ *  - 503 while the limit is below max-limit: the limiter backed off on latency over target or overload
+ *    responses (or is still ramping up from initial-limit), so the service is at capacity
+ *  - 429 when the limit sits at max-limit: the service is healthy, callers just exceed the configured
+ *    concurrency ceiling
+ *
+ * Responses with status 503/504 (or exceptions) count as overload signals for the limiter; the 429
+ * and 503 sent here never reach it.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final String name;
+    private final AimdConcurrencyLimiter limiter;
+    private final String method;
+    private final String retryAfterSeconds;
+    private final Counter shedOverloaded;
+    private final Counter shedAtMaxLimit;
+
+    public ConcurrencyLimitFilter(String name, AimdConcurrencyLimiter limiter, String method,
+                                  int retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.limiter = limiter;
+        this.method = method;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        this.shedOverloaded = shedCounter(meterRegistry, name, "overloaded");
+        this.shedAtMaxLimit = shedCounter(meterRegistry, name, "max_limit");
+        Gauge.builder("booking.limiter.limit", limiter, AimdConcurrencyLimiter::getLimit)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("booking.limiter.inflight", limiter, AimdConcurrencyLimiter::getInFlight)
+                .tag("limiter", name)
+                .register(meterRegistry);
+    }
+
+    private static Counter shedCounter(MeterRegistry meterRegistry, String name, String cause) {
+        return Counter.builder("booking.limiter.shed")
+                .description("Requests rejected by the adaptive concurrency limiter, by cause")
+                .tag("limiter", name)
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return method != null && !method.equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        if (!limiter.tryAcquire()) {
+            int limit = limiter.getLimit();
+            log.debug("Shedding {} {}: limiter={} limit={}", request.getMethod(), request.getRequestURI(), name, limit);
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            if (limit >= limiter.getMaxLimit()) {
+                shedAtMaxLimit.increment();
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many concurrent requests. Try again later.");
+            } else {
+                shedOverloaded.increment();
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server overloaded. Try again later.");
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean overloaded = true;
+        try {
+            chain.doFilter(request, response);
+            int status = response.getStatus();
+            overloaded = status == HttpStatus.SERVICE_UNAVAILABLE.value()
+                    || status == HttpStatus.GATEWAY_TIMEOUT.value();
+        } finally {
+            limiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+}
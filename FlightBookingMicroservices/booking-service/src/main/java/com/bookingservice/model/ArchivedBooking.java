@@ -0,0 +1,52 @@
+package com.bookingservice.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.List;
+import lombok.*;
+
+/**
+ * A booking moved out of bookings by BookingArchiveJob. Same columns and ids as Booking, plus
+ * archived_at; rows are only ever written by the job's INSERT ... SELECT, never through JPA.
+ */
+@Entity
+@Table(name = "bookings_archive", indexes = {
+        @Index(name = "idx_bookings_archive_pnr", columnList = "pnr", unique = true)
+})
+@Getter @Setter @NoArgsConstructor
+public class ArchivedBooking {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String pnr;
+
+    @Column(name = "flight_id", nullable = false)
+    private Long flightId;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(name = "num_seats", nullable = false)
+    private Integer numSeats;
+
+    @Column(name = "total_price", nullable = false)
+    private Double totalPrice;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "cancelled_at")
+    private Instant cancelledAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    @OneToMany(mappedBy = "booking", fetch = FetchType.LAZY)
+    @OrderBy("id")
+    private List<ArchivedPassenger> passengers;
+}
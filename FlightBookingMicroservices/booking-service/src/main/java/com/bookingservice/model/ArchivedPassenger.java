@@ -0,0 +1,30 @@
+package com.bookingservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A passenger moved to passengers_archive together with its booking (see ArchivedBooking).
+ */
+@Entity
+@Table(name = "passengers_archive", indexes = {
+        @Index(name = "idx_passengers_archive_booking", columnList = "booking_id")
+})
+@Getter @Setter @NoArgsConstructor
+public class ArchivedPassenger {
+
+    @Id
+    private Long id;
+
+    @Column(name = "passenger_name", nullable = false)
+    private String passengerName;
+
+    private String gender;
+    private Integer age;
+    private String seatNumber;
+    private String mealPreference;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booking_id")
+    private ArchivedBooking booking;
+}
@@ -6,12 +6,23 @@ import java.util.List;
 import lombok.*;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        // keyset pagination of user history: where user_email = ? order by created_at desc, id desc
+        // (InnoDB appends the primary key to secondary indexes, so the id tie-breaker is covered)
+        @Index(name = "idx_bookings_user_created", columnList = "user_email, created_at"),
+        // day-range scan of the reconciliation export, in created_at order
+        @Index(name = "idx_bookings_created", columnList = "created_at"),
+        // drain of the degraded-mode queue (where status = 'PENDING' order by id) and the archive job's
+        // candidate read (where status in ('CANCELLED', 'REJECTED') and cancelled_at < ?)
+        @Index(name = "idx_bookings_status_cancelled", columnList = "status, cancelled_at")
+})
 @Getter @Setter @NoArgsConstructor
 public class Booking {
 
+    // pooled sequence (table-emulated on MySQL) instead of IDENTITY so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -30,7 +41,7 @@ public class Booking {
     private Double totalPrice;
 
     @Column(nullable = false)
-    private String status; 
+    private String status; // ACTIVE, CANCELLED; PENDING / REJECTED in degraded mode (see PendingBookingQueue); RESERVING while a saga reserves its seats (see SagaOrchestrator)
 
     @Column(name = "created_at", nullable = false)
     private Instant createdAt = Instant.now();
@@ -4,12 +4,18 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "passengers")
+@Table(name = "passengers", uniqueConstraints = {
+        // a seat of a flight can be held by one active passenger only; released seats have seat_claim
+        // null, which unique indexes do not compare, so any number of cancelled passengers may share it
+        @UniqueConstraint(name = "uk_passengers_flight_seat_claim", columnNames = {"flight_id", "seat_number", "seat_claim"})
+})
 @Getter @Setter @NoArgsConstructor
 public class Passenger {
 
+    // pooled sequence (table-emulated on MySQL) instead of IDENTITY so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "passenger_seq")
+    @SequenceGenerator(name = "passenger_seq", sequenceName = "passenger_seq", allocationSize = 50)
     private Long id;
 
     @Column(name="passenger_name", nullable=false)
@@ -20,6 +26,14 @@ public class Passenger {
     private String seatNumber;
     private String mealPreference;
 
+    // copy of booking.flightId, so the seat constraint can live on this table
+    @Column(name = "flight_id")
+    private Long flightId;
+
+    // TRUE while the booking holds seatNumber, null once cancelled
+    @Column(name = "seat_claim")
+    private Boolean seatClaim;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id")
     private Booking booking;
@@ -0,0 +1,20 @@
+package com.bookingservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Next unreserved PNR sequence number per node (see PnrGenerator).
+ */
+@Entity
+@Table(name = "pnr_sequence")
+@Getter @Setter @NoArgsConstructor
+public class PnrSequence {
+
+    @Id
+    @Column(name = "node_id")
+    private Integer nodeId;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
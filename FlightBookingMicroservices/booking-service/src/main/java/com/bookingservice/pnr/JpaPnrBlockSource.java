@@ -0,0 +1,50 @@
+package com.bookingservice.pnr;
+
+import com.bookingservice.model.PnrSequence;
+import com.bookingservice.repository.PnrSequenceRepository;
+import com.bookingservice.shard.ShardContext;
+import com.bookingservice.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reserves PNR sequence blocks in the pnr_sequence table (one row per node, hi/lo style).
+ * Runs in its own transaction so a booking rollback never hands a block out twice.
+ * With sharded storage the table lives on the home shard only.
+ */
+@Component
+public class JpaPnrBlockSource implements PnrBlockSource {
+
+    private static final Logger log = LoggerFactory.getLogger(JpaPnrBlockSource.class);
+
+    private final PnrSequenceRepository pnrSequenceRepository;
+
+    public JpaPnrBlockSource(PnrSequenceRepository pnrSequenceRepository) {
+        this.pnrSequenceRepository = pnrSequenceRepository;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long reserve(int nodeId, int blockSize) {
+        return ShardContext.callOn(ShardRouter.HOME_SHARD, () -> reserveOnHomeShard(nodeId, blockSize));
+    }
+
+    private long reserveOnHomeShard(int nodeId, int blockSize) {
+        PnrSequence seq = pnrSequenceRepository.findForUpdate(nodeId).orElseGet(() -> {
+            PnrSequence created = new PnrSequence();
+            created.setNodeId(nodeId);
+            created.setNextValue(0L);
+            return created;
+        });
+
+        long start = seq.getNextValue();
+        seq.setNextValue(start + blockSize);
+        pnrSequenceRepository.save(seq);
+
+        log.info("Reserved PNR block node={} start={} size={}", nodeId, start, blockSize);
+        return start;
+    }
+}
@@ -0,0 +1,14 @@
+package com.bookingservice.pnr;
+
+/**
+ * Hands out disjoint ranges of a node's PNR sequence.
+ */
+public interface PnrBlockSource {
+
+    /**
+     * Reserve blockSize consecutive sequence numbers for nodeId.
+     *
+     * @return the first number of the reserved range
+     */
+    long reserve(int nodeId, int blockSize);
+}
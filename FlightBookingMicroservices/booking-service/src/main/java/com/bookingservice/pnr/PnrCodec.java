@@ -0,0 +1,107 @@
+package com.bookingservice.pnr;
+
+import java.util.Arrays;
+
+/**
+ * Maps 30-bit sequence values to 6-character record locators and back.
+ *
+ * The value is first scrambled with a bijective permutation of [0, 2^30) (odd multiplications and
+ * xor-shifts, each invertible modulo 2^30) so consecutive sequence numbers do not produce guessable,
+ * consecutive PNRs. It is then written as 6 base-32 digits using an alphabet without the
+ * look-alike characters 0/O and 1/I.
+ *
+ * Because every step is a bijection, distinct values always yield distinct PNRs.
+ */
+public final class PnrCodec {
+
+    public static final int BITS = 30;
+    public static final int LENGTH = 6;
+
+    static final String ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+
+    private static final long MASK = (1L << BITS) - 1;
+    private static final long WHITEN = 0x1F3A5C7L;
+    private static final long M1 = 0x2C1B3C6DL;   // odd
+    private static final long M2 = 0x297A2D39L;   // odd
+    private static final long M1_INV = inverseOdd(M1);
+    private static final long M2_INV = inverseOdd(M2);
+    private static final int S1 = 15;
+    private static final int S2 = 13;
+
+    private static final int[] DIGIT_OF = new int[128];
+
+    static {
+        Arrays.fill(DIGIT_OF, -1);
+        for (int i = 0; i < ALPHABET.length(); i++) {
+            DIGIT_OF[ALPHABET.charAt(i)] = i;
+        }
+    }
+
+    private PnrCodec() {
+    }
+
+    /** Encode a value in [0, 2^30) as a 6-character PNR. */
+    public static String encode(long value) {
+        if (value < 0 || value > MASK) {
+            throw new IllegalArgumentException("value out of range: " + value);
+        }
+        long x = permute(value);
+        char[] out = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            out[i] = ALPHABET.charAt((int) (x & 31));
+            x >>>= 5;
+        }
+        return new String(out);
+    }
+
+    /** Inverse of {@link #encode}. Throws IllegalArgumentException if pnr is not a valid locator. */
+    public static long decode(String pnr) {
+        if (pnr == null || pnr.length() != LENGTH) {
+            throw new IllegalArgumentException("PNR must be " + LENGTH + " characters");
+        }
+        long x = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            char c = pnr.charAt(i);
+            int digit = c < DIGIT_OF.length ? DIGIT_OF[c] : -1;
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid PNR character: " + c);
+            }
+            x = (x << 5) | digit;
+        }
+        return unpermute(x);
+    }
+
+    static long permute(long x) {
+        x ^= WHITEN;
+        x = (x * M1) & MASK;
+        x ^= x >>> S1;
+        x = (x * M2) & MASK;
+        x ^= x >>> S2;
+        return x;
+    }
+
+    static long unpermute(long x) {
+        x = unXorShift(x, S2);
+        x = (x * M2_INV) & MASK;
+        x = unXorShift(x, S1);
+        x = (x * M1_INV) & MASK;
+        return x ^ WHITEN;
+    }
+
+    private static long unXorShift(long y, int shift) {
+        long x = y;
+        for (int applied = shift; applied < BITS; applied += shift) {
+            x = y ^ (x >>> shift);
+        }
+        return x;
+    }
+
+    /** Multiplicative inverse of an odd number modulo 2^30 (Newton iteration). */
+    private static long inverseOdd(long m) {
+        long inv = m;
+        for (int i = 0; i < 5; i++) {
+            inv = (inv * (2 - m * inv)) & MASK;
+        }
+        return inv;
+    }
+}
@@ -0,0 +1,162 @@
+package com.bookingservice.pnr;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Generates 6-character PNRs that are unique across instances without a per-booking DB round trip.
+ *
+ * The 30-bit PNR space is partitioned by shard and node: value = (shard << nodeBits | nodeId) << seqBits
+ * | sequence. Each instance is configured with its own booking.pnr.node-id, so two instances can never
+ * produce the same value, and the shard the booking was written to can be read back from the PNR
+ * (booking.pnr.shard-bits, 0 when storage is not sharded). Sequence numbers come from blocks reserved
+ * per (shard, node) through a PnrBlockSource (one DB update per block), which keeps them unique across
+ * restarts of the same node. Within a block, allocation is a single getAndIncrement; only refilling a
+ * block takes a lock.
+ *
+ * Each (shard, node) owns 2^seqBits sequence numbers. booking.pnr.sequence.remaining reports what is
+ * left per shard, a warning is logged once less than WARN_REMAINING_FRACTION of the space remains, and
+ * a refill that would run past the end fails instead of reissuing locators.
+ *
+ * The value is scrambled and encoded by PnrCodec, a bijection, so unique values give unique PNRs.
+ */
+@Component
+public class PnrGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(PnrGenerator.class);
+
+    static final double WARN_REMAINING_FRACTION = 0.1;
+
+    private final PnrBlockSource blockSource;
+    private final int nodeId;
+    private final int nodeBits;
+    private final int seqBits;
+    private final long seqMask;
+    private final int blockSize;
+    private final long warnAt;
+
+    private final AtomicReferenceArray<Block> current;
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    public PnrGenerator(PnrBlockSource blockSource, int nodeId, int nodeBits, int blockSize) {
+        this(blockSource, nodeId, nodeBits, 0, blockSize, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public PnrGenerator(PnrBlockSource blockSource,
+                        @Value("${booking.pnr.node-id:0}") int nodeId,
+                        @Value("${booking.pnr.node-bits:5}") int nodeBits,
+                        @Value("${booking.pnr.shard-bits:0}") int shardBits,
+                        @Value("${booking.pnr.block-size:1000}") int blockSize,
+                        MeterRegistry meterRegistry) {
+        if (nodeBits < 0 || nodeBits >= PnrCodec.BITS) {
+            throw new IllegalArgumentException("booking.pnr.node-bits must be in [0, " + PnrCodec.BITS + ")");
+        }
+        if (shardBits < 0 || nodeBits + shardBits >= PnrCodec.BITS) {
+            throw new IllegalArgumentException("booking.pnr.node-bits + shard-bits must be < " + PnrCodec.BITS);
+        }
+        if (nodeId < 0 || nodeId >= (1 << nodeBits)) {
+            throw new IllegalArgumentException("booking.pnr.node-id must be in [0, " + (1 << nodeBits) + ")");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("booking.pnr.block-size must be > 0");
+        }
+        this.blockSource = blockSource;
+        this.nodeId = nodeId;
+        this.nodeBits = nodeBits;
+        this.seqBits = PnrCodec.BITS - nodeBits - shardBits;
+        this.seqMask = (1L << seqBits) - 1;
+        this.blockSize = blockSize;
+        this.warnAt = (long) ((seqMask + 1) * (1 - WARN_REMAINING_FRACTION));
+        this.current = new AtomicReferenceArray<>(1 << shardBits);
+        for (int shard = 0; shard < current.length(); shard++) {
+            current.set(shard, Block.EMPTY);
+            int s = shard;
+            Gauge.builder("booking.pnr.sequence.remaining", current, c -> remaining(s))
+                    .description("PNR sequence numbers not yet reserved by this node")
+                    .tag("shard", String.valueOf(shard))
+                    .register(meterRegistry);
+        }
+    }
+
+    public String nextPnr() {
+        return nextPnr(0);
+    }
+
+    /** PNR for a booking stored on the given shard. */
+    public String nextPnr(int shard) {
+        if (shard < 0 || shard >= current.length()) {
+            throw new IllegalArgumentException("shard " + shard + " does not fit in booking.pnr.shard-bits");
+        }
+        long prefix = (long) ((shard << nodeBits) | nodeId) << seqBits;
+        while (true) {
+            Block block = current.get(shard);
+            long seq = block.next.getAndIncrement();
+            if (seq < block.end) {
+                return PnrCodec.encode(prefix | (seq & seqMask));
+            }
+            refill(shard, block);
+        }
+    }
+
+    /** Node id encoded in a PNR produced by any instance using the same node-bits. */
+    public int nodeOf(String pnr) {
+        return (int) ((PnrCodec.decode(pnr) >>> seqBits) & ((1L << nodeBits) - 1));
+    }
+
+    /** Shard encoded in a PNR produced by any instance using the same node-bits and shard-bits. */
+    public int shardOf(String pnr) {
+        return (int) (PnrCodec.decode(pnr) >>> (seqBits + nodeBits));
+    }
+
+    /** Sequence numbers this node has not reserved yet on the given shard (as of its current block). */
+    long remaining(int shard) {
+        return seqMask + 1 - current.get(shard).end;
+    }
+
+    private void refill(int shard, Block exhausted) {
+        refillLock.lock();
+        try {
+            if (current.get(shard) != exhausted) {
+                return; // another thread already refilled
+            }
+            // one pnr_sequence row per (shard, node); with shard-bits=0 the key is the node id as before
+            int key = (shard << nodeBits) | nodeId;
+            long start = blockSource.reserve(key, blockSize);
+            long end = start + blockSize;
+            if (end > seqMask + 1) {
+                throw new IllegalStateException("PNR sequence space for node " + nodeId + " shard " + shard
+                        + " is exhausted (start=" + start + ", capacity=" + (seqMask + 1) + ")");
+            }
+            if (end > warnAt && exhausted.end <= warnAt) {
+                log.warn("PNR sequence for node {} shard {} has {} of {} numbers left; move the node to a new node-id",
+                        nodeId, shard, seqMask + 1 - end, seqMask + 1);
+            }
+            current.set(shard, new Block(start, end));
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class Block {
+        static final Block EMPTY = new Block(0, 0);
+
+        final AtomicLong next;
+        final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.bookingservice.repository;
+
+import com.bookingservice.model.ArchivedBooking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+    Optional<ArchivedBooking> findByPnr(String pnr);
+}
@@ -1,9 +1,15 @@
 package com.bookingservice.repository;
 
 import com.bookingservice.model.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +17,82 @@ import java.util.Optional;
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     Optional<Booking> findByPnr(String pnr);
     List<Booking> findByUserEmailOrderByCreatedAtDesc(String email);
-}
\ No newline at end of file
+
+    /**
+     * First page of a user's history, newest first. Served by idx_bookings_user_created;
+     * id breaks ties between bookings created in the same instant.
+     */
+    @Query("select b from Booking b where b.userEmail = :email order by b.createdAt desc, b.id desc")
+    List<Booking> findHistoryFirstPage(@Param("email") String email, Pageable page);
+
+    /**
+     * Next page of a user's history: bookings strictly older than the (createdAt, id) keyset
+     * of the last row the client has seen.
+     */
+    @Query("select b from Booking b where b.userEmail = :email"
+            + " and (b.createdAt < :createdAt or (b.createdAt = :createdAt and b.id < :id))"
+            + " order by b.createdAt desc, b.id desc")
+    List<Booking> findHistoryPageBefore(@Param("email") String email,
+                                        @Param("createdAt") Instant createdAt,
+                                        @Param("id") Long id,
+                                        Pageable page);
+
+    /**
+     * Next chunk of active (or still pending / reserving) bookings on a flight after the given id (keyset on the primary key).
+     */
+    @Query("select b.id as id, b.pnr as pnr, b.userEmail as userEmail, b.numSeats as numSeats, b.createdAt as createdAt"
+            + " from Booking b where b.flightId = :flightId and b.status in ('ACTIVE', 'PENDING', 'RESERVING') and b.id > :afterId order by b.id")
+    List<BookingSummary> findActiveByFlightAfter(@Param("flightId") Long flightId,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable page);
+
+    /**
+     * Bookings findActiveByFlightAfter / cancelActiveByIds act on: active, pending or reserving.
+     */
+    @Query("select count(b) from Booking b where b.flightId = :flightId and b.status in ('ACTIVE', 'PENDING', 'RESERVING')")
+    long countActiveByFlight(@Param("flightId") Long flightId);
+
+    /**
+     * Bulk-cancel the given bookings in one UPDATE, skipping any that were cancelled meanwhile.
+     */
+    @Modifying
+    @Query("update Booking b set b.status = 'CANCELLED', b.cancelledAt = :cancelledAt"
+            + " where b.id in :ids and b.status in ('ACTIVE', 'PENDING', 'RESERVING')")
+    int cancelActiveByIds(@Param("ids") Collection<Long> ids, @Param("cancelledAt") Instant cancelledAt);
+
+    /**
+     * Oldest bookings queued while flight-service was unavailable, first in first out.
+     */
+    @Query("select b.id from Booking b where b.status = 'PENDING' order by b.id")
+    List<Long> findPendingIds(Pageable page);
+
+    long countByStatus(String status);
+
+    /**
+     * PENDING -> ACTIVE with the price known now; 0 if the booking left PENDING meanwhile (e.g. cancelled).
+     */
+    @Modifying
+    @Query("update Booking b set b.status = 'ACTIVE', b.totalPrice = :totalPrice where b.id = :id and b.status = 'PENDING'")
+    int confirmPending(@Param("id") Long id, @Param("totalPrice") Double totalPrice);
+
+    /**
+     * PENDING -> REJECTED; 0 if the booking left PENDING meanwhile.
+     */
+    @Modifying
+    @Query("update Booking b set b.status = 'REJECTED', b.cancelledAt = :rejectedAt where b.id = :id and b.status = 'PENDING'")
+    int rejectPending(@Param("id") Long id, @Param("rejectedAt") Instant rejectedAt);
+
+    /**
+     * RESERVING -> ACTIVE once flight-service reserved the seats; 0 if the booking was cancelled meanwhile.
+     */
+    @Modifying
+    @Query("update Booking b set b.status = 'ACTIVE' where b.id = :id and b.status = 'RESERVING'")
+    int confirmReserved(@Param("id") Long id);
+
+    /**
+     * RESERVING -> REJECTED when the seat reservation failed or timed out.
+     */
+    @Modifying
+    @Query("update Booking b set b.status = 'REJECTED', b.cancelledAt = :rejectedAt where b.id = :id and b.status = 'RESERVING'")
+    int rejectReserving(@Param("id") Long id, @Param("rejectedAt") Instant rejectedAt);
+}
@@ -0,0 +1,14 @@
+package com.bookingservice.repository;
+
+import java.time.Instant;
+
+/**
+ * Lightweight projection of a booking (no passengers, not a managed entity) for bulk jobs.
+ */
+public interface BookingSummary {
+    Long getId();
+    String getPnr();
+    String getUserEmail();
+    Integer getNumSeats();
+    Instant getCreatedAt();
+}
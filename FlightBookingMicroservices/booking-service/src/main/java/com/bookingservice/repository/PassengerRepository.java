@@ -2,8 +2,33 @@ package com.bookingservice.repository;
 
 import com.bookingservice.model.Passenger;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PassengerRepository extends JpaRepository<Passenger, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Passengers of several bookings in one query (instead of one lazy load per booking).
+     */
+    List<Passenger> findByBookingIdInOrderByIdAsc(Collection<Long> bookingIds);
+
+    /**
+     * Which of these seats of a flight are held by an active passenger (seat-conflict re-check).
+     */
+    @Query("select p.seatNumber from Passenger p"
+            + " where p.flightId = :flightId and p.seatNumber in :seats and p.seatClaim = true")
+    List<String> findClaimedSeats(@Param("flightId") Long flightId, @Param("seats") Collection<String> seats);
+
+    /**
+     * Release the seats of cancelled bookings in one statement.
+     */
+    @Modifying
+    @Query("update Passenger p set p.seatClaim = null where p.booking.id in :bookingIds and p.seatClaim = true")
+    int releaseSeatsByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
+}
@@ -0,0 +1,19 @@
+package com.bookingservice.repository;
+
+import com.bookingservice.model.PnrSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PnrSequenceRepository extends JpaRepository<PnrSequence, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from PnrSequence s where s.nodeId = :nodeId")
+    Optional<PnrSequence> findForUpdate(@Param("nodeId") int nodeId);
+}
@@ -0,0 +1,90 @@
+package com.bookingservice.saga;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Persisted state of one booking saga, stored on the booking's shard next to the booking and created
+ * in the same transaction. The id is the booking id; @Version guards against a reply and the timeout
+ * scan updating the same saga at once.
+ */
+@Entity
+@Table(name = "booking_sagas", indexes = {
+        // timeout scan: where state in (...) and deadline < now
+        @Index(name = "idx_booking_sagas_state_deadline", columnList = "state, deadline")
+})
+@Getter @Setter @NoArgsConstructor
+public class SagaInstance {
+
+    @Id
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Version
+    private Long version;
+
+    @Column(nullable = false)
+    private String pnr;
+
+    @Column(name = "flight_id", nullable = false)
+    private Long flightId;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(name = "seat_count", nullable = false)
+    private Integer seatCount;
+
+    // comma-separated; null when no specific seats were requested
+    @Column(name = "requested_seats", length = 1000)
+    private String requestedSeats;
+
+    @Column(name = "reserved_seats", length = 1000)
+    private String reservedSeats;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private SagaState state;
+
+    /** Commands sent for the current step, including retries. */
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "step_started_at", nullable = false)
+    private Instant stepStartedAt;
+
+    @Column(nullable = false)
+    private Instant deadline;
+
+    @Column(name = "failure_reason")
+    private String failureReason;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    /** Enter a step that waits for flight-service: first attempt, fresh deadline. */
+    void startStep(SagaState waitingState, Instant now, Instant deadline) {
+        this.state = waitingState;
+        this.attempts = 1;
+        this.stepStartedAt = now;
+        this.deadline = deadline;
+        this.updatedAt = now;
+    }
+
+    void retry(Instant now, Instant deadline) {
+        this.attempts++;
+        this.deadline = deadline;
+        this.updatedAt = now;
+    }
+
+    void finish(SagaState finalState, String reason, Instant now) {
+        this.state = finalState;
+        this.failureReason = reason;
+        this.updatedAt = now;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bookingservice.saga;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SagaInstanceRepository extends JpaRepository<SagaInstance, Long> {
+
+    /**
+     * Sagas whose current step is overdue (served by idx_booking_sagas_state_deadline).
+     */
+    List<SagaInstance> findByStateInAndDeadlineBeforeOrderByDeadline(Collection<SagaState> states, Instant now, Pageable page);
+}
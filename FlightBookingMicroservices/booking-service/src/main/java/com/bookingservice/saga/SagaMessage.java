@@ -0,0 +1,35 @@
+package com.bookingservice.saga;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Command or reply of the seat reservation saga, exchanged as JSON with flight-service on
+ * flight-seat-commands / flight-seat-replies and keyed by flightId, so the messages of one flight
+ * stay ordered. sagaId is the booking id.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SagaMessage {
+
+    // commands (booking-service -> flight-service)
+    public static final String RESERVE_SEATS = "RESERVE_SEATS";
+    public static final String RELEASE_SEATS = "RELEASE_SEATS";
+    // replies (flight-service -> booking-service)
+    public static final String SEATS_RESERVED = "SEATS_RESERVED";
+    public static final String SEATS_REJECTED = "SEATS_REJECTED";
+    public static final String SEATS_RELEASED = "SEATS_RELEASED";
+
+    private String type;
+    private Long sagaId;
+    private Long flightId;
+    private String pnr;
+    private Integer seatCount;
+    /** Requested seats (RESERVE_SEATS, may be empty: any seats) or the seats actually reserved (SEATS_RESERVED). */
+    private List<String> seatNumbers;
+    private String reason;
+}
@@ -0,0 +1,451 @@
+package com.bookingservice.saga;
+
+import com.bookingservice.config.CacheConfig;
+import com.bookingservice.event.BookingEventDto;
+import com.bookingservice.kafka.BookingEventPublisher;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.Passenger;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.PassengerRepository;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Booking saga (booking.saga.enabled): the booking is stored as RESERVING together with its saga row in
+ * one shard transaction, then flight-service is asked to reserve the seats (RESERVE_SEATS on
+ * flight-seat-commands). Its reply on flight-seat-replies completes the saga:
+ *
+ *  - SEATS_RESERVED: booking ACTIVE, BOOKING_CONFIRMED published. If the booking was cancelled
+ *    meanwhile, the seats are given back instead (RELEASE_SEATS).
+ *  - SEATS_REJECTED: booking REJECTED, its seat claims released, BOOKING_REJECTED published.
+ *
+ * Every step that waits for flight-service has a deadline. The timeout scan resends the command up to
+ * max-attempts times (flight-service handles commands idempotently per sagaId), then compensates: a
+ * booking still RESERVING is rejected and RELEASE_SEATS is sent in case the reservation did happen. A
+ * release that is never acknowledged ends the saga as FAILED for manual follow-up. Cancelling a
+ * confirmed booking also releases its seats, relayed by the same scan.
+ *
+ * Commands are sent after commit; the saga row doubles as the outbox, so a command lost in a crash is
+ * resent by the scan. Commands and replies are keyed by flightId, so flight-service sees the commands
+ * of one flight in order (a release never overtakes its reservation). Concurrent updates of one saga
+ * (a reply racing the scan) are caught by its @Version; the loser is retried by the Kafka error handler
+ * or the next scan. Every committed transition is mirrored to the flight's target shard while
+ * resharding (booking row and saga row), like the writes of BookingService.
+ *
+ * Metrics: booking.saga.step{step,outcome} (command sent to reply applied), booking.saga.started,
+ * booking.saga.finished{state}, booking.saga.timeouts{step,action}.
+ */
+@Component
+public class SagaOrchestrator {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaOrchestrator.class);
+
+    public static final String TOPIC_SEAT_COMMANDS = "flight-seat-commands";
+    public static final String TOPIC_SEAT_REPLIES = "flight-seat-replies";
+
+    public static final String STATUS_RESERVING = "RESERVING";
+
+    private static final String STEP_RESERVE = "reserve_seats";
+    private static final String STEP_RELEASE = "release_seats";
+    private static final List<SagaState> WAITING = List.of(SagaState.SEATS_PENDING, SagaState.COMPENSATING);
+
+    private final SagaInstanceRepository sagaRepository;
+    private final BookingRepository bookingRepository;
+    private final PassengerRepository passengerRepository;
+    private final KafkaTemplate<String, SagaMessage> sagaKafkaTemplate;
+    private final BookingEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final ShardTemplate shards;
+    private final ShardMigrator shardMigrator;
+    private final SeatClaimRegistry seatClaims;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration stepTimeout;
+    private final int maxAttempts;
+    private final int batchSize;
+    private final Counter startedCounter;
+
+    public SagaOrchestrator(SagaInstanceRepository sagaRepository,
+                            BookingRepository bookingRepository,
+                            PassengerRepository passengerRepository,
+                            KafkaTemplate<String, SagaMessage> sagaKafkaTemplate,
+                            BookingEventPublisher eventPublisher,
+                            CacheManager cacheManager,
+                            ShardTemplate shards,
+                            ShardMigrator shardMigrator,
+                            SeatClaimRegistry seatClaims,
+                            MeterRegistry meterRegistry,
+                            @Value("${booking.saga.enabled:false}") boolean enabled,
+                            @Value("${booking.saga.step-timeout:10s}") Duration stepTimeout,
+                            @Value("${booking.saga.max-attempts:3}") int maxAttempts,
+                            @Value("${booking.saga.timeout-batch-size:200}") int batchSize) {
+        this.sagaRepository = sagaRepository;
+        this.bookingRepository = bookingRepository;
+        this.passengerRepository = passengerRepository;
+        this.sagaKafkaTemplate = sagaKafkaTemplate;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.shards = shards;
+        this.shardMigrator = shardMigrator;
+        this.seatClaims = seatClaims;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.stepTimeout = stepTimeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.batchSize = batchSize;
+        this.startedCounter = Counter.builder("booking.saga.started")
+                .description("Booking sagas started")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Persist the saga of a RESERVING booking. Must run in the shard transaction that inserts the
+     * booking (after its id is assigned), so there is never a booking without its saga.
+     */
+    public SagaInstance begin(Booking booking) {
+        Instant now = Instant.now();
+        SagaInstance saga = new SagaInstance();
+        saga.setBookingId(booking.getId());
+        saga.setPnr(booking.getPnr());
+        saga.setFlightId(booking.getFlightId());
+        saga.setUserEmail(booking.getUserEmail());
+        saga.setSeatCount(booking.getNumSeats());
+        saga.setRequestedSeats(joinSeats(requestedSeats(booking)));
+        saga.setCreatedAt(now);
+        saga.startStep(SagaState.SEATS_PENDING, now, now.plus(stepTimeout));
+        return sagaRepository.save(saga);
+    }
+
+    /** After commit of begin(): send the first RESERVE_SEATS command. */
+    public void reserveSeats(Booking booking) {
+        startedCounter.increment();
+        send(SagaMessage.builder()
+                .type(SagaMessage.RESERVE_SEATS)
+                .sagaId(booking.getId())
+                .flightId(booking.getFlightId())
+                .pnr(booking.getPnr())
+                .seatCount(booking.getNumSeats())
+                .seatNumbers(requestedSeats(booking))
+                .build());
+    }
+
+    /**
+     * A confirmed booking was cancelled (same transaction as the cancellation): give its seats back.
+     * The release is relayed by the next timeout scan (deadline now, no attempt made yet).
+     */
+    public void bookingCancelled(Long bookingId) {
+        sagaRepository.findById(bookingId)
+                .filter(saga -> saga.getState() == SagaState.COMPLETED)
+                .ifPresent(saga -> {
+                    Instant now = Instant.now();
+                    saga.startStep(SagaState.COMPENSATING, now, now);
+                    saga.setAttempts(0);
+                    saga.setFailureReason("booking cancelled");
+                });
+    }
+
+    @KafkaListener(topics = TOPIC_SEAT_REPLIES, containerFactory = "sagaReplyListenerFactory")
+    public void onReply(SagaMessage reply) {
+        if (reply == null || reply.getSagaId() == null || reply.getFlightId() == null || reply.getType() == null) {
+            log.warn("Ignoring malformed saga reply");
+            return;
+        }
+        int shard = shards.router().shardForFlight(reply.getFlightId());
+        Runnable afterCommit = shards.inShard(shard, false, () -> apply(reply));
+        if (afterCommit != null) {
+            mirror(reply.getFlightId(), reply.getSagaId());
+            afterCommit.run();
+        }
+    }
+
+    /** Apply a reply to its saga; returns what to do once the transaction has committed. */
+    private Runnable apply(SagaMessage reply) {
+        Optional<SagaInstance> found = sagaRepository.findById(reply.getSagaId());
+        if (found.isEmpty()) {
+            log.warn("Reply {} for unknown saga {}", reply.getType(), reply.getSagaId());
+            return null;
+        }
+        SagaInstance saga = found.get();
+        Instant now = Instant.now();
+        return switch (reply.getType()) {
+            case SagaMessage.SEATS_RESERVED -> onSeatsReserved(saga, reply, now);
+            case SagaMessage.SEATS_REJECTED -> onSeatsRejected(saga, reply, now);
+            case SagaMessage.SEATS_RELEASED -> onSeatsReleased(saga, now);
+            default -> {
+                log.warn("Unknown saga reply type {} for saga {}", reply.getType(), reply.getSagaId());
+                yield null;
+            }
+        };
+    }
+
+    private Runnable onSeatsReserved(SagaInstance saga, SagaMessage reply, Instant now) {
+        if (saga.getState() != SagaState.SEATS_PENDING) {
+            // duplicate, or late after a timeout: the release is already queued behind it
+            return null;
+        }
+        Duration took = Duration.between(saga.getStepStartedAt(), now);
+        saga.setReservedSeats(joinSeats(reply.getSeatNumbers()));
+
+        if (bookingRepository.confirmReserved(saga.getBookingId()) == 1) {
+            saga.finish(SagaState.COMPLETED, null, now);
+            return () -> {
+                recordStep(STEP_RESERVE, "reserved", took);
+                finished(SagaState.COMPLETED);
+                bookingChanged(saga, "BOOKING_CONFIRMED");
+                log.info("Saga completed: pnr={}, flightId={}, seats={}", saga.getPnr(), saga.getFlightId(), saga.getReservedSeats());
+            };
+        }
+
+        // the booking was cancelled while the seats were being reserved
+        saga.startStep(SagaState.COMPENSATING, now, now.plus(stepTimeout));
+        saga.setFailureReason("booking cancelled during reservation");
+        return () -> {
+            recordStep(STEP_RESERVE, "reserved", took);
+            send(releaseCommand(saga));
+        };
+    }
+
+    private Runnable onSeatsRejected(SagaInstance saga, SagaMessage reply, Instant now) {
+        if (saga.getState() != SagaState.SEATS_PENDING) {
+            return null;
+        }
+        Duration took = Duration.between(saga.getStepStartedAt(), now);
+        String reason = Optional.ofNullable(reply.getReason()).orElse("seats rejected");
+        boolean rejected = rejectBooking(saga, now);
+        saga.finish(SagaState.FAILED, reason, now);
+        return () -> {
+            recordStep(STEP_RESERVE, "rejected", took);
+            finished(SagaState.FAILED);
+            if (rejected) {
+                seatClaims.release(saga.getFlightId(), splitSeats(saga.getRequestedSeats()));
+                bookingChanged(saga, "BOOKING_REJECTED");
+            }
+            log.info("Saga failed: pnr={}, flightId={}, reason={}", saga.getPnr(), saga.getFlightId(), reason);
+        };
+    }
+
+    private Runnable onSeatsReleased(SagaInstance saga, Instant now) {
+        if (saga.getState() != SagaState.COMPENSATING) {
+            return null;
+        }
+        Duration took = Duration.between(saga.getStepStartedAt(), now);
+        saga.finish(SagaState.COMPENSATED, saga.getFailureReason(), now);
+        return () -> {
+            recordStep(STEP_RELEASE, "released", took);
+            finished(SagaState.COMPENSATED);
+        };
+    }
+
+    /** RESERVING -> REJECTED and its seats released in the DB; false if the booking already left RESERVING. */
+    private boolean rejectBooking(SagaInstance saga, Instant now) {
+        if (bookingRepository.rejectReserving(saga.getBookingId(), now) == 0) {
+            return false;
+        }
+        passengerRepository.releaseSeatsByBookingIds(List.of(saga.getBookingId()));
+        return true;
+    }
+
+    /**
+     * Resend overdue commands and compensate sagas that ran out of attempts, shard by shard. Each
+     * shard's batch is one transaction; its commands go out right after it commits, so a shard whose
+     * scan fails does not hold back the shards that committed.
+     */
+    // @Scheduled parses ISO-8601 durations only (PT5S, not 5s)
+    @Scheduled(fixedDelayString = "${booking.saga.timeout-check-interval:PT5S}")
+    public void checkTimeouts() {
+        if (!enabled) {
+            return;
+        }
+        for (int shard = 0; shard < shards.router().shardCount(); shard++) {
+            List<Runnable> afterCommit;
+            try {
+                afterCommit = shards.inShard(shard, false, () -> expireDue(Instant.now()));
+            } catch (RuntimeException ex) {
+                // typically an optimistic lock conflict with a reply; the next run picks the saga up again
+                log.warn("Saga timeout scan failed on shard {}: {}", shard, ex.toString());
+                continue;
+            }
+            for (Runnable action : afterCommit) {
+                try {
+                    action.run();
+                } catch (RuntimeException ex) {
+                    log.warn("Saga timeout follow-up failed on shard {}: {}", shard, ex.toString());
+                }
+            }
+        }
+    }
+
+    List<Runnable> expireDue(Instant now) {
+        List<SagaInstance> due = sagaRepository.findByStateInAndDeadlineBeforeOrderByDeadline(
+                WAITING, now, PageRequest.of(0, batchSize));
+        List<Runnable> afterCommit = new ArrayList<>(due.size());
+        for (SagaInstance saga : due) {
+            Runnable followUp = expire(saga, now);
+            afterCommit.add(() -> {
+                mirror(saga.getFlightId(), saga.getBookingId());
+                followUp.run();
+            });
+        }
+        return afterCommit;
+    }
+
+    private Runnable expire(SagaInstance saga, Instant now) {
+        boolean reserving = saga.getState() == SagaState.SEATS_PENDING;
+        String step = reserving ? STEP_RESERVE : STEP_RELEASE;
+
+        if (saga.getAttempts() < maxAttempts) {
+            saga.retry(now, now.plus(stepTimeout));
+            SagaMessage command = reserving ? reserveCommand(saga) : releaseCommand(saga);
+            return () -> {
+                timeout(step, saga.getAttempts() == 1 ? "sent" : "retried");
+                send(command);
+            };
+        }
+
+        if (reserving) {
+            // no answer from flight-service: reject the booking and undo a reservation that may have happened
+            Duration took = Duration.between(saga.getStepStartedAt(), now);
+            boolean rejected = rejectBooking(saga, now);
+            saga.startStep(SagaState.COMPENSATING, now, now.plus(stepTimeout));
+            saga.setFailureReason("seat reservation timed out");
+            return () -> {
+                recordStep(STEP_RESERVE, "timed_out", took);
+                timeout(step, "compensated");
+                if (rejected) {
+                    seatClaims.release(saga.getFlightId(), splitSeats(saga.getRequestedSeats()));
+                    bookingChanged(saga, "BOOKING_REJECTED");
+                }
+                send(releaseCommand(saga));
+                log.warn("Saga timed out, compensating: pnr={}, flightId={}", saga.getPnr(), saga.getFlightId());
+            };
+        }
+
+        saga.finish(SagaState.FAILED, "seat release not acknowledged after " + saga.getAttempts() + " attempts", now);
+        return () -> {
+            timeout(step, "failed");
+            finished(SagaState.FAILED);
+            log.error("Saga compensation failed, seats may still be held in flight-service: pnr={}, flightId={}, bookingId={}",
+                    saga.getPnr(), saga.getFlightId(), saga.getBookingId());
+        };
+    }
+
+    /** After commit: copy the booking and its saga row to the flight's target shard while resharding. */
+    private void mirror(Long flightId, Long bookingId) {
+        shardMigrator.mirror(flightId, List.of(bookingId));
+    }
+
+    private void send(SagaMessage command) {
+        sagaKafkaTemplate.send(TOPIC_SEAT_COMMANDS, String.valueOf(command.getFlightId()), command)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        // the saga row keeps its deadline, so the timeout scan resends it
+                        log.warn("Failed to send {} for saga {}: {}", command.getType(), command.getSagaId(), ex.toString());
+                    }
+                });
+    }
+
+    private static SagaMessage reserveCommand(SagaInstance saga) {
+        return SagaMessage.builder()
+                .type(SagaMessage.RESERVE_SEATS)
+                .sagaId(saga.getBookingId())
+                .flightId(saga.getFlightId())
+                .pnr(saga.getPnr())
+                .seatCount(saga.getSeatCount())
+                .seatNumbers(splitSeats(saga.getRequestedSeats()))
+                .build();
+    }
+
+    private static SagaMessage releaseCommand(SagaInstance saga) {
+        return SagaMessage.builder()
+                .type(SagaMessage.RELEASE_SEATS)
+                .sagaId(saga.getBookingId())
+                .flightId(saga.getFlightId())
+                .pnr(saga.getPnr())
+                .build();
+    }
+
+    /** Evict the cached ticket and publish the booking's new state. */
+    private void bookingChanged(SagaInstance saga, String eventType) {
+        Cache tickets = cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR);
+        if (tickets != null) {
+            tickets.evict(saga.getPnr());
+        }
+        BookingEventDto event = new BookingEventDto();
+        event.setEventType(eventType);
+        event.setPnr(saga.getPnr());
+        event.setFlightId(saga.getFlightId());
+        event.setUserEmail(saga.getUserEmail());
+        event.setNumSeats(saga.getSeatCount());
+        event.setCreatedAt(saga.getCreatedAt());
+        eventPublisher.publishBookingEvent(event);
+    }
+
+    private void recordStep(String step, String outcome, Duration took) {
+        Timer.builder("booking.saga.step")
+                .description("Time from sending a saga command to applying its reply")
+                .tag("step", step)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(took);
+    }
+
+    private void finished(SagaState state) {
+        Counter.builder("booking.saga.finished")
+                .description("Booking sagas by final state")
+                .tag("state", state.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void timeout(String step, String action) {
+        Counter.builder("booking.saga.timeouts")
+                .description("Saga steps past their deadline: sent / retried / compensated / failed")
+                .tag("step", step)
+                .tag("action", action)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static List<String> requestedSeats(Booking booking) {
+        return Optional.ofNullable(booking.getPassengers()).orElse(Collections.emptyList()).stream()
+                .map(Passenger::getSeatNumber)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    static String joinSeats(List<String> seats) {
+        return seats == null || seats.isEmpty() ? null : String.join(",", seats);
+    }
+
+    static List<String> splitSeats(String seats) {
+        return seats == null || seats.isBlank() ? List.of() : Arrays.asList(seats.split(","));
+    }
+}
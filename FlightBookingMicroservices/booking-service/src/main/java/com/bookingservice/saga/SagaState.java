@@ -0,0 +1,16 @@
+package com.bookingservice.saga;
+
+/**
+ * Lifecycle of a booking saga.
+ *
+ * SEATS_PENDING -> COMPLETED (seats reserved, booking ACTIVE)
+ * SEATS_PENDING -> FAILED (seats rejected, booking REJECTED)
+ * SEATS_PENDING / COMPLETED -> COMPENSATING (timed out, or booking cancelled) -> COMPENSATED (seats released)
+ */
+public enum SagaState {
+    SEATS_PENDING,
+    COMPLETED,
+    COMPENSATING,
+    COMPENSATED,
+    FAILED
+}
@@ -0,0 +1,118 @@
+package com.bookingservice.seat;
+
+import com.bookingservice.shard.ShardTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Loads the seats of all active passengers into SeatClaimRegistry once the application is ready.
+ *
+ * Before the web server starts, passengers written before flight_id / seat_claim existed are
+ * backfilled on every shard: flight_id from their booking, seat_claim = true when the booking still
+ * holds its seats (ACTIVE, PENDING, RESERVING). Without that neither the unique constraint (which
+ * ignores NULLs) nor the index would cover them. If old data already has a seat twice, the earliest
+ * booking keeps the claim and the others are logged for manual resolution. With
+ * booking.seat-claims.backfill=false (once every database is upgraded) the step is skipped.
+ *
+ * One streamed query per shard (in parallel across shards); rows a shard holds for flights it does not
+ * own (reshard leftovers) are skipped. Claims are merged into the index, so bookings taken while the
+ * rebuild runs are kept; until it finishes the DB constraint alone rejects conflicts.
+ */
+@Component
+public class SeatClaimRebuilder implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatClaimRebuilder.class);
+
+    private static final String ACTIVE_SEATS = "select flight_id, seat_number from passengers"
+            + " where seat_claim is not null and seat_number is not null and flight_id is not null";
+
+    private static final String HOLDING_STATUSES = "('ACTIVE', 'PENDING', 'RESERVING')";
+    private static final String BACKFILL_FLIGHT_IDS = "update passengers set flight_id ="
+            + " (select b.flight_id from bookings b where b.id = passengers.booking_id)"
+            + " where flight_id is null and booking_id is not null";
+    private static final String UNCLAIMED_HELD_SEATS = "seat_claim is null and seat_number is not null"
+            + " and booking_id in (select id from bookings where status in " + HOLDING_STATUSES + ")";
+
+    private final SeatClaimRegistry registry;
+    private final ShardTemplate shards;
+    private final JdbcTemplate jdbc;
+    private final boolean backfill;
+
+    public SeatClaimRebuilder(SeatClaimRegistry registry,
+                              ShardTemplate shards,
+                              DataSource dataSource,
+                              @Value("${booking.seat-claims.fetch-size:1000}") int fetchSize,
+                              @Value("${booking.seat-claims.backfill:true}") boolean backfill) {
+        this.registry = registry;
+        this.shards = shards;
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(fetchSize);
+        this.backfill = backfill;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (backfill) {
+            long claimed = shards.onAllShards(false, this::backfill).stream().mapToLong(Long::longValue).sum();
+            if (claimed > 0) {
+                log.info("Seat claims backfilled for {} pre-existing passengers", claimed);
+            }
+        }
+    }
+
+    long backfill(int shard) {
+        jdbc.update(BACKFILL_FLIGHT_IDS);
+        try {
+            return jdbc.update("update passengers set seat_claim = true where " + UNCLAIMED_HELD_SEATS);
+        } catch (DataIntegrityViolationException ex) {
+            // the old data has double-assigned seats: claim row by row, earliest booking first
+            List<Long> ids = jdbc.queryForList("select p.id from passengers p join bookings b on b.id = p.booking_id"
+                    + " where p.seat_claim is null and p.seat_number is not null and b.status in " + HOLDING_STATUSES
+                    + " order by b.created_at, b.id, p.id", Long.class);
+            long claimed = 0;
+            for (Long id : ids) {
+                try {
+                    claimed += jdbc.update("update passengers set seat_claim = true where id = ?", id);
+                } catch (DataIntegrityViolationException duplicate) {
+                    log.warn("Shard {}: passenger {} holds a seat already claimed by an earlier booking;"
+                            + " left unclaimed, resolve manually", shard, id);
+                }
+            }
+            return claimed;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startNanos = System.nanoTime();
+        try {
+            long seats = shards.onAllShards(true, this::load).stream().mapToLong(Long::longValue).sum();
+            log.info("Seat claim index rebuilt: seats={} in {} ms", seats, (System.nanoTime() - startNanos) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.error("Seat claim index rebuild failed; seat conflicts are caught by the DB constraint only", ex);
+        }
+    }
+
+    long load(int shard) {
+        long[] count = {0};
+        jdbc.query(ACTIVE_SEATS, rs -> {
+            long flightId = rs.getLong(1);
+            String seat = SeatClaimRegistry.normalize(rs.getString(2));
+            if (seat != null && shards.router().shardForFlight(flightId) == shard) {
+                registry.markClaimed(flightId, List.of(seat));
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+}
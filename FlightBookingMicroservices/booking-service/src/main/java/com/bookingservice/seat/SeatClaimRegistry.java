@@ -0,0 +1,173 @@
+package com.bookingservice.seat;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * In-memory index of the seats held by active bookings, per flight.
+ *
+ * Each flight keeps its seat labels interned to bit positions and a BitSet of the claimed ones,
+ * guarded by a per-flight lock, so checking and claiming all seats of a booking is a handful of
+ * bit operations with no DB round trip. The unique (flight_id, seat_number, seat_claim) constraint on
+ * passengers stays the authority: this index only rejects conflicts early. It is rebuilt from the
+ * active passengers at startup (SeatClaimRebuilder) and can be stale in the "claimed" direction (a
+ * seat freed by another instance), which callers resolve by re-checking the DB on conflict and
+ * calling releaseStale.
+ *
+ * A claim is pending from tryClaim until the write settles (settle or release); releaseStale never
+ * drops a pending claim, since the DB cannot show a booking that has not been committed yet.
+ */
+@Component
+public class SeatClaimRegistry {
+
+    private final Map<Long, FlightSeats> flights = new ConcurrentHashMap<>();
+
+    public SeatClaimRegistry(MeterRegistry meterRegistry) {
+        Gauge.builder("booking.seat.claims.flights", flights, Map::size)
+                .description("Flights tracked by the in-memory seat claim index")
+                .register(meterRegistry);
+    }
+
+    /** Canonical form of a seat label (trimmed, upper case), or null when no seat was requested. */
+    public static String normalize(String seatNumber) {
+        if (seatNumber == null || seatNumber.isBlank()) {
+            return null;
+        }
+        return seatNumber.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Claim all the given seats of a flight, or none of them.
+     *
+     * @param seats normalized, distinct seat labels
+     * @return the seats that are already claimed; empty when the claim succeeded
+     */
+    public List<String> tryClaim(Long flightId, Collection<String> seats) {
+        if (flightId == null || seats.isEmpty()) {
+            return List.of();
+        }
+        FlightSeats flight = flights.computeIfAbsent(flightId, id -> new FlightSeats());
+        flight.lock.lock();
+        try {
+            List<String> taken = new ArrayList<>();
+            for (String seat : seats) {
+                if (flight.isClaimed(seat)) {
+                    taken.add(seat);
+                }
+            }
+            if (taken.isEmpty()) {
+                for (String seat : seats) {
+                    flight.pending.set(flight.claim(seat));
+                }
+            }
+            return taken;
+        } finally {
+            flight.lock.unlock();
+        }
+    }
+
+    /** Mark seats as claimed without checking (index rebuild, or seats a DB write proved taken). */
+    public void markClaimed(Long flightId, Collection<String> seats) {
+        if (flightId == null || seats.isEmpty()) {
+            return;
+        }
+        FlightSeats flight = flights.computeIfAbsent(flightId, id -> new FlightSeats());
+        flight.lock.lock();
+        try {
+            seats.forEach(flight::claim);
+        } finally {
+            flight.lock.unlock();
+        }
+    }
+
+    /** The write behind a tryClaim finished (committed, or rejected by the DB constraint): claims stand. */
+    public void settle(Long flightId, Collection<String> seats) {
+        update(flightId, seats, (flight, slot) -> flight.pending.clear(slot));
+    }
+
+    /** Seats given back: cancelled booking, or a claim whose write failed. */
+    public void release(Long flightId, Collection<String> seats) {
+        update(flightId, seats, (flight, slot) -> {
+            flight.claimed.clear(slot);
+            flight.pending.clear(slot);
+        });
+    }
+
+    /** Drop claims the DB does not back (released elsewhere), keeping pending ones. */
+    public void releaseStale(Long flightId, Collection<String> seats) {
+        update(flightId, seats, (flight, slot) -> {
+            if (!flight.pending.get(slot)) {
+                flight.claimed.clear(slot);
+            }
+        });
+    }
+
+    private void update(Long flightId, Collection<String> seats, ObjIntConsumer<FlightSeats> action) {
+        FlightSeats flight = flightId == null ? null : flights.get(flightId);
+        if (flight == null || seats.isEmpty()) {
+            return;
+        }
+        flight.lock.lock();
+        try {
+            for (String seat : seats) {
+                Integer slot = flight.slots.get(seat);
+                if (slot != null) {
+                    action.accept(flight, slot);
+                }
+            }
+        } finally {
+            flight.lock.unlock();
+        }
+    }
+
+    /** Drop a flight whose bookings are all gone (cancelled flight, archived bookings). */
+    public void forget(Long flightId) {
+        if (flightId != null) {
+            flights.remove(flightId);
+        }
+    }
+
+    public boolean isClaimed(Long flightId, String seat) {
+        FlightSeats flight = flightId == null ? null : flights.get(flightId);
+        if (flight == null) {
+            return false;
+        }
+        flight.lock.lock();
+        try {
+            return flight.isClaimed(seat);
+        } finally {
+            flight.lock.unlock();
+        }
+    }
+
+    /** Seat labels of one flight mapped to bit positions; all access under lock. */
+    private static final class FlightSeats {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Integer> slots = new HashMap<>();
+        final BitSet claimed = new BitSet();
+        final BitSet pending = new BitSet();
+
+        boolean isClaimed(String seat) {
+            Integer slot = slots.get(seat);
+            return slot != null && claimed.get(slot);
+        }
+
+        int claim(String seat) {
+            int slot = slots.computeIfAbsent(seat, s -> slots.size());
+            claimed.set(slot);
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bookingservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Servlet filter in front of /api/admin/* (flight mass cancellation, shard backfill, reconciliation
+ * export): the request must carry X-Admin-Token equal to booking.admin.token. With no token
+ * configured every admin request is refused, so the endpoints are closed unless an operator opens them.
+ */
+public class AdminTokenFilter extends OncePerRequestFilter {
+
+    static final String TOKEN_HEADER = "X-Admin-Token";
+
+    private static final Logger log = LoggerFactory.getLogger(AdminTokenFilter.class);
+
+    private final byte[] token;
+    private final Counter deniedCounter;
+
+    public AdminTokenFilter(String token, MeterRegistry meterRegistry) {
+        this.token = token == null || token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+        this.deniedCounter = Counter.builder("booking.admin.denied")
+                .description("Admin API requests refused for a missing or wrong admin token")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String presented = request.getHeader(TOKEN_HEADER);
+        if (token == null || presented == null
+                || !MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+            deniedCounter.increment();
+            log.warn("Refused admin request {} {} from {}", request.getMethod(), request.getRequestURI(),
+                    request.getRemoteAddr());
+            response.sendError(token == null ? HttpStatus.FORBIDDEN.value() : HttpStatus.UNAUTHORIZED.value(),
+                    token == null ? "Admin API disabled" : "Admin token required");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
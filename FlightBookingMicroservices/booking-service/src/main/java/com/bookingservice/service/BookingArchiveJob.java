@@ -0,0 +1,264 @@
+package com.bookingservice.service;
+
+import com.bookingservice.config.CacheConfig;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Moves old bookings and their passengers from bookings/passengers to bookings_archive/passengers_archive,
+ * keeping the live tables (and the pnr and user_email indexes behind ticket lookups and history) small.
+ *
+ * Old means cancelled (or rejected, see PendingBookingQueue) more than cancelled-retention ago, or created more than booked-retention ago
+ * (booking-service does not know departure times; booked-retention is chosen well past any departure).
+ * Each chunk is one transaction per shard: pick the next chunk of candidate ids with plain reads on the
+ * (status, cancelled_at) and created_at indexes (keyset on id), lock just those rows by primary key with the
+ * predicate re-checked (FOR UPDATE so a concurrent cancel or a second instance waits; no scan or gap lock
+ * that would hold up new bookings), INSERT ... SELECT both tables into the archive, delete
+ * the originals (and their saga rows), commit, then evict the cached tickets and drop the flights of archived active bookings
+ * (departed by the proxy above) from SeatClaimRegistry. Throughput is capped at max-rows-per-second by
+ * pausing between chunks. Archived tickets are still served by BookingService.getByPnr.
+ *
+ * While resharding, only rows the shard owns are archived (copies left behind by a reshard are not), and
+ * every chunk is mirrored like any other write: the target shard drops its live copies and receives the
+ * archive rows (see ShardMigrator).
+ */
+@Component
+public class BookingArchiveJob {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingArchiveJob.class);
+
+    private static final String SELECT_CANCELLED = "select id from bookings"
+            + " where status in ('CANCELLED', 'REJECTED') and cancelled_at < :cancelledBefore and id > :afterId"
+            + " order by id limit :limit";
+    private static final String SELECT_EXPIRED = "select id from bookings"
+            + " where created_at < :createdBefore and id > :afterId order by id limit :limit";
+    private static final String LOCK_CHUNK = "select id, pnr, flight_id, status from bookings where id in (:ids)"
+            + " and ((status in ('CANCELLED', 'REJECTED') and cancelled_at < :cancelledBefore) or created_at < :createdBefore)"
+            + " for update";
+    private static final String ARCHIVE_BOOKINGS = "insert into bookings_archive"
+            + " (id, pnr, flight_id, user_email, num_seats, total_price, status, created_at, cancelled_at, archived_at)"
+            + " select id, pnr, flight_id, user_email, num_seats, total_price, status, created_at, cancelled_at, :archivedAt"
+            + " from bookings where id in (:ids)";
+    private static final String ARCHIVE_PASSENGERS = "insert into passengers_archive"
+            + " (id, passenger_name, gender, age, seat_number, meal_preference, booking_id)"
+            + " select id, passenger_name, gender, age, seat_number, meal_preference, booking_id"
+            + " from passengers where booking_id in (:ids)";
+
+    private final ShardTemplate shards;
+    private final ShardMigrator shardMigrator;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final CacheManager cacheManager;
+    private final SeatClaimRegistry seatClaims;
+    private final boolean enabled;
+    private final Duration cancelledRetention;
+    private final Duration bookedRetention;
+    private final int chunkSize;
+    private final int maxRowsPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong lastRunBookings = new AtomicLong();
+    private final AtomicLong lastSuccessEpochSeconds = new AtomicLong();
+    private final Counter archivedBookings;
+    private final Counter archivedPassengers;
+    private final Timer chunkTimer;
+
+    public BookingArchiveJob(ShardTemplate shards,
+                             ShardMigrator shardMigrator,
+                             DataSource dataSource,
+                             CacheManager cacheManager,
+                             SeatClaimRegistry seatClaims,
+                             MeterRegistry meterRegistry,
+                             @Value("${booking.archive.enabled:false}") boolean enabled,
+                             @Value("${booking.archive.cancelled-retention:30d}") Duration cancelledRetention,
+                             @Value("${booking.archive.booked-retention:400d}") Duration bookedRetention,
+                             @Value("${booking.archive.chunk-size:500}") int chunkSize,
+                             @Value("${booking.archive.max-rows-per-second:1000}") int maxRowsPerSecond) {
+        this.shards = shards;
+        this.shardMigrator = shardMigrator;
+        this.jdbc = new NamedParameterJdbcTemplate(dataSource);
+        this.cacheManager = cacheManager;
+        this.seatClaims = seatClaims;
+        this.enabled = enabled;
+        this.cancelledRetention = cancelledRetention;
+        this.bookedRetention = bookedRetention;
+        this.chunkSize = chunkSize;
+        this.maxRowsPerSecond = maxRowsPerSecond;
+
+        this.archivedBookings = Counter.builder("booking.archive.rows")
+                .description("Rows moved to the archive tables")
+                .tag("table", "bookings")
+                .register(meterRegistry);
+        this.archivedPassengers = Counter.builder("booking.archive.rows")
+                .description("Rows moved to the archive tables")
+                .tag("table", "passengers")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("booking.archive.chunk")
+                .description("Time per archived chunk (one transaction)")
+                .register(meterRegistry);
+        Gauge.builder("booking.archive.running", running, r -> r.get() ? 1 : 0)
+                .description("1 while an archive run is in progress")
+                .register(meterRegistry);
+        Gauge.builder("booking.archive.last_run.bookings", lastRunBookings, AtomicLong::get)
+                .description("Bookings archived by the current or last run")
+                .register(meterRegistry);
+        Gauge.builder("booking.archive.last_success", lastSuccessEpochSeconds, AtomicLong::get)
+                .description("Epoch seconds at which the last run completed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${booking.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Booking archive run skipped: previous run still in progress");
+            return;
+        }
+        try {
+            runOnce(Instant.now());
+        } catch (RuntimeException ex) {
+            log.error("Booking archive run failed after {} bookings", lastRunBookings.get(), ex);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** One full pass over every shard; returns the number of bookings archived. */
+    long runOnce(Instant now) {
+        Instant cancelledBefore = now.minus(cancelledRetention);
+        Instant createdBefore = now.minus(bookedRetention);
+        lastRunBookings.set(0);
+        log.info("Booking archive started: cancelledBefore={} createdBefore={}", cancelledBefore, createdBefore);
+
+        long startNanos = System.nanoTime();
+        for (int shard = 0; shard < shards.router().shardCount(); shard++) {
+            long afterId = 0L;
+            while (true) {
+                final int s = shard;
+                final long cursor = afterId;
+                Chunk chunk = chunkTimer.record(() -> shards.inShard(s, false,
+                        () -> archiveChunk(s, cursor, cancelledBefore, createdBefore, now)));
+                if (chunk.lastCandidate() <= cursor) {
+                    break;
+                }
+                afterCommit(chunk);
+                afterId = chunk.lastCandidate();
+                if (!throttle(startNanos)) {
+                    log.warn("Booking archive interrupted after {} bookings", lastRunBookings.get());
+                    return lastRunBookings.get();
+                }
+            }
+        }
+
+        lastSuccessEpochSeconds.set(Instant.now().getEpochSecond());
+        log.info("Booking archive completed: bookings={}", lastRunBookings.get());
+        return lastRunBookings.get();
+    }
+
+    private Chunk archiveChunk(int shard, long afterId, Instant cancelledBefore, Instant createdBefore, Instant now) {
+        MapSqlParameterSource select = new MapSqlParameterSource("afterId", afterId)
+                .addValue("cancelledBefore", Timestamp.from(cancelledBefore))
+                .addValue("createdBefore", Timestamp.from(createdBefore))
+                .addValue("limit", chunkSize);
+        // the lowest chunk-size ids of both lists: every qualifying id up to the last one is among them
+        TreeSet<Long> union = new TreeSet<>(jdbc.queryForList(SELECT_CANCELLED, select, Long.class));
+        union.addAll(jdbc.queryForList(SELECT_EXPIRED, select, Long.class));
+        List<Long> candidates = union.stream().limit(chunkSize).toList();
+        if (candidates.isEmpty()) {
+            return new Chunk(afterId, List.of(), List.of(), Map.of(), Set.of(), 0);
+        }
+        long lastCandidate = candidates.get(candidates.size() - 1);
+
+        // rows another instance archived since the plain read drop out here, and so do copies of moved flights
+        List<Object[]> rows = jdbc.query(LOCK_CHUNK, select.addValue("ids", candidates),
+                (rs, i) -> new Object[] {rs.getLong("id"), rs.getString("pnr"), rs.getLong("flight_id"), rs.getString("status")})
+                .stream()
+                .filter(r -> shards.router().shardForFlight((Long) r[2]) == shard)
+                .toList();
+        if (rows.isEmpty()) {
+            return new Chunk(lastCandidate, List.of(), List.of(), Map.of(), Set.of(), 0);
+        }
+
+        List<Long> ids = rows.stream().map(r -> (Long) r[0]).toList();
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids).addValue("archivedAt", Timestamp.from(now));
+        jdbc.update(ARCHIVE_BOOKINGS, params);
+        int passengers = jdbc.update(ARCHIVE_PASSENGERS, params);
+        jdbc.update("delete from passengers where booking_id in (:ids)", params);
+        // finished sagas (see SagaOrchestrator) are not archived
+        jdbc.update("delete from booking_sagas where booking_id in (:ids)", params);
+        jdbc.update("delete from bookings where id in (:ids)", params);
+        Set<Long> seatedFlights = rows.stream()
+                .filter(r -> !"CANCELLED".equals(r[3]) && !"REJECTED".equals(r[3]))
+                .map(r -> (Long) r[2])
+                .collect(Collectors.toSet());
+        Map<Long, List<Long>> idsByFlight = rows.stream().collect(Collectors.groupingBy(r -> (Long) r[2],
+                Collectors.mapping(r -> (Long) r[0], Collectors.toList())));
+        return new Chunk(lastCandidate, ids, rows.stream().map(r -> (String) r[1]).toList(), idsByFlight,
+                seatedFlights, passengers);
+    }
+
+    private void afterCommit(Chunk chunk) {
+        chunk.idsByFlight().forEach(shardMigrator::mirror);
+        Cache tickets = cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR);
+        if (tickets != null) {
+            chunk.pnrs().forEach(tickets::evict);
+        }
+        chunk.seatedFlights().forEach(seatClaims::forget);
+        archivedBookings.increment(chunk.ids().size());
+        archivedPassengers.increment(chunk.passengers());
+        lastRunBookings.addAndGet(chunk.ids().size());
+        log.debug("Booking archive progress: bookings={}", lastRunBookings.get());
+    }
+
+    /** Sleep until the run is back under max-rows-per-second; false if interrupted. */
+    private boolean throttle(long startNanos) {
+        if (maxRowsPerSecond <= 0) {
+            return true;
+        }
+        long dueNanos = TimeUnit.SECONDS.toNanos(lastRunBookings.get()) / maxRowsPerSecond;
+        long aheadNanos = dueNanos - (System.nanoTime() - startNanos);
+        if (aheadNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Chunk(long lastCandidate, List<Long> ids, List<String> pnrs, Map<Long, List<Long>> idsByFlight,
+                         Set<Long> seatedFlights, int passengers) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.bookingservice.service;
+
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.function.Predicate;
+
+/**
+ * recordFailurePredicate of the flightClient circuit breaker: client errors raised by createBooking
+ * (bad request, unknown flight, no seats) say nothing about flight-service health and must not
+ * open the circuit.
+ */
+public class BookingFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable t) {
+        return !(t instanceof ResponseStatusException rse && rse.getStatusCode().is4xxClientError());
+    }
+}
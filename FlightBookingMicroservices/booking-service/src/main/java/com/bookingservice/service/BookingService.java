@@ -2,22 +2,48 @@ package com.bookingservice.service;
 
 import com.bookingservice.client.FlightClient;
 import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.config.CacheConfig;
+import com.bookingservice.dto.BookingHistoryPage;
 import com.bookingservice.dto.BookingRequest;
 import com.bookingservice.dto.BookingResponseDto;
+import com.bookingservice.dto.BulkBookingItemResult;
+import com.bookingservice.dto.BulkBookingResponse;
 import com.bookingservice.dto.PersonDto;
+import com.bookingservice.model.ArchivedBooking;
 import com.bookingservice.model.Booking;
 import com.bookingservice.model.Passenger;
+import com.bookingservice.pnr.PnrGenerator;
+import com.bookingservice.repository.ArchivedBookingRepository;
 import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.PassengerRepository;
+import com.bookingservice.saga.SagaOrchestrator;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * BookingService - refactored to reduce cognitive complexity.
@@ -27,6 +53,7 @@ import java.util.*;
  *  - fetchFlightOrThrow
  *  - ensureSeatAvailabilityOrThrow
  *  - buildBookingEntity
+ *  - claimSeatsOrThrow
  *  - persistBooking
  *  - convertToDto
  */
@@ -35,43 +62,132 @@ public class BookingService {
 
     private static final Logger log = LoggerFactory.getLogger(BookingService.class);
 
+    static final int DEFAULT_HISTORY_PAGE_SIZE = 20;
+    static final int MAX_HISTORY_PAGE_SIZE = 100;
+    /** resilience4j instance guarding flight-service calls (resilience4j.circuitbreaker.instances.*). */
+    static final String FLIGHT_CIRCUIT = "flightClient";
+
     private final BookingRepository bookingRepository;
+    private final PassengerRepository passengerRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
     private final FlightClient flightClient;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final PnrGenerator pnrGenerator;
+    private final ShardTemplate shards;
+    private final ShardMigrator shardMigrator;
+    private final SeatClaimRegistry seatClaims;
+    private final PendingBookingQueue pendingQueue;
+    private final SagaOrchestrator sagas;
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+
+    /** createBooking pipeline stages, timed as booking.create.stage{stage=...}. */
+    enum Stage {
+        VALIDATE("validate"),
+        FETCH_FLIGHT("fetch_flight"),
+        AVAILABILITY("availability"),
+        BUILD("build"),
+        SEAT_CLAIM("seat_claim"),
+        PERSIST("persist"),
+        CONVERT("convert");
+
+        final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
 
     public BookingService(BookingRepository bookingRepository,
-                          FlightClient flightClient) {
+                          PassengerRepository passengerRepository,
+                          ArchivedBookingRepository archivedBookingRepository,
+                          FlightClient flightClient,
+                          CircuitBreakerRegistry circuitBreakers,
+                          PnrGenerator pnrGenerator,
+                          ShardTemplate shards,
+                          ShardMigrator shardMigrator,
+                          SeatClaimRegistry seatClaims,
+                          PendingBookingQueue pendingQueue,
+                          SagaOrchestrator sagas,
+                          MeterRegistry meterRegistry) {
         this.bookingRepository = bookingRepository;
+        this.passengerRepository = passengerRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
         this.flightClient = flightClient;
+        this.circuitBreakers = circuitBreakers;
+        this.pnrGenerator = pnrGenerator;
+        this.shards = shards;
+        this.shardMigrator = shardMigrator;
+        this.seatClaims = seatClaims;
+        this.pendingQueue = pendingQueue;
+        this.sagas = sagas;
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("booking.create.stage")
+                    .description("Time spent in each createBooking stage")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
     }
 
     /**
-     * Create a booking.
+     * Create a booking on the shard that owns its flight.
      * CircuitBreaker will redirect to createBookingFallback(...) on failures of flightClient.
+     * Only the insert runs in a transaction; no connection is held while flight-service is called.
+     * Requested seats are claimed in SeatClaimRegistry before the insert, so a seat held by another
+     * active booking is rejected with 409 without touching the DB.
+     * With the booking saga on, the booking is stored as RESERVING and flight-service reserves the
+     * seats asynchronously (see SagaOrchestrator).
      */
-    @Transactional
-    @CircuitBreaker(name = "flightClient", fallbackMethod = "createBookingFallback")
+    @CircuitBreaker(name = FLIGHT_CIRCUIT, fallbackMethod = "createBookingFallback")
     public BookingResponseDto createBooking(BookingRequest request, String headerEmail) {
         log.debug("createBooking called: flightId={}, headerEmail={}, numSeats={}",
                 request == null ? null : request.getFlightId(),
                 headerEmail,
                 request == null ? null : request.getNumSeats());
 
-        
-        validateAndNormalizeRequest(request, headerEmail);
-
-        FlightDto flight = fetchFlightOrThrow(request.getFlightId());
+        timedRun(Stage.VALIDATE, () -> validateAndNormalizeRequest(request, headerEmail));
 
-        ensureSeatAvailabilityOrThrow(flight, request.getNumSeats());
+        FlightDto flight = timed(Stage.FETCH_FLIGHT, () -> fetchFlightOrThrow(request.getFlightId()));
 
-        double totalPrice = calculateTotalPrice(flight.getPrice(), request.getNumSeats());
+        timedRun(Stage.AVAILABILITY, () -> ensureSeatAvailabilityOrThrow(flight, request.getNumSeats()));
 
-        Booking booking = buildBookingEntity(request, totalPrice);
-        Booking saved = persistBookingOrThrow(booking);
+        int shard = shards.router().shardForFlight(request.getFlightId());
+        Booking booking = timed(Stage.BUILD, () ->
+                buildBookingEntity(request, shard, calculateTotalPrice(flight.getPrice(), request.getNumSeats())));
+        if (sagaEnabled()) {
+            booking.setStatus(SagaOrchestrator.STATUS_RESERVING);
+        }
+        List<String> seats = timed(Stage.SEAT_CLAIM, () -> claimSeatsOrThrow(shard, booking));
+        // includes the commit; end-to-end time is in http.server.requests
+        Booking saved = timed(Stage.PERSIST, () -> persistClaimedOrThrow(shard, booking, seats));
+        shardMigrator.mirror(saved.getFlightId(), Collections.singletonList(saved.getId()));
+        startSagaIfReserving(saved);
 
         log.info("Booking saved: pnr={}, flightId={}, user={}", 
                 saved.getPnr(), saved.getFlightId(), saved.getUserEmail());
 
-        return convertToDto(saved);
+        return timed(Stage.CONVERT, () -> convertToDto(saved));
+    }
+
+    private boolean sagaEnabled() {
+        return sagas != null && sagas.isEnabled();
+    }
+
+    /** After commit: hand a RESERVING booking to its saga. */
+    private void startSagaIfReserving(Booking saved) {
+        if (SagaOrchestrator.STATUS_RESERVING.equals(saved.getStatus())) {
+            sagas.reserveSeats(saved);
+        }
+    }
+
+    private <T> T timed(Stage stage, Supplier<T> step) {
+        return stageTimers.get(stage).record(step);
+    }
+
+    private void timedRun(Stage stage, Runnable step) {
+        stageTimers.get(stage).record(step);
     }
 
 
@@ -105,6 +221,15 @@ public class BookingService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                     "number of passengers must match numSeats");
         }
+
+        Set<String> seats = new HashSet<>();
+        for (PersonDto passenger : request.getPassengers()) {
+            String seat = passenger == null ? null : SeatClaimRegistry.normalize(passenger.getSeatNumber());
+            if (seat != null && !seats.add(seat)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "seatNumber " + seat + " is assigned to more than one passenger");
+            }
+        }
     }
 
     private FlightDto fetchFlightOrThrow(Long flightId) {
@@ -134,10 +259,7 @@ public class BookingService {
     }
 
     private long ensureSeatAvailabilityOrThrow(FlightDto flight, Integer requestedSeats) {
-        long availableSeats = Optional.ofNullable(flight.getSeats()).orElse(Collections.emptyList())
-                .stream()
-                .filter(s -> s.getStatus() != null && "AVAILABLE".equalsIgnoreCase(s.getStatus()))
-                .count();
+        long availableSeats = countAvailableSeats(flight);
 
         if (availableSeats < requestedSeats) {
             throw new ResponseStatusException(HttpStatus.CONFLICT,
@@ -146,14 +268,21 @@ public class BookingService {
         return availableSeats;
     }
 
+    static long countAvailableSeats(FlightDto flight) {
+        return Optional.ofNullable(flight.getSeats()).orElse(Collections.emptyList())
+                .stream()
+                .filter(s -> s.getStatus() != null && "AVAILABLE".equalsIgnoreCase(s.getStatus()))
+                .count();
+    }
+
     private double calculateTotalPrice(Double pricePerSeat, Integer numSeats) {
         double price = (pricePerSeat == null) ? 0.0 : pricePerSeat;
         return price * numSeats;
     }
 
-    private Booking buildBookingEntity(BookingRequest request, double totalPrice) {
+    private Booking buildBookingEntity(BookingRequest request, int shard, double totalPrice) {
         Booking booking = new Booking();
-        booking.setPnr(generatePnr());
+        booking.setPnr(pnrGenerator.nextPnr(shard));
         booking.setFlightId(request.getFlightId());
         booking.setUserEmail(request.getUserEmail());
         booking.setNumSeats(request.getNumSeats());
@@ -166,8 +295,10 @@ public class BookingService {
             p.setPassengerName(pdto.getName());
             p.setGender(pdto.getGender());
             p.setAge(pdto.getAge());
-            p.setSeatNumber(pdto.getSeatNumber());
+            p.setSeatNumber(SeatClaimRegistry.normalize(pdto.getSeatNumber()));
             p.setMealPreference(pdto.getMealPreference());
+            p.setFlightId(request.getFlightId());
+            p.setSeatClaim(p.getSeatNumber() == null ? null : Boolean.TRUE);
             p.setBooking(booking);
             return p;
         }).toList();
@@ -176,9 +307,88 @@ public class BookingService {
         return booking;
     }
 
+    /**
+     * Claim the booking's seats in SeatClaimRegistry, all or none. A conflict is re-checked against
+     * the owning shard, because the index may still hold a seat that another instance released; seats
+     * the DB does not confirm are released (unless another request is still writing them) and the claim
+     * retried once. Returns the claimed seats, pending until settled or released.
+     */
+    private List<String> claimSeatsOrThrow(int shard, Booking booking) {
+        Long flightId = booking.getFlightId();
+        List<String> seats = seatsOf(booking.getPassengers());
+        List<String> taken = seatClaims.tryClaim(flightId, seats);
+        if (taken.isEmpty()) {
+            return seats;
+        }
+
+        List<String> held = Optional.ofNullable(shards.inShard(shard, true,
+                        () -> passengerRepository.findClaimedSeats(flightId, taken)))
+                .orElse(Collections.emptyList())
+                .stream().map(SeatClaimRegistry::normalize).toList();
+        List<String> stale = taken.stream().filter(seat -> !held.contains(seat)).toList();
+        if (!stale.isEmpty()) {
+            seatClaims.releaseStale(flightId, stale);
+        }
+        List<String> conflicts = held;
+        if (held.isEmpty()) {
+            conflicts = seatClaims.tryClaim(flightId, seats);
+            if (conflicts.isEmpty()) {
+                return seats;
+            }
+        }
+
+        throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "Seat already taken on flight " + flightId + ": " + String.join(", ", conflicts));
+    }
+
+    private static List<String> seatsOf(List<Passenger> passengers) {
+        return Optional.ofNullable(passengers).orElse(Collections.emptyList()).stream()
+                .filter(p -> Boolean.TRUE.equals(p.getSeatClaim()) && p.getSeatNumber() != null)
+                .map(Passenger::getSeatNumber)
+                .toList();
+    }
+
+    /**
+     * Give back the claims of a write that did not happen. After a seat constraint violation the
+     * claims are kept: at least one seat is held in the DB, and the rest are re-checked on conflict.
+     */
+    private void releaseAfterFailedWrite(Long flightId, List<String> seats, RuntimeException ex) {
+        if (ex instanceof ResponseStatusException rse && rse.getStatusCode() == HttpStatus.CONFLICT) {
+            seatClaims.settle(flightId, seats);
+        } else {
+            seatClaims.release(flightId, seats);
+        }
+    }
+
+    private Booking persistClaimedOrThrow(int shard, Booking booking, List<String> seats) {
+        Booking saved;
+        try {
+            saved = shards.inShard(shard, false, () -> persistBookingOrThrow(booking));
+        } catch (RuntimeException ex) {
+            releaseAfterFailedWrite(booking.getFlightId(), seats, ex);
+            throw ex;
+        }
+        seatClaims.settle(booking.getFlightId(), seats);
+        return saved;
+    }
+
+    /** In the insert's transaction: a RESERVING booking gets its saga row. */
+    private void beginSagaIfReserving(Booking saved) {
+        if (SagaOrchestrator.STATUS_RESERVING.equals(saved.getStatus())) {
+            sagas.begin(saved);
+        }
+    }
+
     private Booking persistBookingOrThrow(Booking booking) {
         try {
-            return bookingRepository.save(booking);
+            Booking saved = bookingRepository.save(booking);
+            // surface a seat constraint violation here rather than at commit
+            bookingRepository.flush();
+            beginSagaIfReserving(saved);
+            return saved;
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Seat conflict on insert: flightId={} : {}", booking.getFlightId(), ex.getMostSpecificCause().toString());
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Seat already taken on flight " + booking.getFlightId());
         } catch (Exception ex) {
             log.error("Failed to save booking to DB: {}", ex.toString(), ex);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to save booking");
@@ -188,9 +398,21 @@ public class BookingService {
     /**
      * Resilience4j fallback method. Signature must match original method's parameters
      * plus an additional Throwable at the end.
-     * We throw a Service Unavailable so controllers return 503.
+     * Client errors (400/404/409) are rethrown as they are. With the circuit open and degraded mode
+     * on, the booking is queued as PENDING (see PendingBookingQueue); everything else becomes
+     * Service Unavailable so controllers return 503.
+     * Counts every failed createBooking as booking.create.failures{reason=<status>}.
      */
     public BookingResponseDto createBookingFallback(BookingRequest request, String headerEmail, Throwable t) {
+        if (t instanceof ResponseStatusException rse && rse.getStatusCode().is4xxClientError()) {
+            countFailure(rse.getStatusCode().value(), "client_error");
+            throw rse;
+        }
+        if (t instanceof CallNotPermittedException && pendingQueue != null && pendingQueue.isEnabled()) {
+            return enqueuePending(request, headerEmail);
+        }
+        countFailure(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                t instanceof CallNotPermittedException ? "circuit_open" : "server_error");
         log.warn("createBookingFallback called for flightId={} user={} : {}",
                 request == null ? null : request.getFlightId(),
                 headerEmail, t == null ? "null" : t.toString());
@@ -198,43 +420,448 @@ public class BookingService {
                 "Flight service unavailable. Try again later.");
     }
 
+    /**
+     * Store the booking as PENDING on its shard without asking flight-service: request validated and
+     * seats claimed as usual, price 0 until the drain confirms it. Returned with status PENDING.
+     */
+    private BookingResponseDto enqueuePending(BookingRequest request, String headerEmail) {
+        try {
+            validateAndNormalizeRequest(request, headerEmail);
+            int shard = shards.router().shardForFlight(request.getFlightId());
+            Booking booking = buildBookingEntity(request, shard, 0.0);
+            booking.setStatus("PENDING");
+            Booking saved = persistClaimedOrThrow(shard, booking, claimSeatsOrThrow(shard, booking));
+            shardMigrator.mirror(saved.getFlightId(), Collections.singletonList(saved.getId()));
+            pendingQueue.enqueued();
+
+            log.info("Booking queued as PENDING (flight circuit open): pnr={}, flightId={}, user={}",
+                    saved.getPnr(), saved.getFlightId(), saved.getUserEmail());
+            return convertToDto(saved);
+        } catch (ResponseStatusException ex) {
+            countFailure(ex.getStatusCode().value(), ex.getStatusCode().is4xxClientError() ? "client_error" : "server_error");
+            throw ex;
+        }
+    }
+
+    private void countFailure(int status, String cause) {
+        Counter.builder("booking.create.failures")
+                .description("Failed createBooking calls by response status")
+                .tag("reason", String.valueOf(status))
+                .tag("cause", cause)
+                .register(meterRegistry)
+                .increment();
+    }
+
+
+    /**
+     * Create many bookings in one call (group / travel agency bookings).
+     *
+     * Every item is validated on its own, each distinct flight is fetched once, seat availability is
+     * checked cumulatively per flight, requested seats are claimed per item (conflicts fail only that
+     * item), and the accepted bookings of each shard are persisted with one
+     * saveAll (JDBC-batched inserts) in that shard's transaction. The response reports the outcome of
+     * every item by index. With the booking saga on, saved items are RESERVING, as in createBooking.
+     *
+     * The flight lookups go through the flightClient circuit like createBooking: while it is open no
+     * call is made, and the items of that flight are queued as PENDING (202) in degraded mode or fail
+     * with 503. Stages are timed per item as in createBooking, except persist, which is one batch per shard.
+     */
+    public BulkBookingResponse createBookings(List<BookingRequest> requests, String headerEmail) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bookings list is required and cannot be empty");
+        }
+
+        BulkBookingItemResult[] results = new BulkBookingItemResult[requests.size()];
+        Map<Long, List<Integer>> indexesByFlight = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                BookingRequest request = requests.get(i);
+                timedRun(Stage.VALIDATE, () -> validateAndNormalizeRequest(request, headerEmail));
+                indexesByFlight.computeIfAbsent(requests.get(i).getFlightId(), k -> new ArrayList<>()).add(i);
+            } catch (ResponseStatusException ex) {
+                results[i] = failedItem(i, ex);
+            }
+        }
+
+        Map<Integer, List<Booking>> toSave = new TreeMap<>();
+        Map<Integer, List<Integer>> toSaveIndexes = new TreeMap<>();
+        int accepted = 0;
+        for (Map.Entry<Long, List<Integer>> entry : indexesByFlight.entrySet()) {
+            Long flightId = entry.getKey();
+            FlightDto flight;
+            try {
+                flight = timed(Stage.FETCH_FLIGHT, () -> circuitBreakers.circuitBreaker(FLIGHT_CIRCUIT)
+                        .executeSupplier(() -> fetchFlightOrThrow(flightId)));
+            } catch (CallNotPermittedException ex) {
+                accepted += circuitOpenItems(requests, entry.getValue(), headerEmail, results);
+                continue;
+            } catch (ResponseStatusException ex) {
+                for (int i : entry.getValue()) {
+                    if (ex.getStatusCode().is5xxServerError()) {
+                        countFailure(ex.getStatusCode().value(), "server_error");
+                    }
+                    results[i] = failedItem(i, ex);
+                }
+                continue;
+            }
+
+            long remaining = countAvailableSeats(flight);
+            for (int i : entry.getValue()) {
+                BookingRequest request = requests.get(i);
+                if (request.getNumSeats() > remaining) {
+                    results[i] = failedItem(i, new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Not enough seats available: requested=" + request.getNumSeats() + ", available=" + remaining));
+                    continue;
+                }
+                int shard = shards.router().shardForFlight(flightId);
+                Booking booking = timed(Stage.BUILD, () ->
+                        buildBookingEntity(request, shard, calculateTotalPrice(flight.getPrice(), request.getNumSeats())));
+                if (sagaEnabled()) {
+                    booking.setStatus(SagaOrchestrator.STATUS_RESERVING);
+                }
+                try {
+                    timed(Stage.SEAT_CLAIM, () -> claimSeatsOrThrow(shard, booking));
+                } catch (ResponseStatusException ex) {
+                    results[i] = failedItem(i, ex);
+                    continue;
+                }
+                remaining -= request.getNumSeats();
+                toSave.computeIfAbsent(shard, k -> new ArrayList<>()).add(booking);
+                toSaveIndexes.computeIfAbsent(shard, k -> new ArrayList<>()).add(i);
+                accepted++;
+            }
+        }
+
+        // one transaction per shard: a failed shard fails only its own items
+        for (Map.Entry<Integer, List<Booking>> entry : toSave.entrySet()) {
+            List<Integer> indexes = toSaveIndexes.get(entry.getKey());
+            List<Booking> saved;
+            try {
+                saved = shards.inShard(entry.getKey(), false, () -> persistBookingsOrThrow(entry.getValue()));
+            } catch (ResponseStatusException ex) {
+                for (int i : indexes) {
+                    results[i] = failedItem(i, ex);
+                }
+                for (Booking booking : entry.getValue()) {
+                    releaseAfterFailedWrite(booking.getFlightId(), seatsOf(booking.getPassengers()), ex);
+                }
+                accepted -= indexes.size();
+                continue;
+            }
+            for (int k = 0; k < saved.size(); k++) {
+                int i = indexes.get(k);
+                Booking booking = saved.get(k);
+                results[i] = new BulkBookingItemResult(i, HttpStatus.CREATED.value(), null,
+                        timed(Stage.CONVERT, () -> convertToDto(booking)));
+                seatClaims.settle(saved.get(k).getFlightId(), seatsOf(saved.get(k).getPassengers()));
+            }
+            mirrorByFlight(saved);
+            saved.forEach(this::startSagaIfReserving);
+        }
+
+        log.info("Bulk booking processed: user={}, items={}, saved={}, flights={}",
+                headerEmail, requests.size(), accepted, indexesByFlight.size());
+
+        return new BulkBookingResponse(accepted, requests.size() - accepted, Arrays.asList(results));
+    }
+
+    /**
+     * Items of a flight whose lookup the open circuit refused: queued as PENDING (202) in degraded mode,
+     * otherwise 503 as createBookingFallback would answer. Returns how many were queued.
+     */
+    private int circuitOpenItems(List<BookingRequest> requests, List<Integer> indexes, String headerEmail,
+                                 BulkBookingItemResult[] results) {
+        if (pendingQueue == null || !pendingQueue.isEnabled()) {
+            ResponseStatusException unavailable = new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Flight service unavailable. Try again later.");
+            for (int i : indexes) {
+                countFailure(unavailable.getStatusCode().value(), "circuit_open");
+                results[i] = failedItem(i, unavailable);
+            }
+            return 0;
+        }
+        int queued = 0;
+        for (int i : indexes) {
+            try {
+                results[i] = new BulkBookingItemResult(i, HttpStatus.ACCEPTED.value(), null,
+                        enqueuePending(requests.get(i), headerEmail));
+                queued++;
+            } catch (ResponseStatusException ex) {
+                results[i] = failedItem(i, ex);
+            }
+        }
+        return queued;
+    }
+
+    private static BulkBookingItemResult failedItem(int index, ResponseStatusException ex) {
+        return new BulkBookingItemResult(index, ex.getStatusCode().value(), ex.getReason(), null);
+    }
+
+    private void mirrorByFlight(List<Booking> saved) {
+        if (!shards.router().isMigrating()) {
+            return;
+        }
+        saved.stream()
+                .collect(Collectors.groupingBy(Booking::getFlightId, LinkedHashMap::new,
+                        Collectors.mapping(Booking::getId, Collectors.toList())))
+                .forEach(shardMigrator::mirror);
+    }
+
+    private List<Booking> persistBookingsOrThrow(List<Booking> bookings) {
+        try {
+            List<Booking> saved = bookingRepository.saveAll(bookings);
+            bookingRepository.flush();
+            saved.forEach(this::beginSagaIfReserving);
+            return saved;
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Seat conflict on bulk insert of {} bookings: {}", bookings.size(), ex.getMostSpecificCause().toString());
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Seat already taken");
+        } catch (Exception ex) {
+            log.error("Failed to save {} bookings to DB: {}", bookings.size(), ex.toString(), ex);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to save bookings");
+        }
+    }
 
-    @Transactional(readOnly = true)
+    /**
+     * Ticket lookup. Read-through cached by PNR (see CacheConfig), so repeated views of the same
+     * ticket are served from memory; cancelBooking evicts the entry.
+     * Goes straight to the shard encoded in the PNR (see findOnOwnerShard); bookings moved away by
+     * BookingArchiveJob are looked up in the archive tables.
+     */
+    @Cacheable(cacheNames = CacheConfig.BOOKINGS_BY_PNR, key = "#p0")
     public BookingResponseDto getByPnr(String pnr) {
-        Booking booking = bookingRepository.findByPnr(pnr)
+        return findOnOwnerShard(pnr, true, this::convertToDto)
+                .or(() -> findArchived(pnr, this::convertArchived))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "PNR not found"));
-        return convertToDto(booking);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Archived rows never change and PNRs are unique, so any shard's copy will do: unlike live rows,
+     * archived ones are not filtered by the current ring (copies made by a reshard are identical).
+     */
+    private <T> Optional<T> findArchived(String pnr, Function<ArchivedBooking, T> action) {
+        return probeShards(pnr, shard -> shards.inShard(shard, true, () -> archivedBookingRepository.findByPnr(pnr)
+                .map(action)));
+    }
+
+    /**
+     * Run action on the booking in a transaction on the shard that owns it.
+     *
+     * The PNR names the shard the booking was created on, which is its owner unless a reshard moved
+     * the flight since; a row only counts on the shard that owns its flightId under the current ring,
+     * so copies left behind by a reshard are never served. Only when the encoded shard does not own
+     * the booking are the other shards probed.
+     */
+    private <T> Optional<T> findOnOwnerShard(String pnr, boolean readOnly, Function<Booking, T> action) {
+        return probeShards(pnr, shard -> findOnShard(shard, pnr, readOnly, action));
+    }
+
+    /** lookup(shard) on the shard encoded in the PNR first, then on the others until one finds it. */
+    private <T> Optional<T> probeShards(String pnr, IntFunction<Optional<T>> lookup) {
+        ShardRouter router = shards.router();
+        int encoded = encodedShard(pnr);
+        if (encoded >= 0 && encoded < router.shardCount()) {
+            Optional<T> found = lookup.apply(encoded);
+            if (found.isPresent() || router.shardCount() == 1) {
+                return found;
+            }
+        }
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            if (shard == encoded) {
+                continue;
+            }
+            Optional<T> found = lookup.apply(shard);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Shard encoded in the PNR, or -1 for a locator this generator did not produce. */
+    private int encodedShard(String pnr) {
+        try {
+            return pnrGenerator.shardOf(pnr);
+        } catch (IllegalArgumentException ex) {
+            return -1;
+        }
+    }
+
+    private <T> Optional<T> findOnShard(int shard, String pnr, boolean readOnly, Function<Booking, T> action) {
+        return shards.inShard(shard, readOnly, () -> bookingRepository.findByPnr(pnr)
+                .filter(b -> shards.router().shardForFlight(b.getFlightId()) == shard)
+                .map(action));
+    }
+
+    /**
+     * Full (unpaged) history. Kept for existing clients; prefer getHistoryPage.
+     * Gathered from every shard and merged newest first; passengers are loaded with one batched
+     * query per shard rather than per booking.
+     */
     public List<BookingResponseDto> getHistoryByEmail(String email) {
-        List<Booking> list = bookingRepository.findByUserEmailOrderByCreatedAtDesc(email);
-        return list.stream().map(this::convertToDto).toList();
+        return shards.onAllShards(true, shard -> convertOwned(shard, bookingRepository.findByUserEmailOrderByCreatedAtDesc(email)))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(HistoryRow.NEWEST_FIRST)
+                .map(HistoryRow::dto)
+                .toList();
+    }
+
+    /**
+     * One page of a user's history, newest first, using keyset pagination on (created_at, id).
+     * Every shard returns its own next pageSize + 1 rows (two queries: the bookings page and one
+     * batched passenger fetch) and the pages are merged. Ids are unique across shards, so the cursor
+     * stays a single (createdAt, id) keyset.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public BookingHistoryPage getHistoryPage(String email, String cursor, Integer size) {
+        int pageSize = (size == null) ? DEFAULT_HISTORY_PAGE_SIZE : size;
+        if (pageSize <= 0 || pageSize > MAX_HISTORY_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        HistoryCursor after = (cursor == null || cursor.isBlank()) ? null : HistoryCursor.decode(cursor);
+
+        // fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<ShardPage> pages = shards.onAllShards(true, shard -> {
+            List<Booking> rows = (after == null)
+                    ? bookingRepository.findHistoryFirstPage(email, limit)
+                    : bookingRepository.findHistoryPageBefore(email, after.createdAt(), after.id(), limit);
+            if (rows.size() <= pageSize) {
+                return new ShardPage(convertOwned(shard, rows), null);
+            }
+            List<Booking> head = rows.subList(0, pageSize);
+            Booking last = head.get(pageSize - 1);
+            return new ShardPage(convertOwned(shard, head), new HistoryCursor(last.getCreatedAt(), last.getId()));
+        });
+
+        // a shard with more rows only vouches for rows down to its horizon (last row of its page):
+        // anything older from other shards could be preceded by that shard's unfetched rows
+        HistoryCursor horizon = pages.stream().map(ShardPage::horizon).filter(Objects::nonNull)
+                .min(HistoryCursor.NEWEST_FIRST).orElse(null);
+        List<HistoryRow> merged = pages.stream()
+                .flatMap(p -> p.rows().stream())
+                .filter(r -> horizon == null || HistoryRow.NEWEST_FIRST.compare(r, horizon.asRow()) <= 0)
+                .sorted(HistoryRow.NEWEST_FIRST)
+                .toList();
+
+        boolean hasMore = merged.size() > pageSize || horizon != null;
+        List<HistoryRow> page = merged.size() > pageSize ? merged.subList(0, pageSize) : merged;
+
+        String nextCursor = null;
+        if (hasMore) {
+            HistoryRow last = page.isEmpty() ? horizon.asRow() : page.get(page.size() - 1);
+            nextCursor = new HistoryCursor(last.createdAt(), last.id()).encode();
+        }
+        return new BookingHistoryPage(page.stream().map(HistoryRow::dto).toList(), nextCursor);
+    }
+
+    /** Bookings of one shard that the shard owns (reshard leftovers are dropped), converted with passengers. */
+    private List<HistoryRow> convertOwned(int shard, List<Booking> rows) {
+        List<Booking> owned = rows.stream()
+                .filter(b -> shards.router().shardForFlight(b.getFlightId()) == shard)
+                .toList();
+        List<BookingResponseDto> dtos = convertWithPassengers(owned);
+        List<HistoryRow> result = new ArrayList<>(owned.size());
+        for (int i = 0; i < owned.size(); i++) {
+            result.add(new HistoryRow(owned.get(i).getCreatedAt(), owned.get(i).getId(), dtos.get(i)));
+        }
+        return result;
+    }
+
+    private List<BookingResponseDto> convertWithPassengers(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = bookings.stream().map(Booking::getId).filter(Objects::nonNull).toList();
+        Map<Long, List<Passenger>> byBooking = ids.isEmpty() ? Collections.emptyMap()
+                : passengerRepository.findByBookingIdInOrderByIdAsc(ids).stream()
+                        .collect(Collectors.groupingBy(p -> p.getBooking().getId()));
+
+        return bookings.stream()
+                .map(b -> convertToDto(b, byBooking.getOrDefault(b.getId(), List.of())))
+                .toList();
     }
 
-    @Transactional
+    /**
+     * Cancel a booking (owner only). Archived bookings are read-only: 409.
+     * The booking's seats are released in the same transaction and, after commit, in SeatClaimRegistry;
+     * seats that flight-service reserved through a saga are released by that saga.
+     */
+    @CacheEvict(cacheNames = CacheConfig.BOOKINGS_BY_PNR, key = "#p0")
     public BookingResponseDto cancelBooking(String pnr, String headerEmail) {
-        Booking booking = bookingRepository.findByPnr(pnr)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "PNR not found"));
+        List<String> released = new ArrayList<>();
+        Booking saved = findOnOwnerShard(pnr, false, booking -> cancelOwned(booking, headerEmail, released))
+                .orElseThrow(() -> findArchived(pnr, ArchivedBooking::getId).isPresent()
+                        ? new ResponseStatusException(HttpStatus.CONFLICT, "Booking is archived and can no longer be changed")
+                        : new ResponseStatusException(HttpStatus.NOT_FOUND, "PNR not found"));
+        seatClaims.release(saved.getFlightId(), released);
+        shardMigrator.mirror(saved.getFlightId(), Collections.singletonList(saved.getId()));
+        return convertToDto(saved);
+    }
 
+    private Booking cancelOwned(Booking booking, String headerEmail, List<String> released) {
         if (!booking.getUserEmail().equalsIgnoreCase(headerEmail)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only the booking owner can cancel this booking");
         }
 
         if ("CANCELLED".equalsIgnoreCase(booking.getStatus())) {
-            return convertToDto(booking);
+            return initPassengers(booking);
         }
 
+        boolean confirmedBySaga = sagaEnabled() && "ACTIVE".equalsIgnoreCase(booking.getStatus());
         booking.setStatus("CANCELLED");
         booking.setCancelledAt(Instant.now());
+        if (confirmedBySaga) {
+            sagas.bookingCancelled(booking.getId());
+        }
+        released.addAll(seatsOf(booking.getPassengers()));
+        Optional.ofNullable(booking.getPassengers()).orElse(Collections.emptyList())
+                .forEach(p -> p.setSeatClaim(null));
         Booking saved = bookingRepository.save(booking);
 
         log.info("Booking cancelled: pnr={}, flightId={}, user={}", saved.getPnr(), saved.getFlightId(), saved.getUserEmail());
 
-        return convertToDto(saved);
+        return initPassengers(saved);
+    }
+
+    /** Load the lazy passenger list while the shard transaction is still open. */
+    private static Booking initPassengers(Booking booking) {
+        if (booking.getPassengers() != null) {
+            booking.getPassengers().size();
+        }
+        return booking;
     }
 
     private BookingResponseDto convertToDto(Booking b) {
+        return convertToDto(b, b.getPassengers());
+    }
+
+    private BookingResponseDto convertArchived(ArchivedBooking b) {
+        BookingResponseDto dto = new BookingResponseDto();
+        dto.setPnr(b.getPnr());
+        dto.setFlightId(b.getFlightId());
+        dto.setUserEmail(b.getUserEmail());
+        dto.setNumSeats(b.getNumSeats());
+        dto.setTotalPrice(b.getTotalPrice());
+        dto.setStatus(b.getStatus());
+        dto.setCreatedAt(b.getCreatedAt());
+        dto.setPassengers(Optional.ofNullable(b.getPassengers()).orElse(Collections.emptyList())
+                .stream().map(p -> PersonDto.builder()
+                        .name(p.getPassengerName())
+                        .gender(p.getGender())
+                        .age(p.getAge())
+                        .seatNumber(p.getSeatNumber())
+                        .mealPreference(p.getMealPreference())
+                        .build())
+                .toList());
+        return dto;
+    }
+
+    private BookingResponseDto convertToDto(Booking b, List<Passenger> passengers) {
         BookingResponseDto dto = new BookingResponseDto();
         dto.setPnr(b.getPnr());
         dto.setFlightId(b.getFlightId());
@@ -244,7 +871,7 @@ public class BookingService {
         dto.setStatus(b.getStatus());
         dto.setCreatedAt(b.getCreatedAt());
 
-        List<PersonDto> pinfos = Optional.ofNullable(b.getPassengers()).orElse(Collections.emptyList())
+        List<PersonDto> pinfos = Optional.ofNullable(passengers).orElse(Collections.emptyList())
                 .stream().map(p -> PersonDto.builder()
                         .name(p.getPassengerName())
                         .gender(p.getGender())
@@ -258,11 +885,43 @@ public class BookingService {
         return dto;
     }
 
-    private String generatePnr() {
-        return UUID.randomUUID()
-                .toString()
-                .replace("-", "")   
-                .substring(0, 8)
-                .toUpperCase();
+    /** One converted history entry with the keyset it sorts by. */
+    private record HistoryRow(Instant createdAt, Long id, BookingResponseDto dto) {
+        static final Comparator<HistoryRow> NEWEST_FIRST = Comparator
+                .comparing(HistoryRow::createdAt, Comparator.reverseOrder())
+                .thenComparing(HistoryRow::id, Comparator.nullsLast(Comparator.reverseOrder()));
+    }
+
+    /** One shard's share of a history page; horizon is its last row when the shard has more. */
+    private record ShardPage(List<HistoryRow> rows, HistoryCursor horizon) {
+    }
+
+    /**
+     * Keyset position (createdAt, id) of the last booking on a page, encoded as an opaque url-safe token.
+     */
+    private record HistoryCursor(Instant createdAt, Long id) {
+
+        /** Newest first: the "smallest" cursor under this order is the newest one. */
+        static final Comparator<HistoryCursor> NEWEST_FIRST = Comparator.comparing(HistoryCursor::asRow, HistoryRow.NEWEST_FIRST);
+
+        HistoryRow asRow() {
+            return new HistoryRow(createdAt, id, null);
+        }
+
+        String encode() {
+            String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split(":");
+                Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+                return new HistoryCursor(createdAt, Long.parseLong(parts[2]));
+            } catch (RuntimeException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid history cursor");
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package com.bookingservice.service;
+
+import com.bookingservice.dto.FlightCancellationStatus;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory progress of one flight cancellation run. Updated by FlightCancellationWorker,
+ * read concurrently by the status endpoint.
+ */
+class FlightCancellationJob {
+
+    private final String jobId;
+    private final Long flightId;
+    private final long totalBookings;
+    private final Instant startedAt = Instant.now();
+
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong eventsPublished = new AtomicLong();
+    private volatile String state = "RUNNING";
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    FlightCancellationJob(String jobId, Long flightId, long totalBookings) {
+        this.jobId = jobId;
+        this.flightId = flightId;
+        this.totalBookings = totalBookings;
+    }
+
+    String getJobId() { return jobId; }
+    Long getFlightId() { return flightId; }
+    Instant getFinishedAt() { return finishedAt; }
+
+    boolean isRunning() {
+        return "RUNNING".equals(state);
+    }
+
+    void chunkDone(int cancelledInChunk, int eventsInChunk) {
+        cancelled.addAndGet(cancelledInChunk);
+        eventsPublished.addAndGet(eventsInChunk);
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        state = "COMPLETED";
+    }
+
+    void fail(String message) {
+        error = message;
+        finishedAt = Instant.now();
+        state = "FAILED";
+    }
+
+    FlightCancellationStatus toStatus() {
+        return new FlightCancellationStatus(jobId, flightId, state, totalBookings,
+                cancelled.get(), eventsPublished.get(), startedAt, finishedAt, error);
+    }
+}
@@ -0,0 +1,79 @@
+package com.bookingservice.service;
+
+import com.bookingservice.dto.FlightCancellationStatus;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.shard.ShardTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Administrative cancellation of every booking on a flight (airline cancelled the flight).
+ * Starts a background FlightCancellationWorker run and tracks its progress in memory; at most one
+ * run per flight at a time (per instance).
+ * All bookings of a flight live on one shard, so the whole job runs against that shard.
+ */
+@Service
+public class FlightCancellationService {
+
+    private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(24);
+
+    private final BookingRepository bookingRepository;
+    private final FlightCancellationWorker worker;
+    private final ShardTemplate shards;
+    private final Map<String, FlightCancellationJob> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, FlightCancellationJob> jobsByFlight = new ConcurrentHashMap<>();
+
+    public FlightCancellationService(BookingRepository bookingRepository, FlightCancellationWorker worker,
+                                     ShardTemplate shards) {
+        this.bookingRepository = bookingRepository;
+        this.worker = worker;
+        this.shards = shards;
+    }
+
+    public FlightCancellationStatus startCancellation(Long flightId) {
+        pruneFinishedJobs();
+
+        FlightCancellationJob running = jobsByFlight.get(flightId);
+        if (running != null && running.isRunning()) {
+            throw alreadyRunning(flightId);
+        }
+
+        long total = shards.inShard(shards.router().shardForFlight(flightId), true,
+                () -> bookingRepository.countActiveByFlight(flightId));
+        FlightCancellationJob job = new FlightCancellationJob(UUID.randomUUID().toString(), flightId, total);
+        // claim the flight atomically: of two concurrent requests only one installs its job
+        FlightCancellationJob owner = jobsByFlight.compute(flightId,
+                (id, current) -> current != null && current.isRunning() ? current : job);
+        if (owner != job) {
+            throw alreadyRunning(flightId);
+        }
+        jobs.put(job.getJobId(), job);
+        worker.run(job);
+        return job.toStatus();
+    }
+
+    public FlightCancellationStatus getStatus(String jobId) {
+        FlightCancellationJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Cancellation job not found");
+        }
+        return job.toStatus();
+    }
+
+    private static ResponseStatusException alreadyRunning(Long flightId) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Cancellation already running for flight " + flightId);
+    }
+
+    private void pruneFinishedJobs() {
+        Instant cutoff = Instant.now().minus(FINISHED_JOB_RETENTION);
+        jobs.values().removeIf(j -> j.getFinishedAt() != null && j.getFinishedAt().isBefore(cutoff));
+        jobsByFlight.values().removeIf(j -> !j.isRunning());
+    }
+}
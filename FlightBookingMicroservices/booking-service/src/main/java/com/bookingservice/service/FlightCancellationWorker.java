@@ -0,0 +1,136 @@
+package com.bookingservice.service;
+
+import com.bookingservice.config.CacheConfig;
+import com.bookingservice.event.BookingEventDto;
+import com.bookingservice.kafka.BookingEventPublisher;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.BookingSummary;
+import com.bookingservice.repository.PassengerRepository;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executes a flight cancellation in the background, one chunk at a time.
+ *
+ * Each chunk is its own transaction on the shard that owns the flight: read the next chunk of active
+ * bookings (id keyset, projection only), cancel them and release their seats with one UPDATE each,
+ * commit, then mirror them to the flight's target shard while resharding, evict their cached tickets
+ * and publish one BOOKING_CANCELLED event per booking as a flushed batch. Only one chunk is held in
+ * memory at a time. Once done, the flight is dropped from SeatClaimRegistry.
+ */
+@Component
+public class FlightCancellationWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightCancellationWorker.class);
+
+    private final BookingRepository bookingRepository;
+    private final PassengerRepository passengerRepository;
+    private final BookingEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final ShardTemplate shards;
+    private final ShardMigrator shardMigrator;
+    private final SeatClaimRegistry seatClaims;
+    private final int chunkSize;
+    private final Counter cancelledCounter;
+
+    public FlightCancellationWorker(BookingRepository bookingRepository,
+                                    PassengerRepository passengerRepository,
+                                    BookingEventPublisher eventPublisher,
+                                    CacheManager cacheManager,
+                                    ShardTemplate shards,
+                                    ShardMigrator shardMigrator,
+                                    SeatClaimRegistry seatClaims,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${booking.flight-cancellation.chunk-size:500}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.passengerRepository = passengerRepository;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.shards = shards;
+        this.shardMigrator = shardMigrator;
+        this.seatClaims = seatClaims;
+        this.chunkSize = chunkSize;
+        this.cancelledCounter = Counter.builder("booking.flight.cancellation.bookings")
+                .description("Bookings cancelled by flight cancellation jobs")
+                .register(meterRegistry);
+    }
+
+    @Async
+    public void run(FlightCancellationJob job) {
+        log.info("Flight cancellation started: jobId={} flightId={}", job.getJobId(), job.getFlightId());
+        try {
+            int shard = shards.router().shardForFlight(job.getFlightId());
+            long afterId = 0L;
+            while (true) {
+                final long cursor = afterId;
+                List<BookingSummary> chunk = shards.inShard(shard, false, () -> cancelChunk(job.getFlightId(), cursor));
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                afterCommit(job, chunk);
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+            seatClaims.forget(job.getFlightId());
+            job.complete();
+            log.info("Flight cancellation completed: jobId={} flightId={} cancelled={}",
+                    job.getJobId(), job.getFlightId(), job.toStatus().getCancelledBookings());
+        } catch (RuntimeException ex) {
+            log.error("Flight cancellation failed: jobId={} flightId={}", job.getJobId(), job.getFlightId(), ex);
+            job.fail(ex.toString());
+        }
+    }
+
+    private List<BookingSummary> cancelChunk(Long flightId, long afterId) {
+        List<BookingSummary> chunk = bookingRepository.findActiveByFlightAfter(flightId, afterId, PageRequest.of(0, chunkSize));
+        if (!chunk.isEmpty()) {
+            List<Long> ids = chunk.stream().map(BookingSummary::getId).toList();
+            bookingRepository.cancelActiveByIds(ids, Instant.now());
+            passengerRepository.releaseSeatsByBookingIds(ids);
+        }
+        return chunk;
+    }
+
+    private void afterCommit(FlightCancellationJob job, List<BookingSummary> chunk) {
+        shardMigrator.mirror(job.getFlightId(), chunk.stream().map(BookingSummary::getId).toList());
+
+        Cache tickets = cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR);
+        List<BookingEventDto> events = new ArrayList<>(chunk.size());
+        for (BookingSummary b : chunk) {
+            if (tickets != null) {
+                tickets.evict(b.getPnr());
+            }
+            events.add(toCancelledEvent(job.getFlightId(), b));
+        }
+        eventPublisher.publishBookingEvents(events);
+
+        cancelledCounter.increment(chunk.size());
+        job.chunkDone(chunk.size(), events.size());
+        log.debug("Flight cancellation progress: jobId={} cancelled={}", job.getJobId(), job.toStatus().getCancelledBookings());
+    }
+
+    private static BookingEventDto toCancelledEvent(Long flightId, BookingSummary b) {
+        BookingEventDto event = new BookingEventDto();
+        event.setEventType("BOOKING_CANCELLED");
+        event.setPnr(b.getPnr());
+        event.setFlightId(flightId);
+        event.setUserEmail(b.getUserEmail());
+        event.setNumSeats(b.getNumSeats());
+        event.setCreatedAt(b.getCreatedAt());
+        return event;
+    }
+}
@@ -0,0 +1,319 @@
+package com.bookingservice.service;
+
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.config.CacheConfig;
+import com.bookingservice.event.BookingEventDto;
+import com.bookingservice.kafka.BookingEventPublisher;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.Passenger;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.PassengerRepository;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardTemplate;
+import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Degraded mode for createBooking (booking.degraded.enabled): while the flightClient circuit is open,
+ * BookingService stores the booking as PENDING on its shard instead of answering 503, with its seats
+ * claimed and the price still unknown. The bookings table is the queue, so it survives restarts.
+ *
+ * The drain runs on a schedule, only while the circuit is CLOSED. It takes pending bookings oldest
+ * first, at most drain.rate-per-second. Each one is checked against flight-service through the same
+ * circuit breaker. A booking is confirmed (ACTIVE, priced) when the flight exists and has enough
+ * available seats. It is rejected (REJECTED, seats released) when the flight is unknown, is full, or
+ * the booking has waited longer than max-pending-age. The outcome is published as a
+ * BOOKING_CONFIRMED / BOOKING_REJECTED event, which is what notifies the user. A flight-service
+ * failure ends the drain run and leaves the booking PENDING for the next one. Each transition is a
+ * conditional UPDATE, so a booking cancelled meanwhile, or drained by another instance, is skipped.
+ */
+@Component
+public class PendingBookingQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingBookingQueue.class);
+
+    static final String CIRCUIT = "flightClient";
+
+    private final BookingRepository bookingRepository;
+    private final PassengerRepository passengerRepository;
+    private final FlightClient flightClient;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BookingEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final ShardTemplate shards;
+    private final ShardMigrator shardMigrator;
+    private final SeatClaimRegistry seatClaims;
+    private final boolean enabled;
+    private final int ratePerSecond;
+    private final int batchSize;
+    private final Duration maxPendingAge;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong depth = new AtomicLong();
+    private final Counter enqueuedCounter;
+    private final Counter confirmedCounter;
+    private final Counter rejectedCounter;
+
+    public PendingBookingQueue(BookingRepository bookingRepository,
+                               PassengerRepository passengerRepository,
+                               FlightClient flightClient,
+                               CircuitBreakerRegistry circuitBreakers,
+                               BookingEventPublisher eventPublisher,
+                               CacheManager cacheManager,
+                               ShardTemplate shards,
+                               ShardMigrator shardMigrator,
+                               SeatClaimRegistry seatClaims,
+                               MeterRegistry meterRegistry,
+                               @Value("${booking.degraded.enabled:false}") boolean enabled,
+                               @Value("${booking.degraded.drain.rate-per-second:20}") int ratePerSecond,
+                               @Value("${booking.degraded.drain.batch-size:100}") int batchSize,
+                               @Value("${booking.degraded.max-pending-age:30m}") Duration maxPendingAge) {
+        this.bookingRepository = bookingRepository;
+        this.passengerRepository = passengerRepository;
+        this.flightClient = flightClient;
+        this.circuitBreakers = circuitBreakers;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.shards = shards;
+        this.shardMigrator = shardMigrator;
+        this.seatClaims = seatClaims;
+        this.enabled = enabled;
+        this.ratePerSecond = ratePerSecond;
+        this.batchSize = batchSize;
+        this.maxPendingAge = maxPendingAge;
+
+        Gauge.builder("booking.pending.depth", depth, AtomicLong::get)
+                .description("Bookings waiting in PENDING for flight-service (refreshed every drain run)")
+                .register(meterRegistry);
+        this.enqueuedCounter = Counter.builder("booking.pending.enqueued")
+                .description("Bookings accepted as PENDING while the flight circuit was open")
+                .register(meterRegistry);
+        this.confirmedCounter = Counter.builder("booking.pending.drained")
+                .description("Pending bookings drained, by outcome")
+                .tag("outcome", "confirmed")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("booking.pending.drained")
+                .description("Pending bookings drained, by outcome")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Called by BookingService after it stored a PENDING booking. */
+    public void enqueued() {
+        enqueuedCounter.increment();
+        depth.incrementAndGet();
+    }
+
+    // @Scheduled parses ISO-8601 durations only (PT5S, not 5s)
+    @Scheduled(fixedDelayString = "${booking.degraded.drain.interval:PT5S}")
+    public void drain() {
+        if (!enabled || !draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            drainOnce();
+        } catch (RuntimeException ex) {
+            log.error("Pending booking drain failed", ex);
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    /** One drain run over every shard; returns the number of bookings confirmed or rejected. */
+    int drainOnce() {
+        depth.set(shards.onAllShards(true, shard -> bookingRepository.countByStatus("PENDING"))
+                .stream().mapToLong(Long::longValue).sum());
+        CircuitBreaker circuit = circuitBreakers.circuitBreaker(CIRCUIT);
+        if (depth.get() == 0 || circuit.getState() != CircuitBreaker.State.CLOSED) {
+            return 0;
+        }
+
+        long startNanos = System.nanoTime();
+        int drained = 0;
+        for (int shard = 0; shard < shards.router().shardCount(); shard++) {
+            final int s = shard;
+            List<Long> ids = shards.inShard(s, true, () -> bookingRepository.findPendingIds(PageRequest.of(0, batchSize)));
+            for (Long id : Optional.ofNullable(ids).orElse(Collections.emptyList())) {
+                if (!throttle(startNanos, drained)) {
+                    return drained;
+                }
+                Outcome outcome = drainOne(circuit, s, id);
+                if (outcome == Outcome.RETRY_LATER) {
+                    log.info("Pending booking drain paused: flight-service unavailable again (drained={})", drained);
+                    return drained;
+                }
+                if (outcome != Outcome.SKIPPED) {
+                    drained++;
+                    depth.decrementAndGet();
+                }
+            }
+        }
+        if (drained > 0) {
+            log.info("Pending booking drain run: drained={} remaining={}", drained, depth.get());
+        }
+        return drained;
+    }
+
+    private Outcome drainOne(CircuitBreaker circuit, int shard, Long id) {
+        Booking booking = shards.inShard(shard, true, () -> bookingRepository.findById(id)
+                .filter(b -> "PENDING".equals(b.getStatus()))
+                .map(PendingBookingQueue::withPassengers)
+                .orElse(null));
+        if (booking == null) {
+            return Outcome.SKIPPED;
+        }
+        if (booking.getCreatedAt().isBefore(Instant.now().minus(maxPendingAge))) {
+            return reject(shard, booking, "expired after " + maxPendingAge);
+        }
+
+        FlightDto flight;
+        try {
+            flight = circuit.executeSupplier(() -> lookupFlight(booking.getFlightId()));
+        } catch (ResponseStatusException ex) {
+            if (ex.getStatusCode().is4xxClientError()) {
+                return reject(shard, booking, ex.getReason());
+            }
+            return Outcome.RETRY_LATER;
+        } catch (RuntimeException ex) {
+            log.debug("Pending booking {} not drained: {}", booking.getPnr(), ex.toString());
+            return Outcome.RETRY_LATER;
+        }
+        if (flight == null) {
+            return reject(shard, booking, "flight not found");
+        }
+        long available = BookingService.countAvailableSeats(flight);
+        if (available < booking.getNumSeats()) {
+            return reject(shard, booking, "not enough seats: requested=" + booking.getNumSeats() + ", available=" + available);
+        }
+        return confirm(shard, booking, (flight.getPrice() == null ? 0.0 : flight.getPrice()) * booking.getNumSeats());
+    }
+
+    private FlightDto lookupFlight(Long flightId) {
+        try {
+            return flightClient.getFlightById(flightId);
+        } catch (FeignException.NotFound ex) {
+            return null;
+        }
+    }
+
+    private Outcome confirm(int shard, Booking booking, double totalPrice) {
+        Integer updated = shards.inShard(shard, false, () -> bookingRepository.confirmPending(booking.getId(), totalPrice));
+        if (updated == null || updated == 0) {
+            return Outcome.SKIPPED;
+        }
+        afterCommit(booking, "BOOKING_CONFIRMED");
+        confirmedCounter.increment();
+        log.info("Pending booking confirmed: pnr={} flightId={} user={}", booking.getPnr(), booking.getFlightId(), booking.getUserEmail());
+        return Outcome.CONFIRMED;
+    }
+
+    private Outcome reject(int shard, Booking booking, String reason) {
+        Integer updated = shards.inShard(shard, false, () -> {
+            int n = bookingRepository.rejectPending(booking.getId(), Instant.now());
+            if (n > 0) {
+                passengerRepository.releaseSeatsByBookingIds(List.of(booking.getId()));
+            }
+            return n;
+        });
+        if (updated == null || updated == 0) {
+            return Outcome.SKIPPED;
+        }
+        seatClaims.release(booking.getFlightId(), booking.getPassengers().stream()
+                .filter(p -> Boolean.TRUE.equals(p.getSeatClaim()))
+                .map(Passenger::getSeatNumber)
+                .toList());
+        afterCommit(booking, "BOOKING_REJECTED");
+        rejectedCounter.increment();
+        log.info("Pending booking rejected: pnr={} flightId={} user={} reason={}",
+                booking.getPnr(), booking.getFlightId(), booking.getUserEmail(), reason);
+        return Outcome.REJECTED;
+    }
+
+    private void afterCommit(Booking booking, String eventType) {
+        shardMigrator.mirror(booking.getFlightId(), Collections.singletonList(booking.getId()));
+        Cache tickets = cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR);
+        if (tickets != null) {
+            tickets.evict(booking.getPnr());
+        }
+        eventPublisher.publishBookingEvent(toEvent(booking, eventType));
+    }
+
+    private static BookingEventDto toEvent(Booking booking, String eventType) {
+        BookingEventDto event = new BookingEventDto();
+        event.setEventType(eventType);
+        event.setPnr(booking.getPnr());
+        event.setFlightId(booking.getFlightId());
+        event.setUserEmail(booking.getUserEmail());
+        event.setNumSeats(booking.getNumSeats());
+        event.setCreatedAt(booking.getCreatedAt());
+        event.setPassengers(booking.getPassengers().stream().map(p -> {
+            BookingEventDto.PassengerInfo info = new BookingEventDto.PassengerInfo();
+            info.setName(p.getPassengerName());
+            info.setGender(p.getGender());
+            info.setAge(p.getAge());
+            info.setSeatNumber(p.getSeatNumber());
+            info.setMealPreference(p.getMealPreference());
+            return info;
+        }).toList());
+        return event;
+    }
+
+    /** Load the lazy passenger list while the shard transaction is still open. */
+    private static Booking withPassengers(Booking booking) {
+        if (booking.getPassengers() == null) {
+            booking.setPassengers(List.of());
+        }
+        booking.getPassengers().size();
+        return booking;
+    }
+
+    /** Sleep until the run is back under rate-per-second; false if interrupted. */
+    private boolean throttle(long startNanos, int drained) {
+        if (ratePerSecond <= 0) {
+            return true;
+        }
+        long aheadNanos = TimeUnit.SECONDS.toNanos(drained) / ratePerSecond - (System.nanoTime() - startNanos);
+        if (aheadNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private enum Outcome {
+        CONFIRMED, REJECTED, SKIPPED, RETRY_LATER
+    }
+}
@@ -0,0 +1,56 @@
+package com.bookingservice.shard;
+
+import com.bookingservice.dto.ShardBackfillStatus;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory progress of one backfill run. Updated by ShardMigrator, read concurrently by the status endpoint.
+ */
+class ShardBackfillJob {
+
+    private final String jobId;
+    private final int currentShards;
+    private final int targetShards;
+    private final Instant startedAt = Instant.now();
+
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong copied = new AtomicLong();
+    private volatile String state = "RUNNING";
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ShardBackfillJob(String jobId, int currentShards, int targetShards) {
+        this.jobId = jobId;
+        this.currentShards = currentShards;
+        this.targetShards = targetShards;
+    }
+
+    String getJobId() { return jobId; }
+
+    boolean isRunning() {
+        return "RUNNING".equals(state);
+    }
+
+    void chunkDone(int scannedInChunk, int copiedInChunk) {
+        scanned.addAndGet(scannedInChunk);
+        copied.addAndGet(copiedInChunk);
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        state = "COMPLETED";
+    }
+
+    void fail(String message) {
+        error = message;
+        finishedAt = Instant.now();
+        state = "FAILED";
+    }
+
+    ShardBackfillStatus toStatus() {
+        return new ShardBackfillStatus(jobId, state, currentShards, targetShards,
+                scanned.get(), copied.get(), startedAt, finishedAt, error);
+    }
+}
@@ -0,0 +1,52 @@
+package com.bookingservice.shard;
+
+import com.bookingservice.dto.ShardBackfillStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Starts the resharding backfill (one run at a time) and reports its progress.
+ */
+@Service
+public class ShardBackfillService {
+
+    private final ShardRouter router;
+    private final ShardMigrator migrator;
+    private final AtomicReference<ShardBackfillJob> lastJob = new AtomicReference<>();
+
+    public ShardBackfillService(ShardRouter router, ShardMigrator migrator) {
+        this.router = router;
+        this.migrator = migrator;
+    }
+
+    public ShardBackfillStatus startBackfill() {
+        if (!router.isMigrating()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "No reshard in progress: set booking.sharding.migration.enabled first");
+        }
+        ShardBackfillJob previous = lastJob.get();
+        if (previous != null && previous.isRunning()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Backfill already running: " + previous.getJobId());
+        }
+
+        ShardBackfillJob job = new ShardBackfillJob(UUID.randomUUID().toString(),
+                router.shardCount(), router.targetShardCount());
+        if (!lastJob.compareAndSet(previous, job)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Backfill already running");
+        }
+        migrator.backfill(job);
+        return job.toStatus();
+    }
+
+    public ShardBackfillStatus getStatus() {
+        ShardBackfillJob job = lastJob.get();
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No backfill has been started");
+        }
+        return job.toStatus();
+    }
+}
@@ -0,0 +1,35 @@
+package com.bookingservice.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread talks to. Read by {@link ShardRoutingDataSource} when a physical
+ * connection is fetched; code outside any shard scope uses {@link ShardRouter#HOME_SHARD}.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? ShardRouter.HOME_SHARD : shard;
+    }
+
+    /** Run work against the given shard, restoring the previous shard afterwards. */
+    public static <T> T callOn(int shard, Supplier<T> work) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
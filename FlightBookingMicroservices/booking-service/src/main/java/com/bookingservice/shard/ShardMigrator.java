@@ -0,0 +1,181 @@
+package com.bookingservice.shard;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.stream.Collectors;
+
+/**
+ * Moves bookings between shards while resharding (booking.sharding.migration.enabled).
+ *
+ * Dual-write: after every committed write on the owner shard, {@link #mirror} copies the affected
+ * bookings to the flight's owner under the target ring. Backfill: {@link #backfill} walks every
+ * current shard by id keyset, live and archived bookings alike, and copies the bookings whose owner
+ * changes. A copy replaces the booking, its passengers and its saga row on the target with the source
+ * rows, in the live and the archive tables, ids included (ids are globally unique, see ShardSequenceSeeder), so
+ * repeating a copy is harmless and a booking archived on the source disappears from the target's live
+ * tables. A backfill copy racing a dual
+ * write of the same booking can leave the older state on the target, so a second backfill run right
+ * before the cut-over is cheap insurance.
+ *
+ * Rows are copied column for column with plain JDBC, so the schema must be identical on all shards.
+ */
+@Component
+public class ShardMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardMigrator.class);
+
+    private final ShardTemplate shards;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final int chunkSize;
+    private final Counter mirrored;
+    private final Counter mirrorFailures;
+    private final Counter backfilled;
+
+    public ShardMigrator(ShardTemplate shards,
+                         DataSource dataSource,
+                         MeterRegistry meterRegistry,
+                         @Value("${booking.sharding.migration.chunk-size:500}") int chunkSize) {
+        this.shards = shards;
+        this.jdbc = new NamedParameterJdbcTemplate(dataSource);
+        this.chunkSize = chunkSize;
+        this.mirrored = Counter.builder("booking.sharding.copied")
+                .description("Bookings copied to their target shard while resharding")
+                .tag("source", "dual_write")
+                .register(meterRegistry);
+        this.backfilled = Counter.builder("booking.sharding.copied")
+                .description("Bookings copied to their target shard while resharding")
+                .tag("source", "backfill")
+                .register(meterRegistry);
+        this.mirrorFailures = Counter.builder("booking.sharding.dual_write.failures")
+                .description("Dual writes that failed and are left to the backfill")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Copy freshly written bookings of a flight to its target shard; a no-op unless migrating and the
+     * flight moves. Runs after the owner shard committed: a failure is logged and counted, not thrown,
+     * and the next backfill run repairs the copy.
+     */
+    public void mirror(Long flightId, Collection<Long> bookingIds) {
+        OptionalInt target = shards.router().migrationTargetForFlight(flightId);
+        if (target.isEmpty() || bookingIds.isEmpty()) {
+            return;
+        }
+        int source = shards.router().shardForFlight(flightId);
+        try {
+            copy(source, target.getAsInt(), bookingIds);
+            mirrored.increment(bookingIds.size());
+        } catch (RuntimeException ex) {
+            mirrorFailures.increment();
+            log.error("Dual write of {} bookings for flightId={} to shard {} failed; rerun the backfill",
+                    bookingIds.size(), flightId, target.getAsInt(), ex);
+        }
+    }
+
+    @Async
+    public void backfill(ShardBackfillJob job) {
+        log.info("Shard backfill started: jobId={}", job.getJobId());
+        try {
+            for (int shard = 0; shard < shards.router().shardCount(); shard++) {
+                backfillShard(job, shard, "bookings");
+                backfillShard(job, shard, "bookings_archive");
+            }
+            job.complete();
+            log.info("Shard backfill completed: jobId={} copied={}", job.getJobId(), job.toStatus().getCopiedBookings());
+        } catch (RuntimeException ex) {
+            log.error("Shard backfill failed: jobId={}", job.getJobId(), ex);
+            job.fail(ex.toString());
+        }
+    }
+
+    private void backfillShard(ShardBackfillJob job, int source, String table) {
+        ShardRouter router = shards.router();
+        long afterId = 0L;
+        while (true) {
+            final long cursor = afterId;
+            List<Map<String, Object>> chunk = shards.inShard(source, true, () -> jdbc.queryForList(
+                    "select id, flight_id from " + table + " where id > :afterId order by id limit :limit",
+                    new MapSqlParameterSource("afterId", cursor).addValue("limit", chunkSize)));
+            if (chunk.isEmpty()) {
+                return;
+            }
+
+            // only the current owner's rows are authoritative; stale copies elsewhere are skipped
+            Map<Integer, List<Long>> byTarget = new LinkedHashMap<>();
+            for (Map<String, Object> row : chunk) {
+                Long flightId = ((Number) row.get("flight_id")).longValue();
+                if (router.shardForFlight(flightId) != source) {
+                    continue;
+                }
+                router.migrationTargetForFlight(flightId).ifPresent(target -> byTarget
+                        .computeIfAbsent(target, k -> new ArrayList<>())
+                        .add(((Number) row.get("id")).longValue()));
+            }
+
+            int copied = 0;
+            for (Map.Entry<Integer, List<Long>> entry : byTarget.entrySet()) {
+                copy(source, entry.getKey(), entry.getValue());
+                copied += entry.getValue().size();
+            }
+            backfilled.increment(copied);
+            job.chunkDone(chunk.size(), copied);
+            afterId = ((Number) chunk.get(chunk.size() - 1).get("id")).longValue();
+        }
+    }
+
+    /**
+     * Replace the given bookings (with their passengers and saga rows) on target with the rows currently
+     * on source, live and archived.
+     */
+    void copy(int source, int target, Collection<Long> bookingIds) {
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", bookingIds);
+        List<List<Map<String, Object>>> rows = shards.inShard(source, true, () -> List.of(
+                jdbc.queryForList("select * from bookings where id in (:ids)", ids),
+                jdbc.queryForList("select * from passengers where booking_id in (:ids)", ids),
+                jdbc.queryForList("select * from bookings_archive where id in (:ids)", ids),
+                jdbc.queryForList("select * from passengers_archive where booking_id in (:ids)", ids),
+                jdbc.queryForList("select * from booking_sagas where booking_id in (:ids)", ids)));
+
+        shards.inShard(target, false, () -> {
+            jdbc.update("delete from passengers where booking_id in (:ids)", ids);
+            jdbc.update("delete from bookings where id in (:ids)", ids);
+            jdbc.update("delete from passengers_archive where booking_id in (:ids)", ids);
+            jdbc.update("delete from bookings_archive where id in (:ids)", ids);
+            jdbc.update("delete from booking_sagas where booking_id in (:ids)", ids);
+            insertAll("bookings", rows.get(0));
+            insertAll("passengers", rows.get(1));
+            insertAll("bookings_archive", rows.get(2));
+            insertAll("passengers_archive", rows.get(3));
+            insertAll("booking_sagas", rows.get(4));
+            return null;
+        });
+        log.debug("Copied {} bookings from shard {} to shard {}", rows.get(0).size(), source, target);
+    }
+
+    private void insertAll(String table, List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Collection<String> columns = rows.get(0).keySet();
+        String sql = "insert into " + table + " (" + String.join(", ", columns) + ") values ("
+                + columns.stream().map(c -> ":" + c).collect(Collectors.joining(", ")) + ")";
+        SqlParameterSource[] batch = rows.stream().map(MapSqlParameterSource::new).toArray(SqlParameterSource[]::new);
+        jdbc.batchUpdate(sql, batch);
+    }
+}
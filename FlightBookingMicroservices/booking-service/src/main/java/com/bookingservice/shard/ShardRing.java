@@ -0,0 +1,66 @@
+package com.bookingservice.shard;
+
+import java.util.Arrays;
+
+/**
+ * Consistent-hash ring over shards 0..n-1, each placed at virtualNodes points.
+ *
+ * A shard's points depend only on its index, so growing the ring from n to n+1 shards only moves the
+ * keys that now land on the new shard's points (about 1/(n+1) of them); nothing moves between the
+ * existing shards. Lookup is a binary search over the sorted points.
+ */
+public final class ShardRing {
+
+    private final int shardCount;
+    private final long[] points;
+    private final int[] owners;
+
+    public ShardRing(int shardCount, int virtualNodes) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be > 0");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be > 0");
+        }
+        this.shardCount = shardCount;
+
+        int size = shardCount * virtualNodes;
+        long[][] entries = new long[size][];
+        for (int shard = 0, i = 0; shard < shardCount; shard++) {
+            for (int v = 0; v < virtualNodes; v++, i++) {
+                entries[i] = new long[] {mix(((long) shard << 32) | v), shard};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    /** Owner of the first point at or after the key's hash, wrapping around the ring. */
+    public int shardFor(long key) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        int i = Arrays.binarySearch(points, mix(key));
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    /** SplitMix64 finalizer: spreads sequential ids evenly over the ring. */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
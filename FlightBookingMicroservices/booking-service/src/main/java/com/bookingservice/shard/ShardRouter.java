@@ -0,0 +1,63 @@
+package com.bookingservice.shard;
+
+import java.util.OptionalInt;
+
+/**
+ * Maps a flight to the shard that owns its bookings (consistent hash of flightId).
+ *
+ * During a reshard the router also carries the target ring: writes still go to the current owner and
+ * are mirrored to the owner under the target ring (dual-write), reads only trust the current owner.
+ */
+public class ShardRouter {
+
+    /** Shard used outside any shard scope: PNR blocks and schema bootstrap live here. */
+    public static final int HOME_SHARD = 0;
+
+    private final ShardRing current;
+    private final ShardRing target;
+
+    public ShardRouter(int shardCount, int virtualNodes, int targetShardCount) {
+        this.current = new ShardRing(shardCount, virtualNodes);
+        this.target = targetShardCount > 0 ? new ShardRing(targetShardCount, virtualNodes) : null;
+    }
+
+    /** Router for an unsharded deployment: everything lives on the home shard. */
+    public static ShardRouter single() {
+        return new ShardRouter(1, 1, 0);
+    }
+
+    public int shardCount() {
+        return current.shardCount();
+    }
+
+    /** Shards in the target ring; the current count when not migrating. */
+    public int targetShardCount() {
+        return target == null ? current.shardCount() : target.shardCount();
+    }
+
+    public boolean isSharded() {
+        return current.shardCount() > 1 || target != null;
+    }
+
+    public boolean isMigrating() {
+        return target != null;
+    }
+
+    public int shardForFlight(Long flightId) {
+        return current.shardCount() == 1 ? HOME_SHARD : current.shardFor(flightId);
+    }
+
+    /** Shard that must also receive writes for this flight while migrating, if it differs from the owner. */
+    public OptionalInt migrationTargetForFlight(Long flightId) {
+        if (target == null) {
+            return OptionalInt.empty();
+        }
+        int to = target.shardFor(flightId);
+        return to == current.shardFor(flightId) ? OptionalInt.empty() : OptionalInt.of(to);
+    }
+
+    /** Owner of the flight under the target ring; the current owner when not migrating. */
+    public int targetShardForFlight(Long flightId) {
+        return target == null ? current.shardFor(flightId) : target.shardFor(flightId);
+    }
+}
@@ -0,0 +1,52 @@
+package com.bookingservice.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections of the shard selected by {@link ShardContext}.
+ *
+ * The shard is set by {@link ShardTemplate} around a transaction that the transaction manager
+ * already began, so like the replica routing this must sit behind a {@link LazyConnectionDataSourceProxy}
+ * (see {@link #lazy}); the physical connection is fetched at the first statement.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final List<HikariDataSource> shards;
+
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(ShardRouter.HOME_SHARD));
+        // an unknown shard index is a bug, never silently the home shard
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public static DataSource lazy(ShardRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    public List<HikariDataSource> shards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,86 @@
+package com.bookingservice.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves booking_seq and passenger_seq past every id already in use, and gives every shard a disjoint
+ * id range: shard k's sequences start at k * 2^40.
+ *
+ * Ids must be unique across shards because history pages are merged and cursored by (createdAt, id)
+ * and because resharding copies rows with their ids. They must also clear the rows written while ids
+ * were IDENTITY columns: on a database created before the switch to pooled sequences, Hibernate's
+ * sequence table starts at 1 while bookings / passengers (and their archive tables) already hold
+ * those ids. So each sequence is moved to max(base, MAX(id)) + ALLOCATION_SIZE, as the pooled
+ * optimizer hands out the block below the value it reads.
+ *
+ * Runs on every start (sharded or not) once all singletons, and so the EntityManagerFactory, exist,
+ * before the web server takes traffic; a sequence already past its target is left alone. The schema
+ * itself must already be provisioned on every shard.
+ */
+public class ShardSequenceSeeder implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardSequenceSeeder.class);
+
+    static final int RANGE_BITS = 40;
+    /** Must match allocationSize of the @SequenceGenerator on Booking and Passenger. */
+    static final int ALLOCATION_SIZE = 50;
+    /** Each sequence with the tables whose ids it must stay above. */
+    static final Map<String, List<String>> SEQUENCES = Map.of(
+            "booking_seq", List.of("bookings", "bookings_archive"),
+            "passenger_seq", List.of("passengers", "passengers_archive"));
+
+    private final List<? extends DataSource> shards;
+
+    public ShardSequenceSeeder(List<? extends DataSource> shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            long base = (long) shard << RANGE_BITS;
+            JdbcTemplate jdbc = new JdbcTemplate(shards.get(shard));
+            for (Map.Entry<String, List<String>> sequence : SEQUENCES.entrySet()) {
+                seed(shard, jdbc, sequence.getKey(), base, sequence.getValue());
+            }
+        }
+    }
+
+    private void seed(int shard, JdbcTemplate jdbc, String sequence, long base, List<String> tables) {
+        try {
+            long maxId = base;
+            for (String table : tables) {
+                Long max = jdbc.queryForObject("select max(id) from " + table, Long.class);
+                if (max != null) {
+                    maxId = Math.max(maxId, max);
+                }
+            }
+            long target = maxId + ALLOCATION_SIZE;
+            String product = JdbcUtils.extractDatabaseMetaData(jdbc.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            if ("MySQL".equalsIgnoreCase(product)) {
+                // Hibernate emulates sequences with a one-row table on MySQL
+                int updated = jdbc.update("update " + sequence + " set next_val = ? where next_val < ?", target, target);
+                log.info("Shard {} {}: {}", shard, sequence, updated > 0 ? "seeded at " + target : "already past " + target);
+                return;
+            }
+            Long next = jdbc.queryForObject("select next value for " + sequence, Long.class);
+            if (next != null && next < target) {
+                jdbc.execute("alter sequence " + sequence + " restart with " + target);
+                log.info("Shard {} {}: seeded at {}", shard, sequence, target);
+            }
+        } catch (Exception ex) {
+            throw new IllegalStateException("Cannot seed " + sequence + " on shard " + shard
+                    + "; is the schema provisioned there?", ex);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.bookingservice.shard;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Runs work in a transaction on one shard, or on every shard in parallel (scatter-gather).
+ *
+ * Each call is its own transaction (REQUIRES_NEW), so there is never a transaction spanning two
+ * shards: multi-shard writes commit shard by shard.
+ */
+@Component
+public class ShardTemplate {
+
+    private final ShardRouter router;
+    private final TransactionTemplate readWrite;
+    private final TransactionTemplate readOnly;
+
+    public ShardTemplate(ShardRouter router, PlatformTransactionManager transactionManager) {
+        this.router = router;
+        this.readWrite = new TransactionTemplate(transactionManager);
+        this.readWrite.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public ShardRouter router() {
+        return router;
+    }
+
+    public <T> T inShard(int shard, boolean readOnlyTx, Supplier<T> work) {
+        TransactionTemplate tx = readOnlyTx ? readOnly : readWrite;
+        return ShardContext.callOn(shard, () -> tx.execute(status -> work.get()));
+    }
+
+    /** work(shard) on every shard; results are in shard order. Shards are queried concurrently. */
+    public <T> List<T> onAllShards(boolean readOnlyTx, IntFunction<T> work) {
+        int count = router.shardCount();
+        if (count == 1) {
+            return Collections.singletonList(inShard(ShardRouter.HOME_SHARD, readOnlyTx, () -> work.apply(ShardRouter.HOME_SHARD)));
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<T>> futures = new ArrayList<>(count);
+            for (int shard = 0; shard < count; shard++) {
+                final int s = shard;
+                futures.add(executor.submit(() -> inShard(s, readOnlyTx, () -> work.apply(s))));
+            }
+            List<T> results = new ArrayList<>(count);
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
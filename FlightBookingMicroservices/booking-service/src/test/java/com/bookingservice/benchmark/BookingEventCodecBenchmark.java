@@ -0,0 +1,126 @@
+package com.bookingservice.benchmark;
+
+import com.bookingservice.event.BinaryBookingEventCodec;
+import com.bookingservice.event.BookingEventDto;
+import com.bookingservice.kafka.BookingEventDeserializer;
+import com.bookingservice.kafka.BookingEventSerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of a booking event: Spring JsonSerializer/JsonDeserializer (with type headers,
+ * the previous wire format) vs the binary codec. Run with the GC profiler for allocation per op;
+ * payload sizes are printed before the run.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.bookingservice.benchmark.BookingEventCodecBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingEventCodecBenchmark {
+
+    private static final String TOPIC = "booking-events";
+
+    @Param({"1", "6"})
+    public int passengers;
+
+    private BookingEventDto event;
+    private JsonSerializer<BookingEventDto> jsonSerializer;
+    private JsonDeserializer<BookingEventDto> jsonDeserializer;
+    private BookingEventSerializer binarySerializer;
+    private BookingEventDeserializer binaryDeserializer;
+    private byte[] jsonBytes;
+    private RecordHeaders jsonHeaders;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setUp() {
+        event = sampleEvent(passengers);
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>(BookingEventDto.class);
+        jsonDeserializer.addTrustedPackages("com.bookingservice.event");
+        binarySerializer = new BookingEventSerializer();
+        binaryDeserializer = new BookingEventDeserializer();
+
+        jsonHeaders = new RecordHeaders();
+        jsonBytes = jsonSerializer.serialize(TOPIC, jsonHeaders, event);
+        binaryBytes = binarySerializer.serialize(TOPIC, event);
+    }
+
+    static BookingEventDto sampleEvent(int passengerCount) {
+        BookingEventDto e = new BookingEventDto();
+        e.setPnr("K7QMZ4");
+        e.setFlightId(1042L);
+        e.setUserEmail("traveller.one@example.com");
+        e.setNumSeats(passengerCount);
+        e.setCreatedAt(Instant.parse("2025-03-14T09:26:53.589793Z"));
+        e.setEventType("BOOKING_CREATED");
+        List<BookingEventDto.PassengerInfo> list = new ArrayList<>();
+        for (int i = 0; i < passengerCount; i++) {
+            BookingEventDto.PassengerInfo p = new BookingEventDto.PassengerInfo();
+            p.setName("Passenger Number " + i);
+            p.setGender(i % 2 == 0 ? "FEMALE" : "MALE");
+            p.setAge(20 + i);
+            p.setSeatNumber("1" + i + "C");
+            p.setMealPreference("VEG");
+            list.add(p);
+        }
+        e.setPassengers(list);
+        return e;
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public BookingEventDto jsonDecode() {
+        return jsonDeserializer.deserialize(TOPIC, jsonHeaders, jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binarySerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public BookingEventDto binaryDecode() {
+        return binaryDeserializer.deserialize(TOPIC, binaryBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int n : new int[]{1, 6}) {
+            BookingEventDto e = sampleEvent(n);
+            RecordHeaders headers = new RecordHeaders();
+            int json = new JsonSerializer<BookingEventDto>().serialize(TOPIC, headers, e).length;
+            int headerBytes = 0;
+            for (var h : headers) {
+                headerBytes += h.key().length() + h.value().length;
+            }
+            int binary = new BinaryBookingEventCodec().encode(e).length;
+            System.out.printf("passengers=%d json=%dB (+%dB type headers) binary=%dB%n", n, json, headerBytes, binary);
+        }
+        Options opts = new OptionsBuilder()
+                .include(BookingEventCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opts).run();
+    }
+}
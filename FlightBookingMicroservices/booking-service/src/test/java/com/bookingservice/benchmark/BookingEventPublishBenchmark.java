@@ -0,0 +1,96 @@
+package com.bookingservice.benchmark;
+
+import com.bookingservice.config.KafkaConfig;
+import com.bookingservice.config.KafkaProducerTuning;
+import com.bookingservice.event.BookingEventDto;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaZKBroker;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer throughput / ack latency for booking-events against an embedded broker, for a matrix of
+ * linger.ms, batch.size and compression settings.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.bookingservice.benchmark.BookingEventPublishBenchmark
+ *      (-Dbench.events=100000 -Dbench.partitions=12 to change the workload)
+ */
+public class BookingEventPublishBenchmark {
+
+    private static final int EVENTS = Integer.getInteger("bench.events", 50_000);
+    private static final int PARTITIONS = Integer.getInteger("bench.partitions", 12);
+    private static final int FLIGHTS = 200;
+
+    public static void main(String[] args) throws Exception {
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaZKBroker(1, true, PARTITIONS, KafkaConfig.TOPIC_BOOKING_EVENTS);
+        broker.afterPropertiesSet();
+        try {
+            List<KafkaProducerTuning> matrix = new ArrayList<>();
+            for (int linger : new int[]{0, 5, 20}) {
+                for (int batch : new int[]{16_384, 65_536, 262_144}) {
+                    for (String compression : new String[]{"none", "lz4"}) {
+                        matrix.add(new KafkaProducerTuning(linger, batch, compression, "all"));
+                    }
+                }
+            }
+
+            System.out.printf("%-8s %-8s %-6s %12s %10s %10s%n", "linger", "batch", "codec", "events/s", "p50 ms", "p99 ms");
+            for (KafkaProducerTuning tuning : matrix) {
+                run(broker.getBrokersAsString(), tuning); // warm-up
+                Result r = run(broker.getBrokersAsString(), tuning);
+                System.out.printf("%-8d %-8d %-6s %12.0f %10.2f %10.2f%n", tuning.lingerMs(), tuning.batchSize(),
+                        tuning.compressionType(), r.throughput, r.p50Millis, r.p99Millis);
+            }
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis) {}
+
+    private static Result run(String brokers, KafkaProducerTuning tuning) throws Exception {
+        DefaultKafkaProducerFactory<String, BookingEventDto> pf =
+                new DefaultKafkaProducerFactory<>(KafkaConfig.producerProps(brokers, tuning, "binary"));
+        KafkaTemplate<String, BookingEventDto> template = new KafkaTemplate<>(pf);
+        long[] latencies = new long[EVENTS];
+        List<CompletableFuture<?>> futures = new ArrayList<>(EVENTS);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                BookingEventDto event = sampleEvent(i);
+                final int idx = i;
+                long sentAt = System.nanoTime();
+                futures.add(template.send(KafkaConfig.TOPIC_BOOKING_EVENTS, String.valueOf(event.getFlightId()), event)
+                        .whenComplete((res, ex) -> latencies[idx] = System.nanoTime() - sentAt));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(2, TimeUnit.MINUTES);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            return new Result(EVENTS / (elapsed / 1e9),
+                    latencies[EVENTS / 2] / 1e6,
+                    latencies[(int) (EVENTS * 0.99)] / 1e6);
+        } finally {
+            pf.destroy();
+        }
+    }
+
+    private static BookingEventDto sampleEvent(int i) {
+        BookingEventDto event = new BookingEventDto();
+        event.setPnr(String.format("P%07d", i));
+        event.setFlightId((long) (i % FLIGHTS));
+        event.setUserEmail("user" + i + "@example.com");
+        event.setNumSeats(1 + i % 4);
+        event.setCreatedAt(Instant.now());
+        event.setEventType("BOOKING_CREATED");
+        return event;
+    }
+}
@@ -0,0 +1,186 @@
+package com.bookingservice.benchmark;
+
+import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.dto.BookingRequest;
+import com.bookingservice.dto.BookingResponseDto;
+import com.bookingservice.dto.PersonDto;
+import com.bookingservice.dto.SeatDto;
+import com.bookingservice.model.Booking;
+import com.bookingservice.pnr.PnrGenerator;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.service.BookingService;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CPU and allocation cost of the in-memory parts of a booking request, for 1/3/6/9-passenger bookings,
+ * measured through BookingService's public API with I/O stubbed out: createBooking (validation,
+ * availability check, entity building with PNR generation, seat claim, conversion), getByPnr (lookup
+ * and conversion) and Jackson serialization of the response with the ObjectMapper configuration
+ * Spring MVC uses.
+ *
+ * Flight-service answers from memory, the repository is a proxy that returns what it is given, and
+ * transactions are no-ops; the proxy's per-call argument array is the only allocation they add.
+ * Runs with the GC profiler: compare gc.alloc.rate.norm (bytes/op) between releases.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.bookingservice.benchmark.BookingServiceBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingServiceBenchmark {
+
+    private static final long FLIGHT_ID = 1042L;
+    private static final String EMAIL = "traveller.one@example.com";
+    private static final String[] NAMES = {"Aarav Sharma", "Meera Iyer", "John Smith", "Li Wei", "Fatima Khan",
+            "Carlos Diaz", "Anna Kowalska", "Kenji Sato", "Priya Nair"};
+    private static final String[] MEALS = {"VEG", "NON_VEG", null, "VEGAN"};
+
+    @Param({"1", "3", "6", "9"})
+    public int passengers;
+
+    private BookingService bookingService;
+    private SeatClaimRegistry seatClaims;
+    private ObjectMapper objectMapper;
+    private BookingRequest request;
+    private List<String> seats;
+    private String pnr;
+    private BookingResponseDto response;
+
+    @Setup
+    public void setUp() {
+        AtomicLong blocks = new AtomicLong();
+        // stays inside the 25-bit sequence space (a multiple of the block size) so long runs never exhaust it
+        PnrGenerator pnrGenerator = new PnrGenerator((nodeId, size) -> blocks.getAndAdd(size) % 33_554_000L, 1, 5, 1000);
+        FlightDto flight = flight();
+        Booking[] stored = new Booking[1];
+        BookingRepository bookings = (BookingRepository) Proxy.newProxyInstance(BookingRepository.class.getClassLoader(),
+                new Class<?>[]{BookingRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> stored[0] = (Booking) args[0];
+                    case "flush" -> null;
+                    case "findByPnr" -> Optional.ofNullable(stored[0]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        ShardTemplate shards = new ShardTemplate(ShardRouter.single(), new NoOpTransactionManager());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        seatClaims = new SeatClaimRegistry(meterRegistry);
+        // no saga, no pending queue; the migrator's data source is never connected to outside a reshard
+        bookingService = new BookingService(bookings, null, null, id -> flight, CircuitBreakerRegistry.ofDefaults(), pnrGenerator, shards,
+                new ShardMigrator(shards, new DriverManagerDataSource("jdbc:h2:mem:unused"), meterRegistry, 500),
+                seatClaims, null, null, meterRegistry);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        request = sampleRequest(passengers);
+        seats = request.getPassengers().stream().map(PersonDto::getSeatNumber).toList();
+        response = bookingService.createBooking(request, EMAIL);
+        seatClaims.release(FLIGHT_ID, seats);
+        pnr = response.getPnr();
+    }
+
+    private static FlightDto flight() {
+        FlightDto flight = FlightDto.builder().id(FLIGHT_ID).price(4_250.0).build();
+        List<SeatDto> seats = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            seats.add(new SeatDto((10 + i / 6) + String.valueOf((char) ('A' + i % 6)), "AVAILABLE"));
+        }
+        flight.setSeats(seats);
+        return flight;
+    }
+
+    static BookingRequest sampleRequest(int passengerCount) {
+        List<PersonDto> people = new ArrayList<>(passengerCount);
+        for (int i = 0; i < passengerCount; i++) {
+            people.add(PersonDto.builder()
+                    .name(NAMES[i % NAMES.length])
+                    .age(18 + 7 * i)
+                    .gender(i % 2 == 0 ? "FEMALE" : "MALE")
+                    .seatNumber((10 + i / 6) + String.valueOf((char) ('A' + i % 6)))
+                    .mealPreference(MEALS[i % MEALS.length])
+                    .build());
+        }
+        return BookingRequest.builder()
+                .flightId(FLIGHT_ID)
+                .userEmail(EMAIL)
+                .numSeats(passengerCount)
+                .passengers(people)
+                .build();
+    }
+
+    @Benchmark
+    public BookingResponseDto createBooking() {
+        BookingResponseDto created = bookingService.createBooking(request, EMAIL);
+        // give the seats back so the next invocation can claim them again
+        seatClaims.release(FLIGHT_ID, seats);
+        return created;
+    }
+
+    @Benchmark
+    public BookingResponseDto getByPnr() {
+        return bookingService.getByPnr(pnr);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    /** createBooking plus serialization: the per-request in-memory work of POST /api/flight/booking/{flightId} without I/O. */
+    @Benchmark
+    public byte[] createAndSerialize() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(bookingService.createBooking(request, EMAIL));
+        seatClaims.release(FLIGHT_ID, seats);
+        return body;
+    }
+
+    /** Transactions are free here: the repository never touches a database. */
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opts = new OptionsBuilder()
+                .include(BookingServiceBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opts).run();
+    }
+}
@@ -0,0 +1,60 @@
+package com.bookingservice.benchmark;
+
+import com.bookingservice.pnr.PnrGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput of PNR generation: the previous UUID-based approach vs PnrGenerator,
+ * single-threaded and contended (4 threads).
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.bookingservice.benchmark.PnrGeneratorBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PnrGeneratorBenchmark {
+
+    private PnrGenerator generator;
+
+    @Setup
+    public void setUp() {
+        AtomicLong next = new AtomicLong();
+        // block source without a database: the benchmark measures the in-memory hot path plus refills
+        generator = new PnrGenerator((nodeId, blockSize) -> next.getAndAdd(blockSize), 1, 5, 1000);
+    }
+
+    @Benchmark
+    public String uuidSubstring() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+    }
+
+    @Benchmark
+    public String pnrGenerator() {
+        return generator.nextPnr();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String pnrGeneratorContended() {
+        return generator.nextPnr();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opts = new OptionsBuilder()
+                .include(PnrGeneratorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opts).run();
+    }
+}
@@ -0,0 +1,148 @@
+package com.bookingservice.client;
+
+import com.bookingservice.client.dto.FlightDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for CoalescingFlightClient using a blocking stub as the remote flight-service.
+ */
+class CoalescingFlightClientTest {
+
+    private static final int BURST = 50;
+
+    private SimpleMeterRegistry registry;
+    private StubFlightClient stub;
+    private CoalescingFlightClient client;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        stub = new StubFlightClient();
+        client = new CoalescingFlightClient(stub, registry);
+    }
+
+    @Test
+    void concurrentBurst_forSameFlight_hitsFlightServiceOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(BURST);
+        try {
+            List<Future<FlightDto>> results = submitBurst(pool, 7L);
+
+            // every follower has joined the leader's call before we let it answer
+            awaitCoalesced(BURST - 1);
+            stub.release.countDown();
+
+            for (Future<FlightDto> f : results) {
+                assertThat(f.get(5, TimeUnit.SECONDS).getId()).isEqualTo(7L);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(stub.calls.get()).isEqualTo(1);
+        assertThat(counter("leader")).isEqualTo(1.0);
+        assertThat(counter("coalesced")).isEqualTo(BURST - 1.0);
+    }
+
+    @Test
+    void sequentialLookups_areNotCached() {
+        stub.release.countDown();
+
+        client.getFlightById(1L);
+        client.getFlightById(1L);
+
+        assertThat(stub.calls.get()).isEqualTo(2);
+        assertThat(counter("coalesced")).isZero();
+    }
+
+    @Test
+    void leaderFailure_isPropagatedToFollowers() throws Exception {
+        stub.failure = new IllegalStateException("flight-service down");
+        ExecutorService pool = Executors.newFixedThreadPool(BURST);
+        try {
+            List<Future<FlightDto>> results = submitBurst(pool, 9L);
+            awaitCoalesced(BURST - 1);
+            stub.release.countDown();
+
+            for (Future<FlightDto> f : results) {
+                assertThatThrownBy(() -> f.get(5, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(IllegalStateException.class);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(stub.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void leaderError_isPropagatedToFollowers_insteadOfLeavingThemWaiting() throws Exception {
+        stub.error = new OutOfMemoryError("simulated");
+        ExecutorService pool = Executors.newFixedThreadPool(BURST);
+        try {
+            List<Future<FlightDto>> results = submitBurst(pool, 11L);
+            awaitCoalesced(BURST - 1);
+            stub.release.countDown();
+
+            for (Future<FlightDto> f : results) {
+                assertThatThrownBy(() -> f.get(5, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(OutOfMemoryError.class);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(stub.calls.get()).isEqualTo(1);
+    }
+
+    private List<Future<FlightDto>> submitBurst(ExecutorService pool, Long flightId) {
+        List<Future<FlightDto>> results = new ArrayList<>();
+        for (int i = 0; i < BURST; i++) {
+            results.add(pool.submit(() -> client.getFlightById(flightId)));
+        }
+        return results;
+    }
+
+    private void awaitCoalesced(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter("coalesced") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(counter("coalesced")).isEqualTo((double) expected);
+    }
+
+    private double counter(String role) {
+        return registry.get("booking.flight.lookup").tag("role", role).counter().count();
+    }
+
+    /** Stand-in for flight-service: counts calls and blocks until released. */
+    private static class StubFlightClient implements FlightClient {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile RuntimeException failure;
+        volatile Error error;
+
+        @Override
+        public FlightDto getFlightById(Long id) {
+            calls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (error != null) {
+                throw error;
+            }
+            return FlightDto.builder().id(id).price(100.0).build();
+        }
+    }
+}
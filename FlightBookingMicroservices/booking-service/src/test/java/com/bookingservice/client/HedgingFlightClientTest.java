@@ -0,0 +1,87 @@
+package com.bookingservice.client;
+
+import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.loadtest.StubFlightServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HedgingFlightClientTest {
+
+    private StubFlightServer slow;
+    private StubFlightServer fast;
+    private SimpleMeterRegistry registry;
+    private HedgingFlightClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        slow = StubFlightServer.start(Duration.ofMillis(1500), 2);
+        fast = StubFlightServer.start(Duration.ZERO, 2);
+        registry = new SimpleMeterRegistry();
+
+        DiscoveryClient discovery = mock(DiscoveryClient.class);
+        List<ServiceInstance> instances = List.of(
+                new DefaultServiceInstance("slow", "flight-service", "localhost", slow.port(), false),
+                new DefaultServiceInstance("fast", "flight-service", "localhost", fast.port(), false));
+        when(discovery.getInstances("flight-service")).thenReturn(instances);
+
+        // first use of WebClient / Reactor Netty costs far more than a hedge delay; pay it outside the tests
+        WebClient webClient = WebClient.create();
+        webClient.get().uri(fast.baseUrl() + "/api/flights/1").retrieve().toBodilessEntity().block(Duration.ofSeconds(10));
+
+        client = new HedgingFlightClient(webClient, discovery,
+                new HedgingFlightClient.Settings("flight-service", Duration.ofSeconds(3), true, 0.95,
+                        Duration.ofMillis(100), Duration.ofMillis(20), Duration.ofMillis(500)),
+                registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slow.close();
+        fast.close();
+    }
+
+    private double hedges(String result) {
+        return registry.get("booking.flight.client.hedges").tag("result", result).counter().count();
+    }
+
+    @Test
+    void slowPrimaryIsHedgedToTheOtherInstance() {
+        long start = System.nanoTime();
+        FlightDto flight = client.getFlightById(42L);   // round robin starts at the slow instance
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // the fast instance answered through the hedge, before the slow primary could have
+        assertThat(flight.getId()).isEqualTo(42L);
+        assertThat(hedges("sent")).isEqualTo(1.0);
+        assertThat(hedges("won")).isEqualTo(1.0);
+        assertThat(elapsedMillis).isLessThan(1500);
+    }
+
+    @Test
+    void fastPrimaryDoesNotHedge() {
+        client.getFlightById(1L);                       // slow first, hedged
+        FlightDto flight = client.getFlightById(2L);    // fast first
+
+        assertThat(flight.getId()).isEqualTo(2L);
+        assertThat(hedges("sent")).isEqualTo(1.0);
+        assertThat(registry.get("booking.flight.client.lookups").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void hedgeDelayStartsAtInitialDelay() {
+        assertThat(client.currentHedgeDelayNanos()).isEqualTo(Duration.ofMillis(100).toNanos());
+    }
+}
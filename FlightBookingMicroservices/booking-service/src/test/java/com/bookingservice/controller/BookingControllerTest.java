@@ -1,5 +1,6 @@
 package com.bookingservice.controller;
 
+import com.bookingservice.dto.BookingHistoryPage;
 import com.bookingservice.dto.BookingRequest;
 import com.bookingservice.dto.BookingResponseDto;
 import com.bookingservice.dto.PersonDto;
@@ -98,6 +99,19 @@ class BookingControllerTest {
         verify(bookingService).getHistoryByEmail("u@t.com");
     }
 
+    @Test
+    void historyPage_passesCursorAndSize() throws Exception {
+        BookingResponseDto a = BookingResponseDto.builder().pnr("H2").userEmail("u@t.com").build();
+        when(bookingService.getHistoryPage("u@t.com", "abc", 5)).thenReturn(new BookingHistoryPage(List.of(a), "next"));
+
+        mockMvc.perform(get("/api/flight/booking/history/u@t.com/page")
+                .param("cursor", "abc")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].pnr").value("H2"))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
     @Test
     void cancel_returns200_andMessage() throws Exception {
         BookingResponseDto dto = BookingResponseDto.builder().pnr("C1").status("CANCELLED").build();
@@ -0,0 +1,92 @@
+package com.bookingservice.event;
+
+import com.bookingservice.kafka.BookingEventDeserializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryBookingEventCodecTest {
+
+    private final BinaryBookingEventCodec codec = new BinaryBookingEventCodec();
+
+    private static BookingEventDto fullEvent() {
+        BookingEventDto e = new BookingEventDto();
+        e.setPnr("K7QMZ4");
+        e.setFlightId(1042L);
+        e.setUserEmail("zo\u00eb@example.com");
+        e.setNumSeats(2);
+        e.setCreatedAt(Instant.parse("2025-03-14T09:26:53.589793123Z"));
+        e.setEventType("BOOKING_CREATED");
+        BookingEventDto.PassengerInfo a = new BookingEventDto.PassengerInfo();
+        a.setName("Ana N\u00fa\u00f1ez");
+        a.setGender("FEMALE");
+        a.setAge(31);
+        a.setSeatNumber("12C");
+        a.setMealPreference("VEG");
+        BookingEventDto.PassengerInfo b = new BookingEventDto.PassengerInfo();
+        b.setName("Ben");
+        e.setPassengers(List.of(a, b));
+        return e;
+    }
+
+    @Test
+    void roundTripsAllFields() {
+        BookingEventDto in = fullEvent();
+
+        BookingEventDto out = codec.decode(codec.encode(in));
+
+        assertThat(out).usingRecursiveComparison().isEqualTo(in);
+    }
+
+    @Test
+    void roundTripsNullFields() {
+        BookingEventDto in = new BookingEventDto();
+        in.setPnr("AAAAAB");
+
+        byte[] bytes = codec.encode(in);
+        BookingEventDto out = codec.decode(bytes);
+
+        assertThat(out).usingRecursiveComparison().isEqualTo(in);
+        assertThat(bytes).hasSize(3 + 1 + 6);
+    }
+
+    @Test
+    void isMuchSmallerThanJson() {
+        BookingEventDto in = fullEvent();
+
+        int binary = codec.encode(in).length;
+        int json = new JsonBookingEventCodec().encode(in).length;
+
+        assertThat(binary).isLessThan(json / 2);
+    }
+
+    @Test
+    void rejectsUnknownVersionAndTruncatedPayloads() {
+        byte[] bytes = codec.encode(fullEvent());
+
+        byte[] future = bytes.clone();
+        future[1] = 2;
+        assertThatThrownBy(() -> codec.decode(future))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version 2");
+        assertThatThrownBy(() -> codec.decode(Arrays.copyOf(bytes, bytes.length - 3)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void deserializerReadsBinaryAndLegacyJson() {
+        BookingEventDeserializer deserializer = new BookingEventDeserializer();
+        byte[] json = "{\"pnr\":\"K7QMZ4\",\"flightId\":7,\"unknown\":true}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(deserializer.deserialize("booking-events", codec.encode(fullEvent())).getPnr()).isEqualTo("K7QMZ4");
+        assertThat(deserializer.deserialize("booking-events", json).getFlightId()).isEqualTo(7L);
+        assertThat(deserializer.deserialize("booking-events", null)).isNull();
+    }
+}
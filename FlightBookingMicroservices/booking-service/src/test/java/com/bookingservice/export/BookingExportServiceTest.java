@@ -0,0 +1,119 @@
+package com.bookingservice.export;
+
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BookingExportService against an in-memory H2 copy of the bookings/passengers tables.
+ */
+class BookingExportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    private JdbcTemplate jdbc;
+    private ObjectMapper mapper;
+    private BookingExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource ds = new DriverManagerDataSource("jdbc:h2:mem:export-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE bookings (id BIGINT PRIMARY KEY, pnr VARCHAR(6), flight_id BIGINT, user_email VARCHAR(255),"
+                + " num_seats INT, total_price DOUBLE, status VARCHAR(16), created_at TIMESTAMP(6), cancelled_at TIMESTAMP(6))");
+        jdbc.execute("CREATE TABLE passengers (id BIGINT PRIMARY KEY, passenger_name VARCHAR(255), gender VARCHAR(8), age INT,"
+                + " seat_number VARCHAR(8), meal_preference VARCHAR(16), booking_id BIGINT)");
+
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        ShardTemplate shards = new ShardTemplate(ShardRouter.single(), new DataSourceTransactionManager(ds));
+        exportService = new BookingExportService(shards, ds, mapper, new SimpleMeterRegistry(), 2, ZoneOffset.UTC);
+
+        Instant noon = DAY.atTime(12, 0).toInstant(ZoneOffset.UTC);
+        booking(1, "AAAAAA", noon, "a@x.com");
+        passenger(10, 1, "Ann", "1A");
+        passenger(11, 1, "Bob, Jr.", "1B");
+        booking(2, "BBBBBB", noon.plusSeconds(60), "=cmd@x.com");
+        booking(3, "CCCCCC", noon.plusSeconds(120), "c@x.com");
+        passenger(12, 3, "Cy", "2C");
+        booking(4, "DDDDDD", noon.minusSeconds(86_400), "old@x.com");   // previous day
+        booking(5, "EEEEEE", noon.plusSeconds(43_200), "next@x.com");   // midnight, next day
+    }
+
+    private void booking(long id, String pnr, Instant createdAt, String email) {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        jdbc.update(con -> {
+            var ps = con.prepareStatement("INSERT INTO bookings VALUES (?, ?, 7, ?, 1, 99.5, 'ACTIVE', ?, NULL)");
+            ps.setLong(1, id);
+            ps.setString(2, pnr);
+            ps.setString(3, email);
+            ps.setTimestamp(4, Timestamp.from(createdAt), utc);
+            return ps;
+        });
+    }
+
+    private void passenger(long id, long bookingId, String name, String seat) {
+        jdbc.update("INSERT INTO passengers VALUES (?, ?, 'F', 30, ?, 'VEG', ?)", id, name, seat, bookingId);
+    }
+
+    @Test
+    void csv_hasOneRecordPerPassenger_forTheDayOnly() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = exportService.exportDay(DAY, ExportFormat.CSV, false, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(exported).isEqualTo(3);
+        assertThat(lines.get(0)).isEqualTo(CsvBookingExportWriter.HEADER);
+        assertThat(lines).hasSize(5);
+        assertThat(lines.get(1)).startsWith("1,AAAAAA,7,a@x.com,1,99.5,ACTIVE,2024-05-01T12:00:00Z,,Ann,");
+        assertThat(lines.get(2)).contains(",\"Bob, Jr.\",");
+        // no passengers: still one record; formula-like text is defused
+        assertThat(lines.get(3)).startsWith("2,BBBBBB,7,'=cmd@x.com,").endsWith(",,,,");
+        assertThat(lines.get(4)).startsWith("3,CCCCCC,");
+    }
+
+    @Test
+    void ndjson_gzip_nestsPassengersPerBooking() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportDay(DAY, ExportFormat.NDJSON, true, out);
+
+        String text;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> lines = text.lines().toList();
+        assertThat(text).endsWith("\n");
+        assertThat(lines).hasSize(3);
+
+        JsonNode first = mapper.readTree(lines.get(0));
+        assertThat(first.get("pnr").asText()).isEqualTo("AAAAAA");
+        assertThat(first.get("createdAt").asText()).isEqualTo("2024-05-01T12:00:00Z");
+        assertThat(first.get("passengers")).extracting(p -> p.get("name").asText()).containsExactly("Ann", "Bob, Jr.");
+        assertThat(mapper.readTree(lines.get(1)).get("passengers")).isEmpty();
+        assertThat(lines.get(1)).doesNotStartWith(" ");
+    }
+}
@@ -0,0 +1,50 @@
+package com.bookingservice.kafka;
+
+import com.bookingservice.event.BookingEventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class BookingEventListenerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BookingEventListener listener = new BookingEventListener(registry);
+
+    private static ConsumerRecord<String, BookingEventDto> record(long offset, BookingEventDto value) {
+        return new ConsumerRecord<>("booking-events", 0, offset, "10", value);
+    }
+
+    private static BookingEventDto event(String pnr) {
+        BookingEventDto dto = new BookingEventDto();
+        dto.setPnr(pnr);
+        dto.setFlightId(10L);
+        dto.setEventType("BOOKING_CREATED");
+        return dto;
+    }
+
+    @Test
+    void processesWholeBatchAndCountsRecords() {
+        listener.onBookingEvents(List.of(record(0, event("AAAAAB")), record(1, event("AAAAAC"))));
+
+        assertThat(registry.get("booking.events.consumed").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void undeserializableRecordIsReportedWithItsIndex() {
+        List<ConsumerRecord<String, BookingEventDto>> batch =
+                List.of(record(0, event("AAAAAB")), record(1, null), record(2, event("AAAAAD")));
+
+        BatchListenerFailedException ex = catchThrowableOfType(
+                () -> listener.onBookingEvents(batch), BatchListenerFailedException.class);
+
+        assertThat(ex.getIndex()).isEqualTo(1);
+        // records before the poison one were handled and will be committed by the error handler
+        assertThat(registry.get("booking.events.consumed").counter().count()).isEqualTo(1.0);
+    }
+}
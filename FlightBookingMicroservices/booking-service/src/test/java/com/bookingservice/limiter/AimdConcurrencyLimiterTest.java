@@ -0,0 +1,152 @@
+package com.bookingservice.limiter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for AimdConcurrencyLimiter, including a simulated load test past saturation.
+ *
+ * The simulated backend has CAPACITY parallel workers. Up to that many concurrent requests complete
+ * in BASE_LATENCY; above it requests queue and latency grows linearly with the overload factor
+ * (the way createBooking behaves once Tomcat threads / Hikari connections are exhausted).
+ */
+class AimdConcurrencyLimiterTest {
+
+    private static final int CAPACITY = 32;
+    private static final long BASE_LATENCY = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(150);
+
+    @Test
+    void tryAcquire_rejectsAboveLimit_andReleaseFreesSlot() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 10, TARGET, 0.9);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release(BASE_LATENCY, false);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void slowOrOverloadedSamples_shrinkLimit_fastSamples_growIt() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(20, 1, 100, TARGET, 0.9);
+
+        for (int i = 0; i < 40; i++) {
+            limiter.tryAcquire();
+            limiter.release(TARGET * 2, false);
+        }
+        assertThat(limiter.getLimit()).isLessThan(20);
+
+        int shrunk = limiter.getLimit();
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire();
+            limiter.release(BASE_LATENCY, false);
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(shrunk);
+    }
+
+    @Test
+    void slowSamplesOfOneWindow_decreaseMultiplicativelyOnce() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(40, 1, 100, TARGET, 0.5);
+        long now = TimeUnit.SECONDS.toNanos(10);
+
+        // a whole window of slow requests, all started before the first of them completed
+        for (int i = 0; i < 40; i++) {
+            limiter.tryAcquire();
+        }
+        for (int i = 0; i < 40; i++) {
+            limiter.release(TARGET * 2, false, now + i);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(20);
+
+        // the next window started after that decrease, so its congestion counts again
+        now += TARGET * 2;
+        limiter.tryAcquire();
+        limiter.release(TARGET * 2, true, now + TARGET * 2);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void limit_staysWithinBounds() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(5, 3, 6, TARGET, 0.5);
+        for (int i = 0; i < 100; i++) {
+            limiter.release(TARGET * 10, true, TARGET * 10 * (i + 1));
+        }
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        for (int i = 0; i < 10_000; i++) {
+            limiter.release(0, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(6);
+    }
+
+    @Test
+    void loadTest_pastSaturation_keepsP99Stable() {
+        // offered concurrency 1x, 2x, 4x and 8x the backend capacity
+        long p99AtCapacity = simulate(CAPACITY, true).p99;
+        for (int factor : new int[]{2, 4, 8}) {
+            Result limited = simulate(CAPACITY * factor, true);
+            Result unlimited = simulate(CAPACITY * factor, false);
+
+            assertThat(limited.p99).isLessThanOrEqualTo(TARGET + BASE_LATENCY / 10);
+            assertThat(limited.p99).isLessThanOrEqualTo(p99AtCapacity * 2);
+            assertThat(limited.shed).isPositive();
+            // goodput does not collapse: we still serve at least the backend capacity per round
+            assertThat(limited.servedPerRound).isGreaterThanOrEqualTo(CAPACITY * 0.9);
+
+            assertThat(unlimited.p99).isEqualTo(BASE_LATENCY * factor);
+        }
+    }
+
+    private record Result(long p99, long shed, double servedPerRound) {}
+
+    /**
+     * Closed-loop round-based simulation: every round each client issues one request, admitted
+     * requests run concurrently and complete at the end of the round. Time is simulated, a round
+     * lasts as long as its requests take.
+     */
+    private Result simulate(int clients, boolean limited) {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 4, 10_000, TARGET, 0.9);
+        List<Long> latencies = new ArrayList<>();
+        long shed = 0;
+        long served = 0;
+        int rounds = 2_000;
+        int warmup = 500;
+        long now = 0;
+
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            for (int c = 0; c < clients; c++) {
+                if (!limited || limiter.tryAcquire()) {
+                    admitted++;
+                } else if (round >= warmup) {
+                    shed++;
+                }
+            }
+            long latency = (long) (BASE_LATENCY * Math.max(1.0, admitted / (double) CAPACITY));
+            now += latency;
+            for (int i = 0; i < admitted; i++) {
+                if (limited) {
+                    limiter.release(latency, false, now);
+                }
+                if (round >= warmup) {
+                    latencies.add(latency);
+                }
+            }
+            if (round >= warmup) {
+                served += admitted;
+            }
+        }
+
+        Collections.sort(latencies);
+        long p99 = latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+        return new Result(p99, shed, served / (double) (rounds - warmup));
+    }
+}
@@ -0,0 +1,60 @@
+package com.bookingservice.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ConcurrencyLimitFilter: which status a shed request gets.
+ */
+class ConcurrencyLimitFilterTest {
+
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(150);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MockHttpServletResponse post(ConcurrencyLimitFilter filter) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/flight/booking/7"), response, new MockFilterChain());
+        return response;
+    }
+
+    private double shed(String cause) {
+        return meterRegistry.get("booking.limiter.shed").tag("cause", cause).counter().count();
+    }
+
+    @Test
+    void atMaxLimit_shedsWith429() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(1, 1, 1, TARGET, 0.9);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter("createBooking", limiter, "POST", 2, meterRegistry);
+        limiter.tryAcquire();
+
+        MockHttpServletResponse response = post(filter);
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(shed("max_limit")).isEqualTo(1.0);
+        assertThat(shed("overloaded")).isZero();
+    }
+
+    @Test
+    void belowMaxLimit_shedsWith503() throws Exception {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(1, 1, 10, TARGET, 0.9);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter("createBooking", limiter, "POST", 2, meterRegistry);
+        limiter.tryAcquire();
+
+        MockHttpServletResponse response = post(filter);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(shed("overloaded")).isEqualTo(1.0);
+        // the shed request never held a slot
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+}
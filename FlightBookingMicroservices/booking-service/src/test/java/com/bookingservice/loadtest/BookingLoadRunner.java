@@ -0,0 +1,133 @@
+package com.bookingservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Self-contained booking load test. Boots booking-service in-process against H2 and a StubFlightServer
+ * (see LoadTestSupport), then runs closed-loop clients that each book a flight, read the ticket back
+ * and cancel a share of their bookings. Prints throughput and HDR latency percentiles per operation.
+ *
+ * Run: mvn -Ploadtest test-compile exec:java
+ *
+ * Settings (system properties, defaults in brackets):
+ *   loadtest.clients [200], loadtest.seconds [30], loadtest.warmup-seconds [5],
+ *   loadtest.flight-latency-ms [50], loadtest.flight-error-rate [0.0], loadtest.flights [1000],
+ *   loadtest.ticket-reads [2] per booking, loadtest.cancel-ratio [0.3],
+ *   loadtest.virtual-threads [false], loadtest.histograms [false] to print full distributions.
+ */
+public class BookingLoadRunner {
+
+    private static final String USER_HEADER = "X-User-Email";
+
+    private final HttpClient http;
+    private final String base;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final int flights;
+    private final int ticketReads;
+    private final double cancelRatio;
+
+    private final OperationStats book = new OperationStats("book");
+    private final OperationStats ticket = new OperationStats("ticket");
+    private final OperationStats cancel = new OperationStats("cancel");
+
+    BookingLoadRunner(HttpClient http, String base, int flights, int ticketReads, double cancelRatio) {
+        this.http = http;
+        this.base = base;
+        this.flights = flights;
+        this.ticketReads = ticketReads;
+        this.cancelRatio = cancelRatio;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 200);
+        int seconds = Integer.getInteger("loadtest.seconds", 30);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 5);
+        long latencyMs = Long.getLong("loadtest.flight-latency-ms", 50);
+        double errorRate = Double.parseDouble(System.getProperty("loadtest.flight-error-rate", "0.0"));
+        int flights = Integer.getInteger("loadtest.flights", 1000);
+        int ticketReads = Integer.getInteger("loadtest.ticket-reads", 2);
+        double cancelRatio = Double.parseDouble(System.getProperty("loadtest.cancel-ratio", "0.3"));
+        boolean virtualThreads = Boolean.getBoolean("loadtest.virtual-threads");
+        boolean histograms = Boolean.getBoolean("loadtest.histograms");
+
+        System.out.printf("clients=%d duration=%ds flight-latency=%dms flight-error-rate=%.2f flights=%d "
+                        + "ticket-reads=%d cancel-ratio=%.2f virtual-threads=%s%n",
+                clients, seconds, latencyMs, errorRate, flights, ticketReads, cancelRatio, virtualThreads);
+
+        try (StubFlightServer stub = StubFlightServer.start(Duration.ofMillis(latencyMs), errorRate, 180);
+             ConfigurableApplicationContext app = LoadTestSupport.startBookingService(stub.baseUrl(),
+                     "--spring.threads.virtual.enabled=" + virtualThreads)) {
+
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            String base = "http://localhost:" + LoadTestSupport.port(app);
+
+            if (warmupSeconds > 0) {
+                BookingLoadRunner warmup = new BookingLoadRunner(http, base, flights, ticketReads, cancelRatio);
+                ClosedLoopDriver.run(Math.min(clients, 50), Duration.ofSeconds(warmupSeconds), warmup::iteration);
+            }
+
+            BookingLoadRunner test = new BookingLoadRunner(http, base, flights, ticketReads, cancelRatio);
+            Duration elapsed = ClosedLoopDriver.run(clients, Duration.ofSeconds(seconds), test::iteration);
+
+            for (OperationStats stats : List.of(test.book, test.ticket, test.cancel)) {
+                stats.finish(elapsed);
+                System.out.println(stats);
+            }
+            if (histograms) {
+                for (OperationStats stats : List.of(test.book, test.ticket, test.cancel)) {
+                    stats.printHistogram(System.out);
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    /** One client iteration: book, read the ticket back, maybe cancel. */
+    void iteration() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long flightId = random.nextLong(1, flights + 1);
+        String email = "load-" + random.nextInt(10_000) + "@example.com";
+
+        String body = "{\"flightId\":" + flightId + ",\"numSeats\":1,"
+                + "\"passengers\":[{\"name\":\"Load Test\",\"age\":30,\"gender\":\"FEMALE\",\"mealPreference\":\"VEG\"}]}";
+        HttpResponse<String> booked = book.send(http, HttpRequest.newBuilder(URI.create(base + "/api/flight/booking/" + flightId))
+                .header("Content-Type", "application/json")
+                .header(USER_HEADER, email)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (booked == null) {
+            return;
+        }
+        String pnr = mapper.readTree(booked.body()).path("pnr").asText();
+
+        for (int i = 0; i < ticketReads; i++) {
+            ticket.send(http, HttpRequest.newBuilder(URI.create(base + "/api/flight/ticket/" + pnr))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+
+        if (random.nextDouble() < cancelRatio) {
+            cancel.send(http, HttpRequest.newBuilder(URI.create(base + "/api/flight/booking/cancel/" + pnr))
+                    .header(USER_HEADER, email)
+                    .timeout(Duration.ofSeconds(30))
+                    .DELETE()
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.bookingservice.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Closed-loop load: {@code concurrency} virtual-thread clients each run one iteration at a time,
+ * back to back, until the duration is over. Iterations record their own outcomes in
+ * {@link OperationStats}; an exception only ends that iteration.
+ */
+public final class ClosedLoopDriver {
+
+    @FunctionalInterface
+    public interface Iteration {
+        void run() throws Exception;
+    }
+
+    private ClosedLoopDriver() {
+    }
+
+    /** Runs the iteration in a closed loop and returns the wall-clock time it took. */
+    public static Duration run(int concurrency, Duration duration, Iteration iteration) {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            iteration.run();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (Exception e) {
+                            // the iteration has already recorded what failed
+                        }
+                    }
+                });
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /** Single-operation shortcut: the request returns an HTTP status. */
+    public static OperationStats run(int concurrency, Duration duration, String name, Callable<Integer> request) {
+        OperationStats stats = new OperationStats(name);
+        return stats.finish(run(concurrency, duration, () -> stats.call(request)));
+    }
+}
@@ -0,0 +1,36 @@
+package com.bookingservice.loadtest;
+
+import com.bookingservice.BookingServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots booking-service in-process for load tests: H2 instead of MySQL, the given stub as the only
+ * flight-service instance (simple discovery), no config server, Eureka or Kafka broker.
+ * See src/test/resources/loadtest.properties.
+ */
+public final class LoadTestSupport {
+
+    private LoadTestSupport() {
+    }
+
+    public static ConfigurableApplicationContext startBookingService(String flightServiceUrl, String... extraArgs) {
+        // Feign's default client keeps only 5 idle connections per host; avoid reconnect churn under load
+        System.setProperty("http.maxConnections", "1000");
+
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.config.name=loadtest",
+                "--spring.cloud.discovery.client.simple.instances.flight-service[0].uri=" + flightServiceUrl));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(BookingServiceApplication.class)
+                .run(args.toArray(String[]::new));
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+}
@@ -0,0 +1,106 @@
+package com.bookingservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency (HdrHistogram, nanosecond resolution) and error count of one load-test operation.
+ * Only 2xx responses are recorded as latencies; everything else, including exceptions, is an error.
+ */
+public final class OperationStats {
+
+    private final String name;
+    private final Recorder recorder = new Recorder(3);
+    private final LongAdder errors = new LongAdder();
+
+    private Histogram histogram;
+    private Duration elapsed;
+
+    public OperationStats(String name) {
+        this.name = name;
+    }
+
+    /** Sends the request and records it; returns null when it failed. */
+    public <T> HttpResponse<T> send(HttpClient http, HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<T> response = http.send(request, handler);
+            return record(start, response.statusCode()) ? response : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // counted below
+        }
+        errors.increment();
+        return null;
+    }
+
+    public int call(Callable<Integer> request) {
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = request.call();
+        } catch (Exception e) {
+            status = -1;
+        }
+        record(start, status);
+        return status;
+    }
+
+    private boolean record(long startNanos, int status) {
+        if (status >= 200 && status < 300) {
+            recorder.recordValue(System.nanoTime() - startNanos);
+            return true;
+        }
+        errors.increment();
+        return false;
+    }
+
+    /** Closes the measurement window; call once after the driver returns. */
+    public OperationStats finish(Duration elapsed) {
+        this.elapsed = elapsed;
+        this.histogram = recorder.getIntervalHistogram();
+        return this;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long ok() {
+        return histogram.getTotalCount();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public double throughputPerSecond() {
+        return ok() / (elapsed.toNanos() / 1e9);
+    }
+
+    public double percentileMillis(double p) {
+        return histogram.getValueAtPercentile(p) / 1e6;
+    }
+
+    /** Full HDR percentile distribution in milliseconds. */
+    public void printHistogram(PrintStream out) {
+        out.println("--- " + name + " latency distribution (ms) ---");
+        histogram.outputPercentileDistribution(out, 1e6);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-7s ok=%d errors=%d throughput=%.0f/s p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms",
+                name, ok(), errors(), throughputPerSecond(), percentileMillis(50), percentileMillis(90),
+                percentileMillis(99), percentileMillis(99.9), histogram.getMaxValue() / 1e6);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bookingservice.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for flight-service: answers GET /api/flights/{id} for any id with a flight that always has
+ * free seats, after an injected delay; a configurable fraction of calls fails with 500.
+ * Runs on virtual threads so the stub is never the bottleneck.
+ */
+public final class StubFlightServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMillis;
+    private final double errorRate;
+    private final String seatsJson;
+
+    private StubFlightServer(Duration latency, double errorRate, int seatsPerFlight) throws IOException {
+        this.latencyMillis = latency.toMillis();
+        this.errorRate = errorRate;
+        StringBuilder seats = new StringBuilder("[");
+        for (int i = 1; i <= seatsPerFlight; i++) {
+            seats.append(i > 1 ? "," : "").append("{\"seatNumber\":\"").append(i).append("\",\"status\":\"AVAILABLE\"}");
+        }
+        this.seatsJson = seats.append(']').toString();
+
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        this.server.createContext("/api/flights/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public static StubFlightServer start(Duration latency, int seatsPerFlight) throws IOException {
+        return new StubFlightServer(latency, 0.0, seatsPerFlight);
+    }
+
+    public static StubFlightServer start(Duration latency, double errorRate, int seatsPerFlight) throws IOException {
+        return new StubFlightServer(latency, errorRate, seatsPerFlight);
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + port();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String id = exchange.getRequestURI().getPath().substring("/api/flights/".length());
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            byte[] body = ("{\"id\":" + id + ",\"flightNumber\":\"LT" + id + "\",\"origin\":\"DEL\",\"destination\":\"BOM\","
+                    + "\"price\":100.0,\"totalSeats\":180,\"seats\":" + seatsJson + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
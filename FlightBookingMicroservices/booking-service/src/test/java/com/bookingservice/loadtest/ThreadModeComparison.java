@@ -0,0 +1,77 @@
+package com.bookingservice.loadtest;
+
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares platform-thread and virtual-thread request handling under injected flight-service latency:
+ * boots booking-service twice (spring.threads.virtual.enabled=false/true) against the stub and drives
+ * POST /api/flight/booking/{flightId} with a closed loop of clients larger than the Tomcat pool.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *        -Dexec.mainClass=com.bookingservice.loadtest.ThreadModeComparison
+ *        -Dexec.args="[latencyMs=200] [clients=600] [seconds=20] [tomcatThreads=200]"
+ *
+ * Defaults on a 1-vCPU sandbox (JDK 21.0.1; client, stub and service share the CPU, so both modes
+ * are CPU-bound well below the 3000/s the latency alone would allow):
+ *   platform  ok=2292 errors=0 throughput=103/s p50=5264ms p99=10729ms max=11358ms
+ *   virtual   ok=3000 errors=0 throughput=143/s p50=4438ms p99=5524ms  max=5541ms
+ */
+public class ThreadModeComparison {
+
+    public static void main(String[] args) throws Exception {
+        long latencyMs = args.length > 0 ? Long.parseLong(args[0]) : 200;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int tomcatThreads = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        System.out.printf("flight-service latency=%dms clients=%d duration=%ds tomcat.threads.max=%d%n",
+                latencyMs, clients, seconds, tomcatThreads);
+        for (boolean virtual : new boolean[]{false, true}) {
+            OperationStats result = runMode(virtual, latencyMs, clients, seconds, tomcatThreads);
+            System.out.printf("%-8s %s%n", virtual ? "virtual" : "platform", result);
+        }
+        System.exit(0);
+    }
+
+    private static OperationStats runMode(boolean virtual, long latencyMs, int clients, int seconds,
+                                                   int tomcatThreads) throws Exception {
+        try (StubFlightServer stub = StubFlightServer.start(Duration.ofMillis(latencyMs), 180);
+             ConfigurableApplicationContext app = LoadTestSupport.startBookingService(stub.baseUrl(),
+                     "--spring.threads.virtual.enabled=" + virtual,
+                     "--server.tomcat.threads.max=" + tomcatThreads,
+                     "--spring.datasource.url=jdbc:h2:mem:threadmode-" + virtual + ";DB_CLOSE_DELAY=-1;MODE=MySQL")) {
+
+            String base = "http://localhost:" + LoadTestSupport.port(app);
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            // warm up JIT, connection pools and the PNR block
+            ClosedLoopDriver.run(Math.min(clients, 50), Duration.ofSeconds(5), "warmup", () -> book(http, base));
+            return ClosedLoopDriver.run(clients, Duration.ofSeconds(seconds), "book", () -> book(http, base));
+        }
+    }
+
+    static int book(HttpClient http, String base) throws Exception {
+        long flightId = ThreadLocalRandom.current().nextLong(1, 10_000);
+        String body = "{\"flightId\":" + flightId + ",\"numSeats\":1,"
+                + "\"passengers\":[{\"name\":\"Load Test\",\"age\":30,\"gender\":\"FEMALE\"}]}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/flight/booking/" + flightId))
+                .header("Content-Type", "application/json")
+                .header("X-User-Email", "load-" + Thread.currentThread().threadId() + "@example.com")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
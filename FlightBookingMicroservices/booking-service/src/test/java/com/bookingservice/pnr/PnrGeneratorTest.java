@@ -0,0 +1,149 @@
+package com.bookingservice.pnr;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for PnrCodec and PnrGenerator.
+ */
+class PnrGeneratorTest {
+
+    /** In-memory stand-in for the pnr_sequence table. */
+    private static class InMemoryBlockSource implements PnrBlockSource {
+        private final Map<Integer, AtomicLong> next = new ConcurrentHashMap<>();
+
+        @Override
+        public long reserve(int nodeId, int blockSize) {
+            return next.computeIfAbsent(nodeId, n -> new AtomicLong()).getAndAdd(blockSize);
+        }
+    }
+
+    @Test
+    void codec_isBijective() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000_000; i++) {
+            long value = random.nextInt(1 << PnrCodec.BITS);
+            assertThat(PnrCodec.decode(PnrCodec.encode(value))).isEqualTo(value);
+        }
+        // decode is a left inverse of encode, so encode is injective: no two values share a PNR
+        assertThat(PnrCodec.decode(PnrCodec.encode(0))).isZero();
+        assertThat(PnrCodec.decode(PnrCodec.encode((1L << PnrCodec.BITS) - 1))).isEqualTo((1L << PnrCodec.BITS) - 1);
+    }
+
+    @Test
+    void codec_producesSixCharLocatorsFromAlphabet() {
+        String pnr = PnrCodec.encode(123_456);
+        assertThat(pnr).hasSize(6).matches("[" + PnrCodec.ALPHABET + "]{6}");
+        assertThat(PnrCodec.encode(1)).isNotEqualTo(PnrCodec.encode(2));
+    }
+
+    @Test
+    void codec_rejectsMalformedPnr() {
+        assertThatThrownBy(() -> PnrCodec.decode("ABC")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PnrCodec.decode("AAAAA0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PnrCodec.encode(1L << PnrCodec.BITS)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void generators_onDifferentNodes_neverCollide_underConcurrency() throws Exception {
+        InMemoryBlockSource source = new InMemoryBlockSource();
+        List<PnrGenerator> nodes = List.of(
+                new PnrGenerator(source, 0, 5, 100),
+                new PnrGenerator(source, 1, 5, 100),
+                new PnrGenerator(source, 31, 5, 100));
+
+        int threadsPerNode = 4;
+        int perThread = 25_000;
+        ExecutorService pool = Executors.newFixedThreadPool(nodes.size() * threadsPerNode);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        try {
+            for (PnrGenerator node : nodes) {
+                for (int t = 0; t < threadsPerNode; t++) {
+                    futures.add(pool.submit(() -> {
+                        List<String> out = new ArrayList<>(perThread);
+                        for (int i = 0; i < perThread; i++) {
+                            out.add(node.nextPnr());
+                        }
+                        return out;
+                    }));
+                }
+            }
+            Set<String> all = new HashSet<>();
+            for (Future<List<String>> f : futures) {
+                all.addAll(f.get(30, TimeUnit.SECONDS));
+            }
+            assertThat(all).hasSize(nodes.size() * threadsPerNode * perThread);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void restartedNode_continuesAfterReservedBlocks() {
+        InMemoryBlockSource source = new InMemoryBlockSource();
+        PnrGenerator first = new PnrGenerator(source, 3, 5, 10);
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 15; i++) {
+            seen.add(first.nextPnr());
+        }
+
+        // a "restart" gets a fresh generator but the block source remembers the reserved ranges
+        PnrGenerator restarted = new PnrGenerator(source, 3, 5, 10);
+        for (int i = 0; i < 50; i++) {
+            assertThat(seen.add(restarted.nextPnr())).isTrue();
+        }
+    }
+
+    @Test
+    void nodeOf_recoversNodeId() {
+        PnrGenerator generator = new PnrGenerator(new InMemoryBlockSource(), 17, 5, 10);
+        assertThat(generator.nodeOf(generator.nextPnr())).isEqualTo(17);
+    }
+
+    @Test
+    void shardOf_recoversShard_andShardsNeverCollide() {
+        InMemoryBlockSource source = new InMemoryBlockSource();
+        PnrGenerator generator = new PnrGenerator(source, 5, 5, 2, 10, new SimpleMeterRegistry());
+        Set<String> seen = new HashSet<>();
+        for (int shard = 0; shard < 4; shard++) {
+            for (int i = 0; i < 25; i++) {
+                String pnr = generator.nextPnr(shard);
+                assertThat(generator.shardOf(pnr)).isEqualTo(shard);
+                assertThat(generator.nodeOf(pnr)).isEqualTo(5);
+                assertThat(seen.add(pnr)).isTrue();
+            }
+        }
+        // blocks are reserved per (shard, node)
+        assertThat(source.next.keySet()).containsExactlyInAnyOrder(5, 37, 69, 101);
+        assertThatThrownBy(() -> generator.nextPnr(4)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void exhaustedSequenceSpace_failsInsteadOfReusingLocators() {
+        // node-bits 19 + shard-bits 1 leave 2^10 sequence numbers per (shard, node)
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PnrGenerator generator = new PnrGenerator(new InMemoryBlockSource(), 1, 19, 1, 256, meterRegistry);
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 1024; i++) {
+            assertThat(seen.add(generator.nextPnr())).isTrue();
+        }
+        assertThat(meterRegistry.get("booking.pnr.sequence.remaining").tag("shard", "0").gauge().value()).isZero();
+        assertThat(meterRegistry.get("booking.pnr.sequence.remaining").tag("shard", "1").gauge().value()).isEqualTo(1024.0);
+
+        assertThatThrownBy(generator::nextPnr)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("exhausted");
+    }
+
+    @Test
+    void constructor_rejectsNodeIdOutsidePartition() {
+        InMemoryBlockSource source = new InMemoryBlockSource();
+        assertThatThrownBy(() -> new PnrGenerator(source, 32, 5, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
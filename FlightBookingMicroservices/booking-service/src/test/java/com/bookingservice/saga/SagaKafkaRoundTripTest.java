@@ -0,0 +1,128 @@
+package com.bookingservice.saga;
+
+import com.bookingservice.config.CacheConfig;
+import com.bookingservice.config.KafkaProducerTuning;
+import com.bookingservice.config.SagaKafkaConfig;
+import com.bookingservice.kafka.BookingEventPublisher;
+import com.bookingservice.model.Booking;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.PassengerRepository;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaZKBroker;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Saga round trip over an embedded broker: RESERVE_SEATS goes out on flight-seat-commands, a stand-in
+ * for flight-service answers on flight-seat-replies, and the reply completes the saga. Checks the JSON
+ * wire format (no type headers) and the flightId keys end to end.
+ */
+class SagaKafkaRoundTripTest {
+
+    private static EmbeddedKafkaBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaZKBroker(1, true, 2,
+                SagaOrchestrator.TOPIC_SEAT_COMMANDS, SagaOrchestrator.TOPIC_SEAT_REPLIES);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void reserveSeats_isAnsweredOverKafka_andCompletesTheSaga() throws Exception {
+        String brokers = broker.getBrokersAsString();
+        KafkaTemplate<String, SagaMessage> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                SagaKafkaConfig.producerProps(brokers, new KafkaProducerTuning(0, 16384, "none", "all"))));
+
+        SagaInstanceRepository sagaRepository = mock(SagaInstanceRepository.class);
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        BookingEventPublisher eventPublisher = mock(BookingEventPublisher.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SagaOrchestrator orchestrator = new SagaOrchestrator(sagaRepository, bookingRepository,
+                mock(PassengerRepository.class), template, eventPublisher,
+                new ConcurrentMapCacheManager(CacheConfig.BOOKINGS_BY_PNR),
+                new ShardTemplate(ShardRouter.single(), mock(PlatformTransactionManager.class)),
+                mock(ShardMigrator.class), new SeatClaimRegistry(meterRegistry), meterRegistry, true, Duration.ofSeconds(10), 3, 100);
+
+        Booking booking = new Booking();
+        booking.setId(1L);
+        booking.setPnr("SAGA01");
+        booking.setFlightId(7L);
+        booking.setUserEmail("u@x.com");
+        booking.setNumSeats(2);
+        booking.setStatus(SagaOrchestrator.STATUS_RESERVING);
+        booking.setCreatedAt(Instant.now());
+        booking.setPassengers(List.of());
+        when(sagaRepository.save(any(SagaInstance.class))).thenAnswer(inv -> inv.getArgument(0));
+        SagaInstance saga = orchestrator.begin(booking);
+        when(sagaRepository.findById(1L)).thenReturn(Optional.of(saga));
+        when(bookingRepository.confirmReserved(1L)).thenReturn(1);
+
+        // flight-service stand-in: reserves seats 1A, 1B for every RESERVE_SEATS
+        KafkaMessageListenerContainer<String, SagaMessage> participant = container(brokers, "flight-service-seats",
+                SagaOrchestrator.TOPIC_SEAT_COMMANDS, rec -> {
+                    assertThat(rec.key()).isEqualTo("7");
+                    SagaMessage command = rec.value();
+                    template.send(SagaOrchestrator.TOPIC_SEAT_REPLIES, rec.key(), SagaMessage.builder()
+                            .type(SagaMessage.SEATS_RESERVED)
+                            .sagaId(command.getSagaId())
+                            .flightId(command.getFlightId())
+                            .pnr(command.getPnr())
+                            .seatNumbers(List.of("1A", "1B"))
+                            .build());
+                });
+        KafkaMessageListenerContainer<String, SagaMessage> replies = container(brokers, "booking-service-saga",
+                SagaOrchestrator.TOPIC_SEAT_REPLIES, rec -> orchestrator.onReply(rec.value()));
+        try {
+            orchestrator.reserveSeats(booking);
+
+            verify(eventPublisher, timeout(30_000)).publishBookingEvent(argThat(e -> "BOOKING_CONFIRMED".equals(e.getEventType())));
+            assertThat(saga.getState()).isEqualTo(SagaState.COMPLETED);
+            assertThat(saga.getReservedSeats()).isEqualTo("1A,1B");
+            assertThat(meterRegistry.get("booking.saga.step").tag("outcome", "reserved").timer().count()).isEqualTo(1L);
+        } finally {
+            participant.stop();
+            replies.stop();
+            template.destroy();
+        }
+    }
+
+    private static KafkaMessageListenerContainer<String, SagaMessage> container(String brokers, String groupId, String topic,
+                                                                                MessageListener<String, SagaMessage> listener) {
+        ContainerProperties props = new ContainerProperties(topic);
+        props.setMessageListener(listener);
+        KafkaMessageListenerContainer<String, SagaMessage> container = new KafkaMessageListenerContainer<>(
+                new DefaultKafkaConsumerFactory<>(SagaKafkaConfig.consumerProps(brokers, groupId)), props);
+        container.start();
+        ContainerTestUtils.waitForAssignment(container, broker.getPartitionsPerTopic());
+        return container;
+    }
+}
@@ -0,0 +1,254 @@
+package com.bookingservice.saga;
+
+import com.bookingservice.config.CacheConfig;
+import com.bookingservice.event.BookingEventDto;
+import com.bookingservice.kafka.BookingEventPublisher;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.Passenger;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.PassengerRepository;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SagaOrchestrator: replies, timeouts and compensation.
+ */
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class SagaOrchestratorTest {
+
+    @Mock
+    SagaInstanceRepository sagaRepository;
+
+    @Mock
+    BookingRepository bookingRepository;
+
+    @Mock
+    PassengerRepository passengerRepository;
+
+    @Mock
+    KafkaTemplate<String, SagaMessage> kafkaTemplate;
+
+    @Mock
+    BookingEventPublisher eventPublisher;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    ShardMigrator shardMigrator;
+
+    private final SeatClaimRegistry seatClaims = new SeatClaimRegistry(new SimpleMeterRegistry());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOKINGS_BY_PNR);
+
+    private SagaOrchestrator orchestrator;
+
+    @BeforeEach
+    void init() {
+        orchestrator = new SagaOrchestrator(sagaRepository, bookingRepository, passengerRepository, kafkaTemplate,
+                eventPublisher, cacheManager,
+                new ShardTemplate(ShardRouter.single(), transactionManager), shardMigrator, seatClaims, meterRegistry,
+                true, Duration.ofSeconds(10), 2, 100);
+        lenient().when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(new CompletableFuture<>());
+    }
+
+    private Booking reserving(long id) {
+        Booking b = new Booking();
+        b.setId(id);
+        b.setPnr("S" + id);
+        b.setFlightId(7L);
+        b.setUserEmail("u@x.com");
+        b.setNumSeats(2);
+        b.setStatus(SagaOrchestrator.STATUS_RESERVING);
+        b.setCreatedAt(Instant.now());
+        Passenger p1 = new Passenger();
+        p1.setSeatNumber("1A");
+        Passenger p2 = new Passenger();
+        b.setPassengers(List.of(p1, p2));
+        return b;
+    }
+
+    private SagaInstance saga(long bookingId, SagaState state, int attempts) {
+        when(sagaRepository.save(any(SagaInstance.class))).thenAnswer(inv -> inv.getArgument(0));
+        SagaInstance saga = orchestrator.begin(reserving(bookingId));
+        saga.setState(state);
+        saga.setAttempts(attempts);
+        saga.setStepStartedAt(Instant.now().minusMillis(250));
+        return saga;
+    }
+
+    private SagaMessage reply(String type, long sagaId) {
+        return SagaMessage.builder().type(type).sagaId(sagaId).flightId(7L).build();
+    }
+
+    private SagaMessage lastCommand() {
+        ArgumentCaptor<SagaMessage> sent = ArgumentCaptor.forClass(SagaMessage.class);
+        verify(kafkaTemplate, atLeastOnce()).send(eq(SagaOrchestrator.TOPIC_SEAT_COMMANDS), eq("7"), sent.capture());
+        return sent.getValue();
+    }
+
+    @Test
+    void begin_persistsPendingSaga_andReserveSeatsSendsCommandKeyedByFlight() {
+        SagaInstance saga = saga(1L, SagaState.SEATS_PENDING, 1);
+
+        assertThat(saga.getBookingId()).isEqualTo(1L);
+        assertThat(saga.getRequestedSeats()).isEqualTo("1A");
+        assertThat(saga.getDeadline()).isAfter(Instant.now());
+
+        orchestrator.reserveSeats(reserving(1L));
+
+        SagaMessage command = lastCommand();
+        assertThat(command.getType()).isEqualTo(SagaMessage.RESERVE_SEATS);
+        assertThat(command.getSagaId()).isEqualTo(1L);
+        assertThat(command.getSeatCount()).isEqualTo(2);
+        assertThat(command.getSeatNumbers()).containsExactly("1A");
+    }
+
+    @Test
+    void seatsReserved_confirmsBooking_completesSaga_andPublishes() {
+        SagaInstance saga = saga(1L, SagaState.SEATS_PENDING, 1);
+        when(sagaRepository.findById(1L)).thenReturn(Optional.of(saga));
+        when(bookingRepository.confirmReserved(1L)).thenReturn(1);
+        cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR).put("S1", "cached");
+
+        SagaMessage reply = reply(SagaMessage.SEATS_RESERVED, 1L);
+        reply.setSeatNumbers(List.of("1A", "1B"));
+        orchestrator.onReply(reply);
+
+        assertThat(saga.getState()).isEqualTo(SagaState.COMPLETED);
+        // the RESERVING ticket cached under its PNR (BookingService.getByPnr) is evicted
+        assertThat(cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR).get("S1")).isNull();
+        assertThat(saga.getReservedSeats()).isEqualTo("1A,1B");
+        ArgumentCaptor<BookingEventDto> event = ArgumentCaptor.forClass(BookingEventDto.class);
+        verify(eventPublisher).publishBookingEvent(event.capture());
+        assertThat(event.getValue().getEventType()).isEqualTo("BOOKING_CONFIRMED");
+        assertThat(meterRegistry.get("booking.saga.step").tag("step", "reserve_seats").tag("outcome", "reserved")
+                .timer().count()).isEqualTo(1L);
+        assertThat(meterRegistry.get("booking.saga.finished").tag("state", "completed").counter().count()).isEqualTo(1.0);
+
+        // a redelivered reply changes nothing
+        orchestrator.onReply(reply);
+        verify(bookingRepository, times(1)).confirmReserved(1L);
+        // the ACTIVE booking and its COMPLETED saga row are copied once while resharding
+        verify(shardMigrator, times(1)).mirror(7L, List.of(1L));
+    }
+
+    @Test
+    void seatsReserved_afterBookingWasCancelled_releasesSeats() {
+        SagaInstance saga = saga(1L, SagaState.SEATS_PENDING, 1);
+        when(sagaRepository.findById(1L)).thenReturn(Optional.of(saga));
+        when(bookingRepository.confirmReserved(1L)).thenReturn(0);
+
+        orchestrator.onReply(reply(SagaMessage.SEATS_RESERVED, 1L));
+
+        assertThat(saga.getState()).isEqualTo(SagaState.COMPENSATING);
+        assertThat(lastCommand().getType()).isEqualTo(SagaMessage.RELEASE_SEATS);
+        verifyNoInteractions(eventPublisher);
+
+        orchestrator.onReply(reply(SagaMessage.SEATS_RELEASED, 1L));
+        assertThat(saga.getState()).isEqualTo(SagaState.COMPENSATED);
+    }
+
+    @Test
+    void seatsRejected_rejectsBooking_andReleasesSeatClaims() {
+        seatClaims.markClaimed(7L, List.of("1A"));
+        SagaInstance saga = saga(1L, SagaState.SEATS_PENDING, 1);
+        when(sagaRepository.findById(1L)).thenReturn(Optional.of(saga));
+        when(bookingRepository.rejectReserving(eq(1L), any())).thenReturn(1);
+
+        SagaMessage reply = reply(SagaMessage.SEATS_REJECTED, 1L);
+        reply.setReason("seat 1A not available");
+        orchestrator.onReply(reply);
+
+        assertThat(saga.getState()).isEqualTo(SagaState.FAILED);
+        assertThat(saga.getFailureReason()).isEqualTo("seat 1A not available");
+        verify(passengerRepository).releaseSeatsByBookingIds(List.of(1L));
+        assertThat(seatClaims.isClaimed(7L, "1A")).isFalse();
+        ArgumentCaptor<BookingEventDto> event = ArgumentCaptor.forClass(BookingEventDto.class);
+        verify(eventPublisher).publishBookingEvent(event.capture());
+        assertThat(event.getValue().getEventType()).isEqualTo("BOOKING_REJECTED");
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+        verify(shardMigrator).mirror(7L, List.of(1L));
+    }
+
+    @Test
+    void timeout_resendsUntilMaxAttempts_thenRejectsAndCompensates() {
+        SagaInstance saga = saga(1L, SagaState.SEATS_PENDING, 1);
+        when(sagaRepository.findByStateInAndDeadlineBeforeOrderByDeadline(any(), any(), any())).thenReturn(List.of(saga));
+        when(bookingRepository.rejectReserving(eq(1L), any())).thenReturn(1);
+
+        orchestrator.checkTimeouts();
+        assertThat(saga.getAttempts()).isEqualTo(2);
+        assertThat(lastCommand().getType()).isEqualTo(SagaMessage.RESERVE_SEATS);
+
+        orchestrator.checkTimeouts();
+        assertThat(saga.getState()).isEqualTo(SagaState.COMPENSATING);
+        assertThat(saga.getFailureReason()).isEqualTo("seat reservation timed out");
+        assertThat(lastCommand().getType()).isEqualTo(SagaMessage.RELEASE_SEATS);
+        verify(passengerRepository).releaseSeatsByBookingIds(List.of(1L));
+        assertThat(meterRegistry.get("booking.saga.timeouts").tag("step", "reserve_seats").tag("action", "compensated")
+                .counter().count()).isEqualTo(1.0);
+        verify(shardMigrator, times(2)).mirror(7L, List.of(1L));
+    }
+
+    @Test
+    void timeout_failingShard_doesNotHoldBackTheOthers() {
+        SagaOrchestrator sharded = new SagaOrchestrator(sagaRepository, bookingRepository, passengerRepository,
+                kafkaTemplate, eventPublisher, cacheManager,
+                new ShardTemplate(new ShardRouter(2, 16, 0), transactionManager), shardMigrator, seatClaims, meterRegistry,
+                true, Duration.ofSeconds(10), 2, 100);
+        SagaInstance saga = saga(1L, SagaState.SEATS_PENDING, 1);
+        when(sagaRepository.findByStateInAndDeadlineBeforeOrderByDeadline(any(), any(), any()))
+                .thenThrow(new IllegalStateException("optimistic lock"))
+                .thenReturn(List.of(saga));
+
+        sharded.checkTimeouts();
+
+        assertThat(saga.getAttempts()).isEqualTo(2);
+        assertThat(lastCommand().getType()).isEqualTo(SagaMessage.RESERVE_SEATS);
+    }
+
+    @Test
+    void timeout_unacknowledgedRelease_failsSaga() {
+        SagaInstance saga = saga(1L, SagaState.COMPENSATING, 2);
+        when(sagaRepository.findByStateInAndDeadlineBeforeOrderByDeadline(any(), any(), any())).thenReturn(List.of(saga));
+
+        orchestrator.checkTimeouts();
+
+        assertThat(saga.getState()).isEqualTo(SagaState.FAILED);
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void bookingCancelled_afterCompletion_queuesReleaseForTheScan() {
+        SagaInstance saga = saga(1L, SagaState.COMPLETED, 1);
+        when(sagaRepository.findById(1L)).thenReturn(Optional.of(saga));
+
+        orchestrator.bookingCancelled(1L);
+
+        assertThat(saga.getState()).isEqualTo(SagaState.COMPENSATING);
+        assertThat(saga.getAttempts()).isZero();
+        assertThat(saga.getDeadline()).isBeforeOrEqualTo(Instant.now());
+    }
+}
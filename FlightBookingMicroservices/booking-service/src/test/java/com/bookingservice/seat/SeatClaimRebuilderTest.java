@@ -0,0 +1,75 @@
+package com.bookingservice.seat;
+
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SeatClaimRebuilder against in-memory H2 tables holding passengers written before flight_id and
+ * seat_claim existed.
+ */
+class SeatClaimRebuilderTest {
+
+    private JdbcTemplate jdbc;
+    private SeatClaimRegistry registry;
+    private SeatClaimRebuilder rebuilder;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource ds = new DriverManagerDataSource("jdbc:h2:mem:seats-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE bookings (id BIGINT PRIMARY KEY, flight_id BIGINT, status VARCHAR(16), created_at TIMESTAMP(6))");
+        jdbc.execute("CREATE TABLE passengers (id BIGINT PRIMARY KEY, seat_number VARCHAR(8), booking_id BIGINT,"
+                + " flight_id BIGINT, seat_claim BOOLEAN,"
+                + " CONSTRAINT uk_passengers_flight_seat_claim UNIQUE (flight_id, seat_number, seat_claim))");
+
+        booking(1, 7, "ACTIVE", "2024-01-01T10:00:00");
+        booking(2, 7, "CANCELLED", "2024-01-02T10:00:00");
+        booking(3, 8, "PENDING", "2024-01-03T10:00:00");
+        jdbc.update("INSERT INTO passengers (id, seat_number, booking_id) VALUES (10, '1A', 1), (11, '1B', 1),"
+                + " (20, '1A', 2), (30, '4C', 3), (31, NULL, 3)");
+
+        registry = new SeatClaimRegistry(new SimpleMeterRegistry());
+        rebuilder = new SeatClaimRebuilder(registry, new ShardTemplate(ShardRouter.single(), new DataSourceTransactionManager(ds)),
+                ds, 100, true);
+    }
+
+    private void booking(long id, long flightId, String status, String createdAt) {
+        jdbc.update("INSERT INTO bookings VALUES (?, ?, ?, TIMESTAMP '" + createdAt.replace('T', ' ') + "')", id, flightId, status);
+    }
+
+    @Test
+    void backfill_claimsSeatsOfHoldingBookings_thenRebuildIndexesThem() {
+        rebuilder.afterSingletonsInstantiated();
+        rebuilder.rebuild();
+
+        assertThat(jdbc.queryForList("SELECT id FROM passengers WHERE seat_claim = TRUE ORDER BY id", Long.class))
+                .containsExactly(10L, 11L, 30L);
+        assertThat(jdbc.queryForList("SELECT flight_id FROM passengers ORDER BY id", Long.class))
+                .containsExactly(7L, 7L, 7L, 8L, 8L);
+        assertThat(registry.isClaimed(7L, "1A")).isTrue();
+        assertThat(registry.isClaimed(8L, "4C")).isTrue();
+        assertThat(registry.tryClaim(7L, List.of("1B"))).containsExactly("1B");
+    }
+
+    @Test
+    void backfill_withDoubleAssignedSeat_keepsTheEarliestBooking() {
+        booking(4, 7, "ACTIVE", "2024-01-04T10:00:00");
+        jdbc.update("INSERT INTO passengers (id, seat_number, booking_id) VALUES (40, '1A', 4)");
+
+        rebuilder.afterSingletonsInstantiated();
+
+        assertThat(jdbc.queryForList("SELECT id FROM passengers WHERE seat_claim = TRUE ORDER BY id", Long.class))
+                .containsExactly(10L, 11L, 30L);
+        assertThat(jdbc.queryForObject("SELECT seat_claim FROM passengers WHERE id = 40", Boolean.class)).isNull();
+    }
+}
@@ -0,0 +1,64 @@
+package com.bookingservice.seat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for SeatClaimRegistry.
+ */
+class SeatClaimRegistryTest {
+
+    private final SeatClaimRegistry registry = new SeatClaimRegistry(new SimpleMeterRegistry());
+
+    @Test
+    void tryClaim_isAllOrNothing_perFlight() {
+        assertThat(registry.tryClaim(1L, List.of("1A", "1B"))).isEmpty();
+
+        assertThat(registry.tryClaim(1L, List.of("1C", "1B"))).containsExactly("1B");
+        assertThat(registry.isClaimed(1L, "1C")).isFalse();
+        assertThat(registry.tryClaim(2L, List.of("1B"))).isEmpty();
+    }
+
+    @Test
+    void release_freesSeats_forTheNextClaim() {
+        registry.tryClaim(1L, List.of("1A", "1B"));
+        registry.release(1L, List.of("1A"));
+
+        assertThat(registry.tryClaim(1L, List.of("1A"))).isEmpty();
+        assertThat(registry.tryClaim(1L, List.of("1B"))).containsExactly("1B");
+    }
+
+    @Test
+    void releaseStale_keepsClaimsWhoseWriteIsPending() {
+        registry.tryClaim(1L, List.of("1A"));
+        registry.markClaimed(1L, List.of("2A"));
+
+        registry.releaseStale(1L, List.of("1A", "2A"));
+        assertThat(registry.isClaimed(1L, "1A")).isTrue();
+        assertThat(registry.isClaimed(1L, "2A")).isFalse();
+
+        registry.settle(1L, List.of("1A"));
+        registry.releaseStale(1L, List.of("1A"));
+        assertThat(registry.isClaimed(1L, "1A")).isFalse();
+    }
+
+    @Test
+    void forget_dropsTheFlight() {
+        registry.tryClaim(1L, List.of("1A"));
+        registry.forget(1L);
+
+        assertThat(registry.isClaimed(1L, "1A")).isFalse();
+        assertThat(registry.tryClaim(1L, List.of("1A"))).isEmpty();
+    }
+
+    @Test
+    void normalize_trimsAndUppercases_andIgnoresBlank() {
+        assertThat(SeatClaimRegistry.normalize(" 12c ")).isEqualTo("12C");
+        assertThat(SeatClaimRegistry.normalize("  ")).isNull();
+        assertThat(SeatClaimRegistry.normalize(null)).isNull();
+    }
+}
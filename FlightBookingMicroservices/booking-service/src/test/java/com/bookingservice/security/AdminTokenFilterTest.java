@@ -0,0 +1,45 @@
+package com.bookingservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdminTokenFilterTest {
+
+    private static MockHttpServletResponse call(AdminTokenFilter filter, String token, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/admin/flights/7/cancel");
+        if (token != null) {
+            request.addHeader(AdminTokenFilter.TOKEN_HEADER, token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void matchingToken_passes_otherwise401() throws Exception {
+        AdminTokenFilter filter = new AdminTokenFilter("s3cret", new SimpleMeterRegistry());
+
+        MockFilterChain allowed = new MockFilterChain();
+        assertThat(call(filter, "s3cret", allowed).getStatus()).isEqualTo(200);
+        assertThat(allowed.getRequest()).isNotNull();
+
+        MockFilterChain wrong = new MockFilterChain();
+        assertThat(call(filter, "guess", wrong).getStatus()).isEqualTo(401);
+        assertThat(wrong.getRequest()).isNull();
+        assertThat(call(filter, null, new MockFilterChain()).getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void noTokenConfigured_refusesEverything() throws Exception {
+        AdminTokenFilter filter = new AdminTokenFilter("", new SimpleMeterRegistry());
+
+        MockFilterChain chain = new MockFilterChain();
+        assertThat(call(filter, "", chain).getStatus()).isEqualTo(403);
+        assertThat(chain.getRequest()).isNull();
+    }
+}
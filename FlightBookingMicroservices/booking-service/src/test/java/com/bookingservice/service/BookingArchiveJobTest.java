@@ -0,0 +1,117 @@
+package com.bookingservice.service;
+
+import com.bookingservice.config.CacheConfig;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * BookingArchiveJob against in-memory H2 live and archive tables.
+ */
+class BookingArchiveJobTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T00:00:00Z");
+
+    private JdbcTemplate jdbc;
+    private ConcurrentMapCacheManager cacheManager;
+    private SimpleMeterRegistry registry;
+    private SeatClaimRegistry seatClaims;
+    private ShardMigrator shardMigrator;
+    private BookingArchiveJob job;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource ds = new DriverManagerDataSource("jdbc:h2:mem:archive-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        jdbc = new JdbcTemplate(ds);
+        for (String suffix : new String[] {"", "_archive"}) {
+            jdbc.execute("CREATE TABLE bookings" + suffix + " (id BIGINT PRIMARY KEY, pnr VARCHAR(6), flight_id BIGINT,"
+                    + " user_email VARCHAR(255), num_seats INT, total_price DOUBLE, status VARCHAR(16),"
+                    + " created_at TIMESTAMP(6), cancelled_at TIMESTAMP(6)"
+                    + (suffix.isEmpty() ? "" : ", archived_at TIMESTAMP(6)") + ")");
+            jdbc.execute("CREATE TABLE passengers" + suffix + " (id BIGINT PRIMARY KEY, passenger_name VARCHAR(255),"
+                    + " gender VARCHAR(8), age INT, seat_number VARCHAR(8), meal_preference VARCHAR(16), booking_id BIGINT)");
+        }
+        jdbc.execute("CREATE TABLE booking_sagas (booking_id BIGINT PRIMARY KEY, state VARCHAR(16))");
+
+        booking(1, "CANCEL", NOW.minus(Duration.ofDays(90)), NOW.minus(Duration.ofDays(60)));
+        booking(2, "RECENT", NOW.minus(Duration.ofDays(10)), NOW.minus(Duration.ofDays(5)));
+        booking(3, "PASTAC", NOW.minus(Duration.ofDays(500)), null);
+        booking(4, "ACTIVE", NOW.minus(Duration.ofDays(1)), null);
+        jdbc.update("INSERT INTO passengers VALUES (10, 'Ann', 'F', 30, '1A', 'VEG', 1)");
+        jdbc.update("INSERT INTO passengers VALUES (11, 'Bob', 'M', 31, '1B', 'VEG', 1)");
+        jdbc.update("INSERT INTO passengers VALUES (12, 'Cy', 'M', 40, '2A', 'NONVEG', 3)");
+        jdbc.update("INSERT INTO passengers VALUES (13, 'Di', 'F', 22, '3A', 'VEG', 4)");
+        jdbc.update("INSERT INTO booking_sagas VALUES (3, 'COMPLETED')");
+        jdbc.update("INSERT INTO booking_sagas VALUES (4, 'COMPLETED')");
+
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOKINGS_BY_PNR);
+        cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR).put("CANCEL", "cached");
+        cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR).put("ACTIVE", "cached");
+
+        registry = new SimpleMeterRegistry();
+        seatClaims = new SeatClaimRegistry(registry);
+        seatClaims.markClaimed(7L, List.of("2A"));
+        ShardTemplate shards = new ShardTemplate(ShardRouter.single(), new DataSourceTransactionManager(ds));
+        shardMigrator = mock(ShardMigrator.class);
+        job = new BookingArchiveJob(shards, shardMigrator, ds, cacheManager, seatClaims, registry, true,
+                Duration.ofDays(30), Duration.ofDays(400), 1, 0);
+    }
+
+    private void booking(long id, String pnr, Instant createdAt, Instant cancelledAt) {
+        jdbc.update("INSERT INTO bookings VALUES (?, ?, 7, 'u@x.com', 1, 10.0, ?, ?, ?)", id, pnr,
+                cancelledAt == null ? "ACTIVE" : "CANCELLED", Timestamp.from(createdAt),
+                cancelledAt == null ? null : Timestamp.from(cancelledAt));
+    }
+
+    @Test
+    void runOnce_movesOldBookingsWithPassengers_inChunks() {
+        long archived = job.runOnce(NOW);
+
+        assertThat(archived).isEqualTo(2);
+        assertThat(jdbc.queryForList("SELECT id FROM bookings ORDER BY id", Long.class)).containsExactly(2L, 4L);
+        assertThat(jdbc.queryForList("SELECT id FROM passengers ORDER BY id", Long.class)).containsExactly(13L);
+        assertThat(jdbc.queryForList("SELECT pnr FROM bookings_archive ORDER BY id", String.class))
+                .containsExactly("CANCEL", "PASTAC");
+        assertThat(jdbc.queryForList("SELECT id FROM passengers_archive ORDER BY id", Long.class))
+                .containsExactly(10L, 11L, 12L);
+        assertThat(jdbc.queryForList("SELECT booking_id FROM booking_sagas", Long.class)).containsExactly(4L);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM bookings_archive WHERE archived_at IS NULL", Integer.class))
+                .isZero();
+
+        assertThat(cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR).get("CANCEL")).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR).get("ACTIVE")).isNotNull();
+        assertThat(seatClaims.isClaimed(7L, "2A")).isFalse();   // flight of an archived active booking
+        // each chunk is dual-written while resharding, like any other change to the live tables
+        verify(shardMigrator).mirror(7L, List.of(1L));
+        verify(shardMigrator).mirror(7L, List.of(3L));
+
+        assertThat(registry.get("booking.archive.rows").tag("table", "bookings").counter().count()).isEqualTo(2);
+        assertThat(registry.get("booking.archive.rows").tag("table", "passengers").counter().count()).isEqualTo(3);
+        assertThat(registry.get("booking.archive.chunk").timer().count()).isEqualTo(3);   // 2 chunks + empty probe
+    }
+
+    @Test
+    void runOnce_isIdempotent() {
+        job.runOnce(NOW);
+
+        assertThat(job.runOnce(NOW)).isZero();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM bookings_archive", Integer.class)).isEqualTo(2);
+    }
+}
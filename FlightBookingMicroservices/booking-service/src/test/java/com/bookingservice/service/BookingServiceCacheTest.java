@@ -0,0 +1,140 @@
+package com.bookingservice.service;
+
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.config.CacheConfig;
+import com.bookingservice.model.Booking;
+import com.bookingservice.pnr.PnrGenerator;
+import com.bookingservice.repository.ArchivedBookingRepository;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.PassengerRepository;
+import com.bookingservice.saga.SagaOrchestrator;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The PNR cache on BookingService, with the cache advice and Caffeine spec the application uses.
+ */
+@SpringJUnitConfig(BookingServiceCacheTest.Config.class)
+@TestPropertySource(locations = "classpath:application.properties")
+class BookingServiceCacheTest {
+
+    @Configuration
+    @Import(CacheConfig.class)
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager(@Value("${spring.cache.caffeine.spec}") String spec) {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.BOOKINGS_BY_PNR);
+            cacheManager.setCaffeine(Caffeine.from(spec));
+            return cacheManager;
+        }
+
+        @Bean
+        BookingRepository bookingRepository() {
+            return mock(BookingRepository.class);
+        }
+
+        @Bean
+        BookingService bookingService(BookingRepository bookingRepository) {
+            return new BookingService(bookingRepository, mock(PassengerRepository.class),
+                    mock(ArchivedBookingRepository.class), mock(FlightClient.class), CircuitBreakerRegistry.ofDefaults(),
+                    mock(PnrGenerator.class),
+                    new ShardTemplate(ShardRouter.single(), mock(PlatformTransactionManager.class)),
+                    mock(ShardMigrator.class), new SeatClaimRegistry(new SimpleMeterRegistry()),
+                    mock(PendingBookingQueue.class), mock(SagaOrchestrator.class), new SimpleMeterRegistry());
+        }
+    }
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Value("${spring.cache.caffeine.spec}")
+    String spec;
+
+    private Cache tickets() {
+        return cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR);
+    }
+
+    @BeforeEach
+    void reset() {
+        tickets().clear();
+        clearInvocations(bookingRepository);
+        when(bookingRepository.findByPnr("C1")).thenReturn(Optional.of(booking("C1")));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    private static Booking booking(String pnr) {
+        Booking b = new Booking();
+        b.setId(1L);
+        b.setPnr(pnr);
+        b.setFlightId(7L);
+        b.setUserEmail("owner@x.com");
+        b.setNumSeats(1);
+        b.setStatus("ACTIVE");
+        b.setCreatedAt(Instant.now());
+        b.setPassengers(new ArrayList<>());
+        return b;
+    }
+
+    @Test
+    void getByPnr_isServedFromTheCache_underThePnrKey() {
+        bookingService.getByPnr("C1");
+        bookingService.getByPnr("C1");
+
+        verify(bookingRepository, times(1)).findByPnr("C1");
+        // SagaOrchestrator, PendingBookingQueue, FlightCancellationWorker and BookingArchiveJob evict by the bare PNR
+        assertThat(tickets().get("C1")).isNotNull();
+        tickets().evict("C1");
+        bookingService.getByPnr("C1");
+        verify(bookingRepository, times(2)).findByPnr("C1");
+    }
+
+    @Test
+    void cancelBooking_evictsTheCachedTicket() {
+        assertThat(bookingService.getByPnr("C1").getStatus()).isEqualTo("ACTIVE");
+
+        bookingService.cancelBooking("C1", "owner@x.com");
+
+        assertThat(tickets().get("C1")).isNull();
+        assertThat(bookingService.getByPnr("C1").getStatus()).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void entriesExpireWithinTheToleratedCrossInstanceStaleness() {
+        // other instances only learn about a change when their copy expires (see CacheConfig)
+        assertThat(Caffeine.from(spec).build().policy().expireAfterWrite())
+                .hasValueSatisfying(p -> assertThat(p.getExpiresAfter()).isLessThanOrEqualTo(Duration.ofSeconds(30)));
+    }
+}
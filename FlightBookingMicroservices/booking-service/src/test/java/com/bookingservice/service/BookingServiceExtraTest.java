@@ -5,12 +5,25 @@ import com.bookingservice.client.dto.FlightDto;
 import com.bookingservice.dto.BookingRequest;
 import com.bookingservice.dto.PersonDto;
 import com.bookingservice.model.Booking;
+import com.bookingservice.model.Passenger;
+import com.bookingservice.repository.ArchivedBookingRepository;
 import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.pnr.PnrGenerator;
+import com.bookingservice.repository.PassengerRepository;
+import com.bookingservice.saga.SagaOrchestrator;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.*;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import static org.assertj.core.api.Assertions.*;
@@ -25,9 +38,39 @@ class BookingServiceExtraTest {
     @Mock
     BookingRepository bookingRepository;
 
+    @Mock
+    PassengerRepository passengerRepository;
+
+    @Mock
+    ArchivedBookingRepository archivedBookingRepository;
+
     @Mock
     FlightClient flightClient;
 
+    @Spy
+    CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+
+    @Mock
+    PnrGenerator pnrGenerator;
+
+    @Spy
+    ShardTemplate shardTemplate = new ShardTemplate(ShardRouter.single(), mock(PlatformTransactionManager.class));
+
+    @Mock
+    ShardMigrator shardMigrator;
+
+    @Spy
+    SeatClaimRegistry seatClaims = new SeatClaimRegistry(new SimpleMeterRegistry());
+
+    @Mock
+    PendingBookingQueue pendingQueue;
+
+    @Mock
+    SagaOrchestrator sagas;
+
+    @Spy
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     BookingService bookingService;
 
@@ -78,4 +121,212 @@ class BookingServiceExtraTest {
         var list = bookingService.getHistoryByEmail("noone");
         assertThat(list).isEmpty();
     }
-}
\ No newline at end of file
+
+    private Booking historyBooking(long id, Instant createdAt) {
+        Booking b = new Booking();
+        b.setId(id);
+        b.setPnr("H" + id);
+        b.setUserEmail("u@t.com");
+        b.setCreatedAt(createdAt);
+        return b;
+    }
+
+    @Test
+    void getHistoryPage_loadsPassengersInOneBatch_andReturnsCursor() {
+        Instant now = Instant.now();
+        Booking b1 = historyBooking(3L, now);
+        Booking b2 = historyBooking(2L, now.minusSeconds(60));
+        Booking b3 = historyBooking(1L, now.minusSeconds(120));
+        when(bookingRepository.findHistoryFirstPage(eq("u@t.com"), any())).thenReturn(List.of(b1, b2, b3));
+
+        Passenger p = new Passenger();
+        p.setPassengerName("Z");
+        p.setBooking(b2);
+        when(passengerRepository.findByBookingIdInOrderByIdAsc(List.of(3L, 2L))).thenReturn(List.of(p));
+
+        var page = bookingService.getHistoryPage("u@t.com", null, 2);
+
+        assertThat(page.getItems()).extracting("pnr").containsExactly("H3", "H2");
+        assertThat(page.getItems().get(0).getPassengers()).isEmpty();
+        assertThat(page.getItems().get(1).getPassengers()).extracting("name").containsExactly("Z");
+        assertThat(page.getNextCursor()).isNotBlank();
+        verify(passengerRepository, times(1)).findByBookingIdInOrderByIdAsc(any());
+
+        // the cursor points at the last row of the page
+        when(bookingRepository.findHistoryPageBefore(eq("u@t.com"), eq(b2.getCreatedAt()), eq(2L), any()))
+                .thenReturn(List.of(b3));
+        var next = bookingService.getHistoryPage("u@t.com", page.getNextCursor(), 2);
+        assertThat(next.getItems()).extracting("pnr").containsExactly("H1");
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getHistoryPage_invalidCursorOrSize_throwsBadRequest() {
+        assertThatThrownBy(() -> bookingService.getHistoryPage("u@t.com", "not-a-cursor", 10))
+                .isInstanceOf(org.springframework.web.server.ResponseStatusException.class)
+                .hasMessageContaining("Invalid history cursor");
+        assertThatThrownBy(() -> bookingService.getHistoryPage("u@t.com", null, 1000))
+                .isInstanceOf(org.springframework.web.server.ResponseStatusException.class);
+        verifyNoInteractions(bookingRepository, passengerRepository);
+    }
+
+    private BookingRequest bulkItem(Long flightId, String user, int seats) {
+        BookingRequest r = BookingRequest.builder().flightId(flightId).userEmail(user).numSeats(seats).build();
+        List<PersonDto> people = new java.util.ArrayList<>();
+        for (int i = 0; i < seats; i++) {
+            people.add(PersonDto.builder().name("P" + i).age(30).gender("F").build());
+        }
+        r.setPassengers(people);
+        return r;
+    }
+
+    @Test
+    void createBookings_fetchesEachFlightOnce_andReportsPerItemResults() {
+        FlightDto other = FlightDto.builder().id(2L).price(50.0).build();
+        other.setSeats(List.of(new com.bookingservice.dto.SeatDto("1A", "AVAILABLE"),
+                new com.bookingservice.dto.SeatDto("1B", "AVAILABLE")));
+        when(flightClient.getFlightById(1L)).thenReturn(sampleFlight);   // 1 seat available
+        when(flightClient.getFlightById(2L)).thenReturn(other);          // 2 seats available
+        when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<BookingRequest> items = List.of(
+                bulkItem(1L, "agent@x.com", 1),
+                bulkItem(1L, "agent@x.com", 1),      // flight 1 is now full -> 409
+                bulkItem(2L, "agent@x.com", 2),
+                bulkItem(2L, "someone@else.com", 1)  // email mismatch -> 400
+        );
+
+        var resp = bookingService.createBookings(items, "agent@x.com");
+
+        assertThat(resp.getSucceeded()).isEqualTo(2);
+        assertThat(resp.getFailed()).isEqualTo(2);
+        assertThat(resp.getResults()).extracting("status").containsExactly(201, 409, 201, 400);
+        assertThat(resp.getResults().get(2).getBooking().getTotalPrice()).isEqualTo(100.0);
+
+        verify(flightClient, times(1)).getFlightById(1L);
+        verify(flightClient, times(1)).getFlightById(2L);
+        verify(bookingRepository, times(1)).saveAll(argThat(list -> ((List<?>) list).size() == 2));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void createBookings_flightServiceDown_failsOnlyThatFlightsItems() {
+        when(flightClient.getFlightById(1L)).thenThrow(new RuntimeException("connection refused"));
+
+        var resp = bookingService.createBookings(List.of(bulkItem(1L, "a@b.com", 1)), "a@b.com");
+
+        assertThat(resp.getSucceeded()).isZero();
+        assertThat(resp.getResults()).extracting("status").containsExactly(503);
+        verify(bookingRepository, never()).saveAll(any());
+        assertThat(circuitBreakers.circuitBreaker(BookingService.FLIGHT_CIRCUIT).getMetrics().getNumberOfFailedCalls())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void createBookings_circuitOpen_doesNotCallFlightService() {
+        circuitBreakers.circuitBreaker(BookingService.FLIGHT_CIRCUIT).transitionToOpenState();
+
+        var resp = bookingService.createBookings(
+                List.of(bulkItem(1L, "a@b.com", 1), bulkItem(2L, "a@b.com", 1)), "a@b.com");
+
+        assertThat(resp.getSucceeded()).isZero();
+        assertThat(resp.getResults()).extracting("status").containsExactly(503, 503);
+        verifyNoInteractions(flightClient);
+        assertThat(meterRegistry.get("booking.create.failures").tag("cause", "circuit_open").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void createBookings_circuitOpen_degradedMode_queuesItemsAsPending() {
+        circuitBreakers.circuitBreaker(BookingService.FLIGHT_CIRCUIT).transitionToOpenState();
+        when(pendingQueue.isEnabled()).thenReturn(true);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var resp = bookingService.createBookings(List.of(bulkItem(1L, "a@b.com", 1)), "a@b.com");
+
+        assertThat(resp.getSucceeded()).isEqualTo(1);
+        assertThat(resp.getResults()).extracting("status").containsExactly(202);
+        assertThat(resp.getResults().get(0).getBooking().getStatus()).isEqualTo("PENDING");
+        verify(pendingQueue).enqueued();
+        verifyNoInteractions(flightClient);
+    }
+
+    @Test
+    void createBookings_recordsStagesPerItem() {
+        when(flightClient.getFlightById(1L)).thenReturn(sampleFlight);
+        when(bookingRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        bookingService.createBookings(List.of(bulkItem(1L, "a@b.com", 1)), "a@b.com");
+
+        for (String stage : List.of("validate", "fetch_flight", "build", "seat_claim", "convert")) {
+            assertThat(meterRegistry.get("booking.create.stage").tag("stage", stage).timer().count())
+                    .as(stage).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    void createBooking_recordsEveryStage() {
+        when(flightClient.getFlightById(1L)).thenReturn(sampleFlight);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        BookingRequest r = BookingRequest.builder().flightId(1L).userEmail("u@x.com").numSeats(1).build();
+        r.setPassengers(List.of(PersonDto.builder().name("Y").age(25).gender("F").build()));
+
+        bookingService.createBooking(r, "u@x.com");
+
+        for (String stage : List.of("validate", "fetch_flight", "availability", "build", "persist", "convert")) {
+            assertThat(meterRegistry.get("booking.create.stage").tag("stage", stage).timer().count())
+                    .as(stage).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    void createBookingFallback_rethrowsClientErrors_andCountsReason() {
+        var conflict = new org.springframework.web.server.ResponseStatusException(
+                org.springframework.http.HttpStatus.CONFLICT, "Not enough seats available");
+
+        Throwable thrown = catchThrowable(() -> bookingService.createBookingFallback(null, "u@x.com", conflict));
+        Throwable unavailable = catchThrowable(() ->
+                bookingService.createBookingFallback(null, "u@x.com", new RuntimeException("down")));
+
+        assertThat(thrown).isSameAs(conflict);
+        assertThat(unavailable).isInstanceOf(org.springframework.web.server.ResponseStatusException.class)
+                .hasMessageContaining("503");
+        assertThat(meterRegistry.get("booking.create.failures").tag("reason", "409").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("booking.create.failures").tag("reason", "503").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void createBookingFallback_circuitOpen_queuesPendingBooking_whenDegradedModeIsOn() {
+        when(pendingQueue.isEnabled()).thenReturn(true);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        BookingRequest r = bulkItem(1L, "a@b.com", 2);
+        r.getPassengers().get(0).setSeatNumber("3c");
+        var open = io.github.resilience4j.circuitbreaker.CallNotPermittedException.createCallNotPermittedException(
+                io.github.resilience4j.circuitbreaker.CircuitBreaker.ofDefaults("flightClient"));
+
+        var dto = bookingService.createBookingFallback(r, "a@b.com", open);
+
+        assertThat(dto.getStatus()).isEqualTo("PENDING");
+        assertThat(dto.getTotalPrice()).isEqualTo(0.0);
+        assertThat(dto.getPassengers()).extracting("seatNumber").containsExactly("3C", null);
+        assertThat(seatClaims.isClaimed(1L, "3C")).isTrue();
+        verify(pendingQueue).enqueued();
+        verifyNoInteractions(flightClient);
+    }
+
+    @Test
+    void createBooking_withSagaEnabled_storesReservingBooking_andStartsSagaAfterCommit() {
+        when(sagas.isEnabled()).thenReturn(true);
+        when(flightClient.getFlightById(1L)).thenReturn(sampleFlight);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        BookingRequest r = bulkItem(1L, "a@b.com", 1);
+
+        var dto = bookingService.createBooking(r, "a@b.com");
+
+        assertThat(dto.getStatus()).isEqualTo("RESERVING");
+        InOrder order = inOrder(bookingRepository, sagas);
+        order.verify(bookingRepository).flush();
+        order.verify(sagas).begin(argThat(b -> "RESERVING".equals(b.getStatus())));
+        order.verify(sagas).reserveSeats(any(Booking.class));
+    }
+}
@@ -4,13 +4,28 @@ import com.bookingservice.client.FlightClient;
 import com.bookingservice.client.dto.FlightDto;
 import com.bookingservice.dto.BookingRequest;
 import com.bookingservice.dto.PersonDto;
+import com.bookingservice.model.ArchivedBooking;
+import com.bookingservice.model.ArchivedPassenger;
 import com.bookingservice.model.Booking;
 import com.bookingservice.model.Passenger;
+import com.bookingservice.repository.ArchivedBookingRepository;
 import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.pnr.PnrGenerator;
+import com.bookingservice.repository.PassengerRepository;
+import com.bookingservice.saga.SagaOrchestrator;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.*;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
@@ -30,9 +45,39 @@ class BookingServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Mock
+    private PassengerRepository passengerRepository;
+
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+
     @Mock
     private FlightClient flightClient;
 
+    @Spy
+    private CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+
+    @Mock
+    private PnrGenerator pnrGenerator;
+
+    @Spy
+    private ShardTemplate shardTemplate = new ShardTemplate(ShardRouter.single(), mock(PlatformTransactionManager.class));
+
+    @Mock
+    private ShardMigrator shardMigrator;
+
+    @Spy
+    private SeatClaimRegistry seatClaims = new SeatClaimRegistry(new SimpleMeterRegistry());
+
+    @Mock
+    private PendingBookingQueue pendingQueue;
+
+    @Mock
+    private SagaOrchestrator sagas;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -180,6 +225,57 @@ class BookingServiceTest {
         verify(bookingRepository, never()).save(any());
     }
 
+    @Test
+    void createBooking_seatHeldByActiveBooking_throwsConflict_withoutSaving() {
+        seatClaims.markClaimed(10L, List.of("S1"));
+        when(flightClient.getFlightById(10L)).thenReturn(flightWithAvailableSeats(5, 150.0));
+        when(passengerRepository.findClaimedSeats(10L, List.of("S1"))).thenReturn(List.of("S1"));
+
+        ResponseStatusException ex = catchThrowableOfType(
+                () -> bookingService.createBooking(makeRequest(10L, "alice@example.com", 2), "alice@example.com"),
+                ResponseStatusException.class);
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(ex.getReason()).contains("S1");
+        assertThat(seatClaims.isClaimed(10L, "S0")).isFalse();
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void createBooking_staleSeatClaim_isRecheckedAndBooked() {
+        seatClaims.markClaimed(10L, List.of("S0"));
+        when(flightClient.getFlightById(10L)).thenReturn(flightWithAvailableSeats(5, 150.0));
+        when(passengerRepository.findClaimedSeats(10L, List.of("S0"))).thenReturn(List.of());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var resp = bookingService.createBooking(makeRequest(10L, "alice@example.com", 1), "alice@example.com");
+        assertThat(resp.getPassengers()).extracting("seatNumber").containsExactly("S0");
+        assertThat(seatClaims.isClaimed(10L, "S0")).isTrue();
+        verify(bookingRepository).flush();
+    }
+
+    @Test
+    void createBooking_seatConstraintViolation_mapsToConflict() {
+        when(flightClient.getFlightById(10L)).thenReturn(flightWithAvailableSeats(5, 150.0));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+        doThrow(new DataIntegrityViolationException("uk_passengers_flight_seat_claim")).when(bookingRepository).flush();
+
+        ResponseStatusException ex = catchThrowableOfType(
+                () -> bookingService.createBooking(makeRequest(10L, "alice@example.com", 1), "alice@example.com"),
+                ResponseStatusException.class);
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void createBooking_sameSeatTwiceInRequest_throwsBadRequest() {
+        BookingRequest req = makeRequest(10L, "alice@example.com", 2);
+        req.getPassengers().get(1).setSeatNumber(" s0 ");
+
+        ResponseStatusException ex = catchThrowableOfType(() -> bookingService.createBooking(req, "alice@example.com"),
+                ResponseStatusException.class);
+        assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(flightClient);
+    }
+
     @Test
     void getByPnr_found_returnsDto() {
         Booking booking = new Booking();
@@ -216,6 +312,41 @@ class BookingServiceTest {
         assertThat(ex.getStatusCode()).isEqualTo(org.springframework.http.HttpStatus.NOT_FOUND);
     }
 
+    @Test
+    void getByPnr_archived_isServedFromArchive() {
+        ArchivedBooking archived = new ArchivedBooking();
+        archived.setId(5L);
+        archived.setPnr("OLD1");
+        archived.setFlightId(7L);
+        archived.setUserEmail("u@x.com");
+        archived.setStatus("CANCELLED");
+        ArchivedPassenger p = new ArchivedPassenger();
+        p.setPassengerName("Jane");
+        archived.setPassengers(List.of(p));
+        when(bookingRepository.findByPnr("OLD1")).thenReturn(Optional.empty());
+        when(archivedBookingRepository.findByPnr("OLD1")).thenReturn(Optional.of(archived));
+
+        var dto = bookingService.getByPnr("OLD1");
+        assertThat(dto.getStatus()).isEqualTo("CANCELLED");
+        assertThat(dto.getPassengers()).extracting("name").containsExactly("Jane");
+    }
+
+    @Test
+    void cancelBooking_archived_throwsConflict() {
+        ArchivedBooking archived = new ArchivedBooking();
+        archived.setId(5L);
+        archived.setPnr("OLD2");
+        archived.setFlightId(7L);
+        when(bookingRepository.findByPnr("OLD2")).thenReturn(Optional.empty());
+        when(archivedBookingRepository.findByPnr("OLD2")).thenReturn(Optional.of(archived));
+
+        ResponseStatusException ex = catchThrowableOfType(
+                () -> bookingService.cancelBooking("OLD2", "u@x.com"),
+                ResponseStatusException.class);
+        assertThat(ex.getStatusCode()).isEqualTo(org.springframework.http.HttpStatus.CONFLICT);
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void cancelBooking_success_setsCancelled() {
         Booking booking = new Booking();
@@ -231,6 +362,28 @@ class BookingServiceTest {
         verify(bookingRepository).save(any());
     }
 
+    @Test
+    void cancelBooking_releasesSeats() {
+        Booking booking = new Booking();
+        booking.setPnr("C3");
+        booking.setFlightId(10L);
+        booking.setUserEmail("owner@x.com");
+        booking.setStatus("ACTIVE");
+        Passenger p = new Passenger();
+        p.setSeatNumber("4C");
+        p.setFlightId(10L);
+        p.setSeatClaim(true);
+        p.setBooking(booking);
+        booking.setPassengers(List.of(p));
+        seatClaims.markClaimed(10L, List.of("4C"));
+        when(bookingRepository.findByPnr("C3")).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        bookingService.cancelBooking("C3", "owner@x.com");
+        assertThat(p.getSeatClaim()).isNull();
+        assertThat(seatClaims.isClaimed(10L, "4C")).isFalse();
+    }
+
     @Test
     void cancelBooking_forbidden_whenNotOwner() {
         Booking booking = new Booking();
@@ -0,0 +1,82 @@
+package com.bookingservice.service;
+
+import com.bookingservice.dto.FlightCancellationStatus;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FlightCancellationService (one running job per flight).
+ */
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class FlightCancellationServiceTest {
+
+    @Mock
+    BookingRepository bookingRepository;
+
+    @Mock
+    FlightCancellationWorker worker;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private FlightCancellationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FlightCancellationService(bookingRepository, worker,
+                new ShardTemplate(ShardRouter.single(), transactionManager));
+    }
+
+    @Test
+    void concurrentStartsForOneFlight_startExactlyOneWorker() throws Exception {
+        CountDownLatch counting = new CountDownLatch(8);
+        when(bookingRepository.countActiveByFlight(7L)).thenAnswer(inv -> {
+            counting.countDown();
+            counting.await();   // every request has passed the "already running?" check before any claims
+            return 3L;
+        });
+
+        List<Future<FlightCancellationStatus>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> service.startCancellation(7L)));
+            }
+        }
+
+        int started = 0;
+        int conflicts = 0;
+        for (Future<FlightCancellationStatus> result : results) {
+            try {
+                result.get();
+                started++;
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause()).isInstanceOf(ResponseStatusException.class);
+                assertThat(((ResponseStatusException) ex.getCause()).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+                conflicts++;
+            }
+        }
+        assertThat(started).isEqualTo(1);
+        assertThat(conflicts).isEqualTo(7);
+        verify(worker, times(1)).run(any());
+    }
+}
@@ -0,0 +1,127 @@
+package com.bookingservice.service;
+
+import com.bookingservice.config.CacheConfig;
+import com.bookingservice.event.BookingEventDto;
+import com.bookingservice.kafka.BookingEventPublisher;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.BookingSummary;
+import com.bookingservice.repository.PassengerRepository;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for FlightCancellationWorker (chunked cancellation of a flight's bookings).
+ */
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class FlightCancellationWorkerTest {
+
+    @Mock
+    BookingRepository bookingRepository;
+
+    @Mock
+    PassengerRepository passengerRepository;
+
+    @Mock
+    BookingEventPublisher eventPublisher;
+
+    @Mock
+    CacheManager cacheManager;
+
+    @Mock
+    Cache ticketCache;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    ShardMigrator shardMigrator;
+
+    private final SeatClaimRegistry seatClaims = new SeatClaimRegistry(new SimpleMeterRegistry());
+
+    private FlightCancellationWorker worker;
+
+    @BeforeEach
+    void init() {
+        worker = new FlightCancellationWorker(bookingRepository, passengerRepository, eventPublisher, cacheManager,
+                new ShardTemplate(ShardRouter.single(), transactionManager), shardMigrator, seatClaims,
+                new SimpleMeterRegistry(), 2);
+    }
+
+    private BookingSummary summary(long id) {
+        BookingSummary s = mock(BookingSummary.class);
+        lenient().when(s.getId()).thenReturn(id);
+        lenient().when(s.getPnr()).thenReturn("P" + id);
+        lenient().when(s.getUserEmail()).thenReturn("u" + id + "@x.com");
+        lenient().when(s.getNumSeats()).thenReturn(1);
+        lenient().when(s.getCreatedAt()).thenReturn(Instant.now());
+        return s;
+    }
+
+    @Test
+    void run_cancelsInChunks_publishesEvents_andEvictsTickets() {
+        when(cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR)).thenReturn(ticketCache);
+        BookingSummary b1 = summary(1L), b2 = summary(2L), b3 = summary(5L);
+        when(bookingRepository.findActiveByFlightAfter(eq(9L), eq(0L), any(Pageable.class))).thenReturn(List.of(b1, b2));
+        when(bookingRepository.findActiveByFlightAfter(eq(9L), eq(2L), any(Pageable.class))).thenReturn(List.of(b3));
+        when(bookingRepository.findActiveByFlightAfter(eq(9L), eq(5L), any(Pageable.class))).thenReturn(List.of());
+
+        seatClaims.markClaimed(9L, List.of("1A"));
+
+        FlightCancellationJob job = new FlightCancellationJob("job-1", 9L, 3);
+        worker.run(job);
+
+        verify(bookingRepository).cancelActiveByIds(eq(List.of(1L, 2L)), any(Instant.class));
+        verify(bookingRepository).cancelActiveByIds(eq(List.of(5L)), any(Instant.class));
+        verify(passengerRepository).releaseSeatsByBookingIds(List.of(1L, 2L));
+        verify(passengerRepository).releaseSeatsByBookingIds(List.of(5L));
+        assertThat(seatClaims.isClaimed(9L, "1A")).isFalse();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookingEventDto>> events = ArgumentCaptor.forClass(List.class);
+        verify(eventPublisher, times(2)).publishBookingEvents(events.capture());
+        List<BookingEventDto> published = events.getAllValues().stream().flatMap(List::stream).toList();
+        assertThat(published).extracting("pnr", "eventType")
+                .containsExactly(tuple("P1", "BOOKING_CANCELLED"), tuple("P2", "BOOKING_CANCELLED"),
+                        tuple("P5", "BOOKING_CANCELLED"));
+
+        verify(ticketCache).evict("P1");
+        verify(ticketCache).evict("P5");
+        verify(shardMigrator).mirror(9L, List.of(1L, 2L));
+
+        var status = job.toStatus();
+        assertThat(status.getState()).isEqualTo("COMPLETED");
+        assertThat(status.getCancelledBookings()).isEqualTo(3);
+        assertThat(status.getEventsPublished()).isEqualTo(3);
+    }
+
+    @Test
+    void run_marksJobFailed_whenChunkFails() {
+        when(bookingRepository.findActiveByFlightAfter(anyLong(), anyLong(), any(Pageable.class)))
+                .thenThrow(new IllegalStateException("db down"));
+
+        FlightCancellationJob job = new FlightCancellationJob("job-2", 9L, 10);
+        worker.run(job);
+
+        assertThat(job.toStatus().getState()).isEqualTo("FAILED");
+        assertThat(job.toStatus().getError()).contains("db down");
+        verifyNoInteractions(eventPublisher);
+    }
+}
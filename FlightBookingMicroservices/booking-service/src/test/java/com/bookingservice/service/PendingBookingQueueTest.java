@@ -0,0 +1,160 @@
+package com.bookingservice.service;
+
+import com.bookingservice.client.FlightClient;
+import com.bookingservice.client.dto.FlightDto;
+import com.bookingservice.config.CacheConfig;
+import com.bookingservice.dto.SeatDto;
+import com.bookingservice.event.BookingEventDto;
+import com.bookingservice.kafka.BookingEventPublisher;
+import com.bookingservice.model.Booking;
+import com.bookingservice.model.Passenger;
+import com.bookingservice.repository.BookingRepository;
+import com.bookingservice.repository.PassengerRepository;
+import com.bookingservice.seat.SeatClaimRegistry;
+import com.bookingservice.shard.ShardMigrator;
+import com.bookingservice.shard.ShardRouter;
+import com.bookingservice.shard.ShardTemplate;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PendingBookingQueue (drain of bookings queued while the flight circuit was open).
+ */
+@ExtendWith(org.mockito.junit.jupiter.MockitoExtension.class)
+class PendingBookingQueueTest {
+
+    @Mock
+    BookingRepository bookingRepository;
+
+    @Mock
+    PassengerRepository passengerRepository;
+
+    @Mock
+    FlightClient flightClient;
+
+    @Mock
+    BookingEventPublisher eventPublisher;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    ShardMigrator shardMigrator;
+
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+    private final SeatClaimRegistry seatClaims = new SeatClaimRegistry(new SimpleMeterRegistry());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOKINGS_BY_PNR);
+
+    private PendingBookingQueue queue;
+
+    @BeforeEach
+    void init() {
+        queue = new PendingBookingQueue(bookingRepository, passengerRepository, flightClient, circuitBreakers,
+                eventPublisher, cacheManager,
+                new ShardTemplate(ShardRouter.single(), transactionManager), shardMigrator, seatClaims,
+                meterRegistry, true, 0, 10, Duration.ofMinutes(30));
+    }
+
+    private Booking pending(long id, long flightId, int seats, String seat) {
+        Booking b = new Booking();
+        b.setId(id);
+        b.setPnr("P" + id);
+        b.setFlightId(flightId);
+        b.setUserEmail("u@x.com");
+        b.setNumSeats(seats);
+        b.setTotalPrice(0.0);
+        b.setStatus("PENDING");
+        b.setCreatedAt(Instant.now());
+        Passenger p = new Passenger();
+        p.setPassengerName("Ann");
+        p.setSeatNumber(seat);
+        p.setFlightId(flightId);
+        p.setSeatClaim(true);
+        p.setBooking(b);
+        b.setPassengers(List.of(p));
+        return b;
+    }
+
+    private FlightDto flight(long id, double price, int available) {
+        FlightDto f = FlightDto.builder().id(id).price(price).build();
+        List<SeatDto> seats = new ArrayList<>();
+        for (int i = 0; i < available; i++) {
+            seats.add(new SeatDto("S" + i, "AVAILABLE"));
+        }
+        f.setSeats(seats);
+        return f;
+    }
+
+    @Test
+    void drainOnce_confirmsWhenSeatsAreAvailable_andRejectsWhenFull() {
+        when(bookingRepository.countByStatus("PENDING")).thenReturn(2L);
+        when(bookingRepository.findPendingIds(any())).thenReturn(List.of(1L, 2L));
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(pending(1L, 7L, 1, "1A")));
+        when(bookingRepository.findById(2L)).thenReturn(Optional.of(pending(2L, 8L, 2, "2A")));
+        when(flightClient.getFlightById(7L)).thenReturn(flight(7L, 100.0, 3));
+        when(flightClient.getFlightById(8L)).thenReturn(flight(8L, 100.0, 1));
+        when(bookingRepository.confirmPending(1L, 100.0)).thenReturn(1);
+        when(bookingRepository.rejectPending(eq(2L), any(Instant.class))).thenReturn(1);
+        seatClaims.markClaimed(8L, List.of("2A"));
+        cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR).put("P1", "cached");
+        cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR).put("P2", "cached");
+
+        assertThat(queue.drainOnce()).isEqualTo(2);
+
+        // the tickets were cached as PENDING under their PNR (BookingService.getByPnr)
+        assertThat(cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR).get("P1")).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.BOOKINGS_BY_PNR).get("P2")).isNull();
+
+        verify(passengerRepository).releaseSeatsByBookingIds(List.of(2L));
+        assertThat(seatClaims.isClaimed(8L, "2A")).isFalse();
+        ArgumentCaptor<BookingEventDto> events = ArgumentCaptor.forClass(BookingEventDto.class);
+        verify(eventPublisher, times(2)).publishBookingEvent(events.capture());
+        assertThat(events.getAllValues()).extracting("pnr", "eventType")
+                .containsExactly(tuple("P1", "BOOKING_CONFIRMED"), tuple("P2", "BOOKING_REJECTED"));
+        assertThat(meterRegistry.get("booking.pending.drained").tag("outcome", "confirmed").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("booking.pending.drained").tag("outcome", "rejected").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("booking.pending.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void drainOnce_waitsWhileCircuitIsOpen() {
+        when(bookingRepository.countByStatus("PENDING")).thenReturn(3L);
+        circuitBreakers.circuitBreaker(PendingBookingQueue.CIRCUIT).transitionToOpenState();
+
+        assertThat(queue.drainOnce()).isZero();
+
+        verifyNoInteractions(flightClient);
+        assertThat(meterRegistry.get("booking.pending.depth").gauge().value()).isEqualTo(3.0);
+    }
+
+    @Test
+    void drainOnce_flightServiceError_leavesBookingPending() {
+        when(bookingRepository.countByStatus("PENDING")).thenReturn(1L);
+        when(bookingRepository.findPendingIds(any())).thenReturn(List.of(1L));
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(pending(1L, 7L, 1, "1A")));
+        when(flightClient.getFlightById(7L)).thenThrow(new RuntimeException("read timed out"));
+
+        assertThat(queue.drainOnce()).isZero();
+
+        verify(bookingRepository, never()).confirmPending(anyLong(), anyDouble());
+        verify(bookingRepository, never()).rejectPending(anyLong(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+}
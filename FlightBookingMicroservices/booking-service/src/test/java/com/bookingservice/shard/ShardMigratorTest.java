@@ -0,0 +1,113 @@
+package com.bookingservice.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ShardMigrator moving bookings from one H2 shard to a second one added by a reshard.
+ */
+class ShardMigratorTest {
+
+    private ShardRoutingDataSource routing;
+    private ShardRouter router;
+    private ShardMigrator migrator;
+    private long movedFlight;
+
+    private static HikariDataSource shard(String name) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        for (String suffix : new String[] {"", "_archive"}) {
+            jdbc.execute("CREATE TABLE bookings" + suffix + " (id BIGINT PRIMARY KEY, pnr VARCHAR(6), flight_id BIGINT,"
+                    + " status VARCHAR(16))");
+            jdbc.execute("CREATE TABLE passengers" + suffix + " (id BIGINT PRIMARY KEY, seat_number VARCHAR(8), booking_id BIGINT)");
+        }
+        jdbc.execute("CREATE TABLE booking_sagas (booking_id BIGINT PRIMARY KEY, state VARCHAR(16))");
+        return ds;
+    }
+
+    @BeforeEach
+    void setUp() {
+        routing = new ShardRoutingDataSource(List.of(shard("shard0"), shard("shard1")));
+        DataSource dataSource = ShardRoutingDataSource.lazy(routing);
+        // one shard today, two after the cut-over
+        router = new ShardRouter(1, 16, 2);
+        migrator = new ShardMigrator(new ShardTemplate(router, new DataSourceTransactionManager(dataSource)),
+                dataSource, new SimpleMeterRegistry(), 100);
+        movedFlight = LongStream.range(1, 1000).filter(f -> router.migrationTargetForFlight(f).isPresent())
+                .findFirst().orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        routing.close();
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(routing.shards().get(shard));
+    }
+
+    private void booking(String suffix, long id, long flightId, String status) {
+        jdbc(0).update("INSERT INTO bookings" + suffix + " VALUES (?, ?, ?, ?)", id, "P" + id, flightId, status);
+        jdbc(0).update("INSERT INTO passengers" + suffix + " VALUES (?, '1A', ?)", id * 10, id);
+    }
+
+    @Test
+    void mirrorAfterArchiving_movesTheTargetCopyToItsArchiveTables() {
+        booking("", 1, movedFlight, "CANCELLED");
+        migrator.mirror(movedFlight, List.of(1L));
+        assertThat(jdbc(1).queryForList("SELECT id FROM bookings", Long.class)).containsExactly(1L);
+
+        // what BookingArchiveJob does on the owner shard, followed by its mirror
+        jdbc(0).update("INSERT INTO bookings_archive SELECT * FROM bookings WHERE id = 1");
+        jdbc(0).update("INSERT INTO passengers_archive SELECT * FROM passengers WHERE booking_id = 1");
+        jdbc(0).update("DELETE FROM passengers WHERE booking_id = 1");
+        jdbc(0).update("DELETE FROM bookings WHERE id = 1");
+        migrator.mirror(movedFlight, List.of(1L));
+
+        assertThat(jdbc(1).queryForObject("SELECT COUNT(*) FROM bookings", Integer.class)).isZero();
+        assertThat(jdbc(1).queryForObject("SELECT COUNT(*) FROM passengers", Integer.class)).isZero();
+        assertThat(jdbc(1).queryForList("SELECT pnr FROM bookings_archive", String.class)).containsExactly("P1");
+        assertThat(jdbc(1).queryForList("SELECT id FROM passengers_archive", Long.class)).containsExactly(10L);
+    }
+
+    @Test
+    void mirror_copiesTheSagaRowWithItsBooking() {
+        booking("", 1, movedFlight, "RESERVING");
+        jdbc(0).update("INSERT INTO booking_sagas VALUES (1, 'SEATS_PENDING')");
+        migrator.mirror(movedFlight, List.of(1L));
+
+        // SagaOrchestrator confirms the booking on the owner shard, then mirrors it
+        jdbc(0).update("UPDATE bookings SET status = 'ACTIVE' WHERE id = 1");
+        jdbc(0).update("UPDATE booking_sagas SET state = 'COMPLETED' WHERE booking_id = 1");
+        migrator.mirror(movedFlight, List.of(1L));
+
+        assertThat(jdbc(1).queryForList("SELECT status FROM bookings", String.class)).containsExactly("ACTIVE");
+        assertThat(jdbc(1).queryForList("SELECT state FROM booking_sagas", String.class)).containsExactly("COMPLETED");
+    }
+
+    @Test
+    void backfill_copiesArchivedBookingsOfMovedFlights() {
+        booking("", 1, movedFlight, "ACTIVE");
+        booking("_archive", 2, movedFlight, "CANCELLED");
+        ShardBackfillJob job = new ShardBackfillJob("job-1", 1, 2);
+
+        migrator.backfill(job);
+
+        assertThat(job.toStatus().getState()).isEqualTo("COMPLETED");
+        assertThat(jdbc(1).queryForList("SELECT id FROM bookings", Long.class)).containsExactly(1L);
+        assertThat(jdbc(1).queryForList("SELECT id FROM bookings_archive", Long.class)).containsExactly(2L);
+        assertThat(jdbc(1).queryForList("SELECT id FROM passengers_archive", Long.class)).containsExactly(20L);
+    }
+}
@@ -0,0 +1,69 @@
+package com.bookingservice.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for ShardRing and ShardRouter (flight to shard placement and resharding).
+ */
+class ShardRouterTest {
+
+    private static final int FLIGHTS = 100_000;
+
+    @Test
+    void ring_spreadsFlightsEvenly() {
+        ShardRing ring = new ShardRing(4, 128);
+        int[] perShard = new int[4];
+        for (long flightId = 1; flightId <= FLIGHTS; flightId++) {
+            perShard[ring.shardFor(flightId)]++;
+        }
+        for (int count : perShard) {
+            assertThat(count).isBetween(FLIGHTS / 4 * 8 / 10, FLIGHTS / 4 * 12 / 10);
+        }
+        assertThat(ring.shardFor(42L)).isEqualTo(new ShardRing(4, 128).shardFor(42L));
+    }
+
+    @Test
+    void growingTheRing_onlyMovesFlightsToTheNewShard() {
+        ShardRing before = new ShardRing(4, 128);
+        ShardRing after = new ShardRing(5, 128);
+        int moved = 0;
+        for (long flightId = 1; flightId <= FLIGHTS; flightId++) {
+            int from = before.shardFor(flightId);
+            int to = after.shardFor(flightId);
+            if (from != to) {
+                assertThat(to).isEqualTo(4);
+                moved++;
+            }
+        }
+        // about a fifth of the flights move, nothing moves between the old shards
+        assertThat(moved).isBetween(FLIGHTS / 5 * 7 / 10, FLIGHTS / 5 * 13 / 10);
+    }
+
+    @Test
+    void migrationTarget_onlyForFlightsThatMove() {
+        ShardRouter router = new ShardRouter(4, 128, 5);
+        ShardRing target = new ShardRing(5, 128);
+        assertThat(router.isMigrating()).isTrue();
+        for (long flightId = 1; flightId <= 1_000; flightId++) {
+            OptionalInt to = router.migrationTargetForFlight(flightId);
+            if (router.shardForFlight(flightId) == target.shardFor(flightId)) {
+                assertThat(to).isEmpty();
+            } else {
+                assertThat(to).hasValue(target.shardFor(flightId));
+            }
+            assertThat(router.targetShardForFlight(flightId)).isEqualTo(target.shardFor(flightId));
+        }
+    }
+
+    @Test
+    void single_keepsEverythingOnTheHomeShard() {
+        ShardRouter router = ShardRouter.single();
+        assertThat(router.isSharded()).isFalse();
+        assertThat(router.shardForFlight(123L)).isEqualTo(ShardRouter.HOME_SHARD);
+        assertThat(router.migrationTargetForFlight(123L)).isEmpty();
+    }
+}
@@ -0,0 +1,59 @@
+package com.bookingservice.shard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ShardSequenceSeeder against in-memory H2 databases holding rows written before the sequences existed.
+ */
+class ShardSequenceSeederTest {
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource ds = new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        for (String table : List.of("bookings", "bookings_archive", "passengers", "passengers_archive")) {
+            jdbc.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY)");
+        }
+        jdbc.execute("CREATE SEQUENCE booking_seq START WITH 1 INCREMENT BY 50");
+        jdbc.execute("CREATE SEQUENCE passenger_seq START WITH 1 INCREMENT BY 50");
+        return ds;
+    }
+
+    private static long next(JdbcTemplate jdbc, String sequence) {
+        return jdbc.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+    }
+
+    @Test
+    void sequencesMovePastExistingIds_includingArchivedOnes() {
+        DriverManagerDataSource ds = database("upgrade");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.update("INSERT INTO bookings VALUES (120)");
+        jdbc.update("INSERT INTO bookings_archive VALUES (300)");
+        jdbc.update("INSERT INTO passengers VALUES (700)");
+
+        new ShardSequenceSeeder(List.of(ds)).afterSingletonsInstantiated();
+
+        // the pooled optimizer hands out [value - 49, value]
+        assertThat(next(jdbc, "booking_seq") - (ShardSequenceSeeder.ALLOCATION_SIZE - 1)).isGreaterThan(300);
+        assertThat(next(jdbc, "passenger_seq") - (ShardSequenceSeeder.ALLOCATION_SIZE - 1)).isGreaterThan(700);
+    }
+
+    @Test
+    void shardsGetDisjointRanges_andAdvancedSequencesAreLeftAlone() {
+        DriverManagerDataSource shard0 = database("shard0");
+        DriverManagerDataSource shard1 = database("shard1");
+        new JdbcTemplate(shard0).execute("ALTER SEQUENCE passenger_seq RESTART WITH 5000");
+
+        new ShardSequenceSeeder(List.of(shard0, shard1)).afterSingletonsInstantiated();
+
+        assertThat(next(new JdbcTemplate(shard0), "booking_seq")).isEqualTo(ShardSequenceSeeder.ALLOCATION_SIZE);
+        assertThat(next(new JdbcTemplate(shard0), "passenger_seq")).isGreaterThanOrEqualTo(5000);
+        assertThat(next(new JdbcTemplate(shard1), "booking_seq"))
+                .isEqualTo((1L << ShardSequenceSeeder.RANGE_BITS) + ShardSequenceSeeder.ALLOCATION_SIZE);
+    }
+}
@@ -0,0 +1,63 @@
+package com.flightbooking.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions to the replica while {@link ReplicaHealth} reports it
+ * usable, everything else to the primary.
+ *
+ * The read-only flag is only known once the transaction has started, after the transaction manager
+ * asked for a connection, so this must sit behind a {@link LazyConnectionDataSourceProxy}
+ * (see {@link #lazy}); the physical connection is then fetched at the first statement.
+ *
+ * Metrics: {metricPrefix}.datasource.reads{target}, e.g. booking.datasource.reads.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaHealth replicaHealth;
+    private final Counter toReplica;
+    private final Counter readsOnPrimary;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaHealth replicaHealth,
+                                      String metricPrefix, MeterRegistry meterRegistry) {
+        this.replicaHealth = replicaHealth;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.toReplica = Counter.builder(metricPrefix + ".datasource.reads")
+                .description("Read-only transactions by the pool that served them")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.readsOnPrimary = Counter.builder(metricPrefix + ".datasource.reads")
+                .description("Read-only transactions by the pool that served them")
+                .tag("target", "primary")
+                .register(meterRegistry);
+    }
+
+    public static DataSource lazy(ReadWriteRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        if (replicaHealth.isUsable()) {
+            toReplica.increment();
+            return Target.REPLICA;
+        }
+        readsOnPrimary.increment();
+        return Target.PRIMARY;
+    }
+}
@@ -0,0 +1,118 @@
+package com.flightbooking.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checks whether the read replica may serve reads: it must accept connections and, when
+ * a lag query is configured, be no more than max-lag behind the primary.
+ *
+ * The lag query returns replication lag in seconds in its first column. For "SHOW REPLICA STATUS" the
+ * Seconds_Behind_Source column is used; a NULL lag (replication stopped) or no row counts as unusable.
+ *
+ * Metrics: {metricPrefix}.datasource.replica.usable and {metricPrefix}.datasource.replica.lag.
+ */
+public class ReplicaHealth implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealth.class);
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final Duration interval;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaHealth(DataSource replica, String lagQuery, Duration maxLag, Duration interval,
+                         String metricPrefix, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.lagQuery = lagQuery == null ? "" : lagQuery.trim();
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.interval = interval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-health");
+            t.setDaemon(true);
+            return t;
+        });
+
+        Gauge.builder(metricPrefix + ".datasource.replica.usable", this, h -> h.usable ? 1 : 0)
+                .description("1 when read-only transactions are routed to the replica")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".datasource.replica.lag", this, h -> h.lagSeconds)
+                .description("Last observed replication lag")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /** Runs the first check synchronously, then repeats it every interval. */
+    public void start() {
+        check();
+        scheduler.scheduleWithFixedDelay(this::check, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    void check() {
+        boolean nowUsable;
+        try (Connection con = replica.getConnection()) {
+            if (lagQuery.isEmpty()) {
+                lagSeconds = Double.NaN;
+                nowUsable = con.isValid(2);
+            } else {
+                Double lag = readLag(con);
+                lagSeconds = lag == null ? Double.NaN : lag;
+                nowUsable = lag != null && lag <= maxLagSeconds;
+            }
+        } catch (SQLException | RuntimeException ex) {
+            lagSeconds = Double.NaN;
+            nowUsable = false;
+            log.debug("Replica health check failed: {}", ex.toString());
+        }
+
+        if (nowUsable != usable) {
+            if (nowUsable) {
+                log.info("Replica usable again, routing read-only transactions to it");
+            } else {
+                log.warn("Replica unavailable or lagging (lag={}s, max={}s), routing reads to primary",
+                        lagSeconds, maxLagSeconds);
+            }
+        }
+        usable = nowUsable;
+    }
+
+    private Double readLag(Connection con) throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                return null;
+            }
+            Object value;
+            try {
+                value = rs.getObject("Seconds_Behind_Source");
+            } catch (SQLException noSuchColumn) {
+                value = rs.getObject(1);
+            }
+            return value == null ? null : ((Number) value).doubleValue();
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,99 @@
+package com.flightbooking.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory H2 databases stand in for primary and replica; each knows its own name.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+    private ReplicaHealth health;
+    private SimpleMeterRegistry registry;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource ds = new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate init = new JdbcTemplate(ds);
+        init.execute("CREATE TABLE whoami (name VARCHAR(16))");
+        init.update("INSERT INTO whoami VALUES (?)", name);
+        init.execute("CREATE TABLE replication_lag (seconds INT)");
+        init.update("INSERT INTO replication_lag VALUES (0)");
+        return ds;
+    }
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        registry = new SimpleMeterRegistry();
+        health = new ReplicaHealth(replica, "SELECT seconds FROM replication_lag", Duration.ofSeconds(5),
+                Duration.ofHours(1), "booking", registry);
+        health.start();
+
+        DataSource routing = ReadWriteRoutingDataSource.lazy(
+                new ReadWriteRoutingDataSource(primary, replica, health, "booking", registry));
+        jdbc = new JdbcTemplate(routing);
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(txManager);
+        readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        health.close();
+    }
+
+    private String whoAnswers(TransactionTemplate tx) {
+        return tx.execute(s -> jdbc.queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica_writesToPrimary() {
+        assertThat(whoAnswers(readOnly)).isEqualTo("replica");
+        assertThat(whoAnswers(readWrite)).isEqualTo("primary");
+        assertThat(jdbc.queryForObject("SELECT name FROM whoami", String.class)).isEqualTo("primary");
+        assertThat(registry.get("booking.datasource.reads").tag("target", "replica").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary_andRecovers() {
+        new JdbcTemplate(replica).update("UPDATE replication_lag SET seconds = 30");
+        health.check();
+
+        assertThat(health.isUsable()).isFalse();
+        assertThat(whoAnswers(readOnly)).isEqualTo("primary");
+        assertThat(registry.get("booking.datasource.replica.lag").gauge().value()).isEqualTo(30.0);
+
+        new JdbcTemplate(replica).update("UPDATE replication_lag SET seconds = 1");
+        health.check();
+
+        assertThat(whoAnswers(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() {
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+        health.check();
+
+        assertThat(health.isUsable()).isFalse();
+        assertThat(registry.get("booking.datasource.replica.usable").gauge().value()).isZero();
+        assertThat(whoAnswers(readOnly)).isEqualTo("primary");
+    }
+}
@@ -0,0 +1,286 @@
+package com.flightbooking.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Latency-aware replacement for Spring Cloud LoadBalancer's round robin ("power of two choices").
+ *
+ * Each request draws two different instances at random and takes the cheaper one. Cost is the
+ * instance's peak-EWMA latency times (outstanding requests + 1): a slower call raises the average
+ * at once, faster calls bring it down over decay-time, and an idle instance decays towards zero so
+ * it gets probed again. A GC-pausing or overloaded instance is therefore avoided after its first
+ * slow calls without being starved for good. An instance without a latency sample yet costs
+ * nothing while idle and is kept to one request at a time until it has answered.
+ *
+ * Latency and outstanding requests come from the LoadBalancerLifecycle callbacks, which the Feign
+ * load-balancer client and the gateway's ReactiveLoadBalancerClientFilter both invoke. Failed calls
+ * (exceptions, 5xx) count as at least failure-penalty. A call that never completes (cancelled
+ * exchange) is dropped from the outstanding count after inflight-timeout.
+ *
+ * Metrics per instance, tagged service and instance: loadbalancer.instance.cost,
+ * loadbalancer.instance.latency (EWMA, seconds) and loadbalancer.instance.outstanding.
+ */
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private static final Logger log = LoggerFactory.getLogger(PeakEwmaLoadBalancer.class);
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+    /** Stats of an instance not drawn for this long are dropped (it has probably left the registry). */
+    private static final long IDLE_STATS_NANOS = TimeUnit.MINUTES.toNanos(5);
+    /** Cost of an unmeasured instance with a request in flight: behind every measured one. */
+    private static final double COLD_PENALTY_NANOS = 1e15;
+
+    public record Settings(Duration decayTime, Duration failurePenalty, Duration inflightTimeout) {
+    }
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final Supplier<RandomGenerator> random;
+    private final double decayNanos;
+    private final long failurePenaltyNanos;
+    private final long inflightTimeoutNanos;
+
+    private final Map<String, InstanceStats> statsByInstance = new ConcurrentHashMap<>();
+    private final Map<RequestKey, Inflight> inflight = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep;
+
+    public PeakEwmaLoadBalancer(String serviceId, ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                Settings settings, MeterRegistry meterRegistry) {
+        this(serviceId, supplierProvider, settings, meterRegistry, System::nanoTime, ThreadLocalRandom::current);
+    }
+
+    PeakEwmaLoadBalancer(String serviceId, ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                         Settings settings, MeterRegistry meterRegistry, LongSupplier nanoClock,
+                         Supplier<RandomGenerator> random) {
+        this.serviceId = serviceId;
+        this.supplierProvider = supplierProvider;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.random = random;
+        this.decayNanos = settings.decayTime().toNanos();
+        this.failurePenaltyNanos = settings.failurePenalty().toNanos();
+        this.inflightTimeoutNanos = settings.inflightTimeout().toNanos();
+        this.lastSweep = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        long now = nanoClock.getAsLong();
+        sweepIfDue(now);
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+        RandomGenerator rnd = random.get();
+        int a = rnd.nextInt(instances.size());
+        int b = rnd.nextInt(instances.size() - 1);
+        if (b >= a) {
+            b++;
+        }
+        ServiceInstance first = instances.get(a);
+        ServiceInstance second = instances.get(b);
+        return new DefaultResponse(stats(second, now).cost(now) < stats(first, now).cost(now) ? second : first);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        InstanceStats stats = stats(lbResponse.getServer(), now);
+        stats.outstanding.incrementAndGet();
+        inflight.put(new RequestKey(request), new Inflight(stats, now));
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Inflight call = inflight.remove(new RequestKey(completionContext.getLoadBalancerRequest()));
+        if (call == null) {
+            return; // no instance was chosen, or the call already timed out of the inflight map
+        }
+        call.stats.outstanding.decrementAndGet();
+        long now = nanoClock.getAsLong();
+        long latency = now - call.startedAt;
+        if (failed(completionContext)) {
+            latency = Math.max(latency, failurePenaltyNanos);
+        }
+        call.stats.observe(latency, now);
+    }
+
+    private static boolean failed(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        return completionContext.getClientResponse() instanceof ResponseData data
+                && data.getHttpStatus() != null && data.getHttpStatus().is5xxServerError();
+    }
+
+    double cost(ServiceInstance instance) {
+        long now = nanoClock.getAsLong();
+        return stats(instance, now).cost(now);
+    }
+
+    private InstanceStats stats(ServiceInstance instance, long now) {
+        String key = instance.getInstanceId() != null ? instance.getInstanceId()
+                : instance.getHost() + ":" + instance.getPort();
+        InstanceStats stats = statsByInstance.computeIfAbsent(key, InstanceStats::new);
+        stats.lastUsedNanos = now;
+        return stats;
+    }
+
+    private void sweepIfDue(long now) {
+        long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        for (Map.Entry<RequestKey, Inflight> entry : inflight.entrySet()) {
+            Inflight call = entry.getValue();
+            if (now - call.startedAt > inflightTimeoutNanos && inflight.remove(entry.getKey(), call)) {
+                call.stats.outstanding.decrementAndGet();
+            }
+        }
+        for (InstanceStats stats : statsByInstance.values()) {
+            if (stats.outstanding.get() == 0 && now - stats.lastUsedNanos > IDLE_STATS_NANOS
+                    && statsByInstance.remove(stats.instance, stats)) {
+                stats.meters.forEach(meterRegistry::remove);
+            }
+        }
+    }
+
+    private record Inflight(InstanceStats stats, long startedAt) {
+    }
+
+    /** Lifecycle callbacks get the same Request object; its equals() compares contents, so key by identity. */
+    private record RequestKey(Request<?> request) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RequestKey other && other.request == request;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(request);
+        }
+    }
+
+    private final class InstanceStats {
+
+        private final String instance;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final List<Meter> meters;
+        private volatile long lastUsedNanos;
+
+        // guarded by this
+        private boolean sampled;
+        private double ewmaNanos;
+        private long stampNanos;
+
+        InstanceStats(String instance) {
+            this.instance = instance;
+            Tags tags = Tags.of("service", serviceId, "instance", instance);
+            this.meters = List.of(
+                    Gauge.builder("loadbalancer.instance.cost", this, s -> s.cost(nanoClock.getAsLong()) / 1e9)
+                            .description("Peak-EWMA latency in seconds times (outstanding requests + 1)")
+                            .tags(tags)
+                            .register(meterRegistry),
+                    Gauge.builder("loadbalancer.instance.latency", this, s -> s.latency(nanoClock.getAsLong()) / 1e9)
+                            .description("Peak-EWMA latency of calls to the instance")
+                            .baseUnit("seconds")
+                            .tags(tags)
+                            .register(meterRegistry),
+                    Gauge.builder("loadbalancer.instance.outstanding", outstanding, AtomicInteger::get)
+                            .description("Requests in flight to the instance")
+                            .tags(tags)
+                            .register(meterRegistry));
+        }
+
+        /** Peak EWMA: a sample above the average replaces it, a lower one is blended in by elapsed time. */
+        synchronized void observe(long latencyNanos, long now) {
+            if (!sampled || latencyNanos > ewmaNanos) {
+                ewmaNanos = latencyNanos;
+            } else {
+                double w = Math.exp(-Math.max(0, now - stampNanos) / decayNanos);
+                ewmaNanos = ewmaNanos * w + latencyNanos * (1 - w);
+            }
+            sampled = true;
+            stampNanos = now;
+        }
+
+        /** Current average, decayed for the time since the last sample; NaN before the first one. */
+        synchronized double latency(long now) {
+            if (!sampled) {
+                return Double.NaN;
+            }
+            return ewmaNanos * Math.exp(-Math.max(0, now - stampNanos) / decayNanos);
+        }
+
+        double cost(long now) {
+            int inFlight = outstanding.get();
+            double latency = latency(now);
+            if (Double.isNaN(latency)) {
+                return inFlight == 0 ? 0 : COLD_PENALTY_NANOS + inFlight;
+            }
+            return latency * (inFlight + 1);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.flightbooking.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * LoadBalancer client configuration, registered by each service with
+ * {@code @LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfig.class)}: not a
+ * @Configuration, so it is only loaded into each service's load-balancer child context. Without this
+ * bean the default round robin applies.
+ *
+ * Settings under load-balancer.peak-ewma.*. The durations are read from the Environment rather than
+ * bound with @Value: the child context has no Spring Boot conversion service, so "10s" would not
+ * convert to a Duration there.
+ */
+public class PeakEwmaLoadBalancerConfig {
+
+    static final String PREFIX = "load-balancer.peak-ewma.";
+
+    @Bean
+    @ConditionalOnProperty(name = PREFIX + "enabled", havingValue = "true", matchIfMissing = true)
+    PeakEwmaLoadBalancer peakEwmaLoadBalancer(
+            Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory,
+            MeterRegistry meterRegistry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(serviceId,
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                settings(environment),
+                meterRegistry);
+    }
+
+    static PeakEwmaLoadBalancer.Settings settings(Environment environment) {
+        return new PeakEwmaLoadBalancer.Settings(
+                duration(environment, "decay-time", "10s"),
+                duration(environment, "failure-penalty", "1s"),
+                duration(environment, "inflight-timeout", "30s"));
+    }
+
+    private static Duration duration(Environment environment, String key, String defaultValue) {
+        return DurationStyle.detectAndParse(environment.getProperty(PREFIX + key, defaultValue));
+    }
+}
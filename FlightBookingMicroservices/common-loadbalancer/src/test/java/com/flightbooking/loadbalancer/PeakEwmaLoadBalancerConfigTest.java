@@ -0,0 +1,52 @@
+package com.flightbooking.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * PeakEwmaLoadBalancerConfig in a plain context like the load-balancer child context: no Spring Boot
+ * conversion service.
+ */
+class PeakEwmaLoadBalancerConfigTest {
+
+    private static AnnotationConfigApplicationContext childContext(MockEnvironment environment) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.setEnvironment(environment.withProperty(LoadBalancerClientFactory.PROPERTY_NAME, "flight-service"));
+        context.registerBean(LoadBalancerClientFactory.class, () -> mock(LoadBalancerClientFactory.class));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.register(PeakEwmaLoadBalancerConfig.class);
+        context.refresh();
+        return context;
+    }
+
+    @Test
+    void durationsInBootFormat_bindWithoutAConversionService() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("load-balancer.peak-ewma.decay-time", "2s")
+                .withProperty("load-balancer.peak-ewma.inflight-timeout", "PT1M");
+
+        try (AnnotationConfigApplicationContext context = childContext(environment)) {
+            assertThat(context.getBeansOfType(PeakEwmaLoadBalancer.class)).hasSize(1);
+        }
+        assertThat(PeakEwmaLoadBalancerConfig.settings(environment)).isEqualTo(new PeakEwmaLoadBalancer.Settings(
+                Duration.ofSeconds(2), Duration.ofSeconds(1), Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void disabled_leavesTheDefaultRoundRobin() {
+        MockEnvironment environment = new MockEnvironment().withProperty("load-balancer.peak-ewma.enabled", "false");
+
+        try (AnnotationConfigApplicationContext context = childContext(environment)) {
+            assertThat(context.getBeansOfType(PeakEwmaLoadBalancer.class)).isEmpty();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.flightbooking.loadbalancer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PeakEwmaLoadBalancerTest {
+
+    private final ServiceInstance a = new DefaultServiceInstance("a", "flight-service", "10.0.0.1", 8080, false);
+    private final ServiceInstance b = new DefaultServiceInstance("b", "flight-service", "10.0.0.2", 8080, false);
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private final Random random = new Random(7);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private PeakEwmaLoadBalancer balancer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        supplierProvider = mock(ObjectProvider.class);
+        balancer = new PeakEwmaLoadBalancer("flight-service", supplierProvider,
+                new PeakEwmaLoadBalancer.Settings(Duration.ofSeconds(10), Duration.ofSeconds(1), Duration.ofSeconds(30)),
+                meterRegistry, clock::get, () -> random);
+    }
+
+    private Request<Object> start(ServiceInstance instance) {
+        Request<Object> request = new DefaultRequest<>();
+        balancer.onStartRequest(request, new DefaultResponse(instance));
+        return request;
+    }
+
+    private void complete(Request<Object> request, ServiceInstance instance, CompletionContext.Status status) {
+        balancer.onComplete(new CompletionContext<>(status, request, new DefaultResponse(instance)));
+    }
+
+    private void call(ServiceInstance instance, long millis, CompletionContext.Status status) {
+        Request<Object> request = start(instance);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        complete(request, instance, status);
+    }
+
+    private ServiceInstance choose(ServiceInstance... instances) {
+        return balancer.choose(List.of(instances)).getServer();
+    }
+
+    private double gauge(String name, String instance) {
+        return meterRegistry.get(name).tag("instance", instance).gauge().value();
+    }
+
+    @Test
+    void slowInstance_isAvoided() {
+        call(a, 10, CompletionContext.Status.SUCCESS);
+        call(b, 500, CompletionContext.Status.SUCCESS);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(choose(a, b)).isEqualTo(a);
+            assertThat(choose(b, a)).isEqualTo(a);
+        }
+        assertThat(gauge("loadbalancer.instance.latency", "b")).isCloseTo(0.5, within(0.001));
+    }
+
+    @Test
+    void outstandingRequests_shiftLoadToTheOtherInstance() {
+        call(a, 10, CompletionContext.Status.SUCCESS);
+        call(b, 10, CompletionContext.Status.SUCCESS);
+        start(a);
+        start(a);
+
+        assertThat(choose(a, b)).isEqualTo(b);
+        assertThat(gauge("loadbalancer.instance.outstanding", "a")).isEqualTo(2.0);
+    }
+
+    @Test
+    void failedCall_countsAsFailurePenalty() {
+        call(a, 10, CompletionContext.Status.SUCCESS);
+        call(b, 2, CompletionContext.Status.FAILED);   // connection refused: fast, but not healthy
+
+        assertThat(gauge("loadbalancer.instance.latency", "b")).isCloseTo(1.0, within(0.001));
+        assertThat(choose(a, b)).isEqualTo(a);
+    }
+
+    @Test
+    void serverErrorResponse_countsAsFailurePenalty() {
+        // how the gateway's ReactiveLoadBalancerClientFilter reports a proxied 503: SUCCESS with the response status
+        call(a, 10, CompletionContext.Status.SUCCESS);
+        RequestData requestData = new RequestData(HttpMethod.GET, URI.create("http://flight-service/api/flights/7"),
+                new HttpHeaders(), new HttpHeaders(), Map.of());
+        Request<Object> request = new DefaultRequest<>(new RequestDataContext(requestData, "default"));
+        balancer.onStartRequest(request, new DefaultResponse(b));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(3));
+        balancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, new DefaultResponse(b),
+                new ResponseData(HttpStatus.SERVICE_UNAVAILABLE, new HttpHeaders(), null, requestData)));
+
+        assertThat(gauge("loadbalancer.instance.latency", "b")).isCloseTo(1.0, within(0.001));
+        assertThat(choose(a, b)).isEqualTo(a);
+    }
+
+    @Test
+    void spikeDecays_soAnIdleInstanceIsProbedAgain() {
+        call(b, 2000, CompletionContext.Status.SUCCESS);   // GC pause
+        call(a, 10, CompletionContext.Status.SUCCESS);
+        assertThat(choose(a, b)).isEqualTo(a);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        call(a, 50, CompletionContext.Status.SUCCESS);     // a now under load, b idle for a minute
+
+        assertThat(choose(a, b)).isEqualTo(b);
+    }
+
+    @Test
+    void newInstance_getsOneRequestUntilItHasAnswered() {
+        ServiceInstance fresh = new DefaultServiceInstance("c", "flight-service", "10.0.0.3", 8080, false);
+        call(a, 10, CompletionContext.Status.SUCCESS);
+
+        assertThat(choose(a, fresh)).isEqualTo(fresh);
+        Request<Object> first = start(fresh);
+        assertThat(choose(a, fresh)).isEqualTo(a);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(5));
+        complete(first, fresh, CompletionContext.Status.SUCCESS);
+        assertThat(choose(a, fresh)).isEqualTo(fresh);
+    }
+
+    @Test
+    void callsThatNeverComplete_expireFromTheOutstandingCount() {
+        Request<Object> lost = start(a);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        choose(a, b);
+
+        assertThat(gauge("loadbalancer.instance.outstanding", "a")).isZero();
+        complete(lost, a, CompletionContext.Status.SUCCESS);
+        assertThat(gauge("loadbalancer.instance.outstanding", "a")).isZero();
+    }
+
+    @Test
+    void chooseFromSupplier_singleAndNoInstances() {
+        when(supplierProvider.getIfAvailable(any())).thenReturn(ServiceInstanceListSuppliers.from("flight-service", a));
+        Response<ServiceInstance> single = balancer.choose(new DefaultRequest<>()).block();
+        assertThat(single.getServer()).isEqualTo(a);
+
+        when(supplierProvider.getIfAvailable(any())).thenReturn(ServiceInstanceListSuppliers.from("flight-service"));
+        Response<ServiceInstance> none = balancer.choose(new DefaultRequest<>()).block();
+        assertThat(none.hasServer()).isFalse();
+    }
+}
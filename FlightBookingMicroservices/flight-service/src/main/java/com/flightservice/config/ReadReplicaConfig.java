@@ -0,0 +1,75 @@
+package com.flightservice.config;
+
+import com.flightbooking.datasource.ReadWriteRoutingDataSource;
+import com.flightbooking.datasource.ReplicaHealth;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Primary + read replica pools behind a routing DataSource: @Transactional(readOnly = true) work goes
+ * to the replica while it is healthy and within flight.datasource.replica.max-lag.
+ *
+ * Both pools are Hikari beans, so Boot binds hikaricp.connections.* metrics tagged pool=primary|replica.
+ * Off by default: without flight.datasource.replica.enabled Boot's single DataSource is used.
+ */
+@Configuration
+@ConditionalOnProperty(name = "flight.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    @ConfigurationProperties("flight.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${flight.datasource.replica.url}") String url,
+                                              @Value("${flight.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${flight.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setJdbcUrl(url);
+        ds.setUsername(username);
+        ds.setPassword(password);
+        if (properties.getDriverClassName() != null) {
+            ds.setDriverClassName(properties.getDriverClassName());
+        }
+        ds.setPoolName("replica");
+        ds.setReadOnly(true);
+        return ds;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaHealth replicaHealth(@Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                                       @Value("${flight.datasource.replica.lag-query:}") String lagQuery,
+                                       @Value("${flight.datasource.replica.max-lag:5s}") Duration maxLag,
+                                       @Value("${flight.datasource.replica.check-interval:2s}") Duration interval,
+                                       MeterRegistry meterRegistry) {
+        return new ReplicaHealth(replicaDataSource, lagQuery, maxLag, interval, "flight", meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") HikariDataSource replicaDataSource,
+                                 ReplicaHealth replicaHealth,
+                                 MeterRegistry meterRegistry) {
+        return ReadWriteRoutingDataSource.lazy(
+                new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaHealth, "flight",
+                        meterRegistry));
+    }
+}
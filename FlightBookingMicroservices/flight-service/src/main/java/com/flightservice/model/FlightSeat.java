@@ -3,7 +3,10 @@ package com.flightservice.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "flight_seats")
+@Table(name = "flight_seats", indexes = {
+        // seats held by a booking saga (idempotent reserve / release)
+        @Index(name = "idx_flight_seats_reservation", columnList = "reservation_id")
+})
 public class FlightSeat {
 
     @Id
@@ -16,6 +19,10 @@ public class FlightSeat {
 
     private String passengerName; 
 
+    // booking saga that reserved this seat (booking id in booking-service); null when not reserved by one
+    @Column(name = "reservation_id")
+    private Long reservationId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "flight_id")
     private Flight flight;
@@ -57,6 +64,14 @@ public class FlightSeat {
 		this.passengerName = passengerName;
 	}
 
+	public Long getReservationId() {
+		return reservationId;
+	}
+
+	public void setReservationId(Long reservationId) {
+		this.reservationId = reservationId;
+	}
+
 	public Flight getFlight() {
 		return flight;
 	}
@@ -1,7 +1,11 @@
 package com.flightservice.repository;
 
 import com.flightservice.model.FlightSeat;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +13,13 @@ import java.util.List;
 @Repository
 public interface FlightSeatRepository extends JpaRepository<FlightSeat, Long> {
     List<FlightSeat> findByFlightIdAndStatus(Long flightId, String status);
-}
\ No newline at end of file
+
+    /**
+     * Seats of a flight in a given status, locked until commit so concurrent reservations cannot pick the same seat.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from FlightSeat s where s.flight.id = :flightId and s.status = :status order by s.id")
+    List<FlightSeat> lockByFlightIdAndStatus(@Param("flightId") Long flightId, @Param("status") String status);
+
+    List<FlightSeat> findByReservationId(Long reservationId);
+}
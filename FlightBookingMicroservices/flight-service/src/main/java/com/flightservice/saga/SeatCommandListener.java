@@ -0,0 +1,35 @@
+package com.flightservice.saga;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes seat commands of the booking saga (flight.saga.enabled) and answers on
+ * flight-seat-replies with the same key (flightId). The reply is sent after the seat transaction
+ * has committed; if it is lost, booking-service resends the command and gets the same answer.
+ */
+@Component
+public class SeatCommandListener {
+
+    public static final String TOPIC_SEAT_COMMANDS = "flight-seat-commands";
+    public static final String TOPIC_SEAT_REPLIES = "flight-seat-replies";
+
+    private final SeatReservationService reservations;
+    private final KafkaTemplate<String, SeatSagaMessage> kafkaTemplate;
+
+    public SeatCommandListener(SeatReservationService reservations, KafkaTemplate<String, SeatSagaMessage> kafkaTemplate) {
+        this.reservations = reservations;
+        this.kafkaTemplate = kafkaTemplate;
+    }
+
+    @KafkaListener(topics = TOPIC_SEAT_COMMANDS, autoStartup = "${flight.saga.enabled:false}")
+    public void onCommand(ConsumerRecord<String, SeatSagaMessage> command) {
+        SeatSagaMessage reply = reservations.handle(command.value());
+        if (reply != null) {
+            // block so the offset is only committed once the reply is on the broker
+            kafkaTemplate.send(TOPIC_SEAT_REPLIES, command.key(), reply).join();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.flightservice.saga;
+
+import com.flightservice.model.FlightSeat;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightSeatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Seat side of the booking saga. Both commands are idempotent per sagaId, because booking-service
+ * resends a command whose reply it has not seen:
+ *
+ *  - RESERVE_SEATS: seats already held by the saga are reported again; otherwise the requested seat
+ *    numbers plus enough other AVAILABLE seats to reach seatCount are marked BOOKED for the saga, or
+ *    nothing is reserved and the command is rejected.
+ *  - RELEASE_SEATS: the saga's seats go back to AVAILABLE (none left is fine).
+ */
+@Service
+public class SeatReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(SeatReservationService.class);
+
+    static final String STATUS_AVAILABLE = "AVAILABLE";
+    static final String STATUS_BOOKED = "BOOKED";
+
+    private final FlightRepository flightRepository;
+    private final FlightSeatRepository seatRepository;
+
+    public SeatReservationService(FlightRepository flightRepository, FlightSeatRepository seatRepository) {
+        this.flightRepository = flightRepository;
+        this.seatRepository = seatRepository;
+    }
+
+    /** Apply a command; returns the reply, or null for a message that is not a command. */
+    @Transactional
+    public SeatSagaMessage handle(SeatSagaMessage command) {
+        if (command == null || command.getSagaId() == null || command.getFlightId() == null || command.getType() == null) {
+            log.warn("Ignoring malformed seat command");
+            return null;
+        }
+        return switch (command.getType()) {
+            case SeatSagaMessage.RESERVE_SEATS -> reserve(command);
+            case SeatSagaMessage.RELEASE_SEATS -> release(command);
+            default -> {
+                log.warn("Unknown seat command type {} for saga {}", command.getType(), command.getSagaId());
+                yield null;
+            }
+        };
+    }
+
+    private SeatSagaMessage reserve(SeatSagaMessage command) {
+        List<FlightSeat> held = seatRepository.findByReservationId(command.getSagaId());
+        if (!held.isEmpty()) {
+            return reply(command, SeatSagaMessage.SEATS_RESERVED, seatNumbers(held), null);
+        }
+        if (!flightRepository.existsById(command.getFlightId())) {
+            return reply(command, SeatSagaMessage.SEATS_REJECTED, null, "flight not found: " + command.getFlightId());
+        }
+
+        List<String> requested = Optional.ofNullable(command.getSeatNumbers()).orElse(Collections.emptyList());
+        int count = Math.max(command.getSeatCount() == null ? 0 : command.getSeatCount(), requested.size());
+        if (count <= 0) {
+            return reply(command, SeatSagaMessage.SEATS_REJECTED, null, "no seats requested");
+        }
+
+        Map<String, FlightSeat> available = new LinkedHashMap<>();
+        for (FlightSeat seat : seatRepository.lockByFlightIdAndStatus(command.getFlightId(), STATUS_AVAILABLE)) {
+            available.putIfAbsent(seat.getSeatNumber().trim().toUpperCase(Locale.ROOT), seat);
+        }
+
+        List<FlightSeat> picked = new ArrayList<>(count);
+        List<String> missing = new ArrayList<>();
+        for (String seatNumber : requested) {
+            FlightSeat seat = available.remove(seatNumber.trim().toUpperCase(Locale.ROOT));
+            if (seat == null) {
+                missing.add(seatNumber);
+            } else {
+                picked.add(seat);
+            }
+        }
+        if (!missing.isEmpty()) {
+            return reply(command, SeatSagaMessage.SEATS_REJECTED, null, "seats not available: " + String.join(", ", missing));
+        }
+        Iterator<FlightSeat> rest = available.values().iterator();
+        while (picked.size() < count && rest.hasNext()) {
+            picked.add(rest.next());
+        }
+        if (picked.size() < count) {
+            return reply(command, SeatSagaMessage.SEATS_REJECTED, null,
+                    "not enough seats available: requested=" + count + ", available=" + picked.size());
+        }
+
+        for (FlightSeat seat : picked) {
+            seat.setStatus(STATUS_BOOKED);
+            seat.setReservationId(command.getSagaId());
+        }
+        seatRepository.saveAll(picked);
+        log.info("Seats reserved: flightId={}, sagaId={}, pnr={}, seats={}",
+                command.getFlightId(), command.getSagaId(), command.getPnr(), seatNumbers(picked));
+        return reply(command, SeatSagaMessage.SEATS_RESERVED, seatNumbers(picked), null);
+    }
+
+    private SeatSagaMessage release(SeatSagaMessage command) {
+        List<FlightSeat> held = seatRepository.findByReservationId(command.getSagaId());
+        for (FlightSeat seat : held) {
+            seat.setStatus(STATUS_AVAILABLE);
+            seat.setReservationId(null);
+            seat.setPassengerName(null);
+        }
+        if (!held.isEmpty()) {
+            seatRepository.saveAll(held);
+            log.info("Seats released: flightId={}, sagaId={}, pnr={}, seats={}",
+                    command.getFlightId(), command.getSagaId(), command.getPnr(), seatNumbers(held));
+        }
+        return reply(command, SeatSagaMessage.SEATS_RELEASED, seatNumbers(held), null);
+    }
+
+    private static List<String> seatNumbers(List<FlightSeat> seats) {
+        return seats.stream().map(FlightSeat::getSeatNumber).toList();
+    }
+
+    private static SeatSagaMessage reply(SeatSagaMessage command, String type, List<String> seats, String reason) {
+        if (reason != null) {
+            log.info("Seat command rejected: flightId={}, sagaId={}, reason={}", command.getFlightId(), command.getSagaId(), reason);
+        }
+        return SeatSagaMessage.builder()
+                .type(type)
+                .sagaId(command.getSagaId())
+                .flightId(command.getFlightId())
+                .pnr(command.getPnr())
+                .seatNumbers(seats)
+                .reason(reason)
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.flightservice.saga;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Seat reservation command from booking-service, or this service's reply to it. Same JSON shape as
+ * booking-service's SagaMessage; sagaId is the booking id.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SeatSagaMessage {
+
+    public static final String RESERVE_SEATS = "RESERVE_SEATS";
+    public static final String RELEASE_SEATS = "RELEASE_SEATS";
+    public static final String SEATS_RESERVED = "SEATS_RESERVED";
+    public static final String SEATS_REJECTED = "SEATS_REJECTED";
+    public static final String SEATS_RELEASED = "SEATS_RELEASED";
+
+    private String type;
+    private Long sagaId;
+    private Long flightId;
+    private String pnr;
+    private Integer seatCount;
+    private List<String> seatNumbers;
+    private String reason;
+}
@@ -0,0 +1,118 @@
+package com.flightservice.saga;
+
+import com.flightservice.model.FlightSeat;
+import com.flightservice.repository.FlightRepository;
+import com.flightservice.repository.FlightSeatRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatReservationServiceTest {
+
+    @Mock
+    FlightRepository flightRepository;
+
+    @Mock
+    FlightSeatRepository seatRepository;
+
+    @InjectMocks
+    SeatReservationService service;
+
+    private static FlightSeat seat(long id, String number) {
+        FlightSeat s = new FlightSeat();
+        s.setId(id);
+        s.setSeatNumber(number);
+        s.setStatus("AVAILABLE");
+        return s;
+    }
+
+    private static SeatSagaMessage reserve(List<String> seats, int count) {
+        return SeatSagaMessage.builder().type(SeatSagaMessage.RESERVE_SEATS)
+                .sagaId(5L).flightId(7L).pnr("P5").seatCount(count).seatNumbers(seats).build();
+    }
+
+    @Test
+    void reserve_booksRequestedSeatsAndFillsTheRest() {
+        FlightSeat a = seat(1, "1A");
+        FlightSeat b = seat(2, "1B");
+        FlightSeat c = seat(3, "2C");
+        when(seatRepository.findByReservationId(5L)).thenReturn(List.of());
+        when(flightRepository.existsById(7L)).thenReturn(true);
+        when(seatRepository.lockByFlightIdAndStatus(7L, "AVAILABLE")).thenReturn(List.of(a, b, c));
+
+        SeatSagaMessage reply = service.handle(reserve(List.of("2c"), 2));
+
+        assertThat(reply.getType()).isEqualTo(SeatSagaMessage.SEATS_RESERVED);
+        assertThat(reply.getSeatNumbers()).containsExactly("2C", "1A");
+        assertThat(c.getStatus()).isEqualTo("BOOKED");
+        assertThat(c.getReservationId()).isEqualTo(5L);
+        assertThat(b.getStatus()).isEqualTo("AVAILABLE");
+        verify(seatRepository).saveAll(List.of(c, a));
+    }
+
+    @Test
+    void reserve_isIdempotentPerSaga() {
+        FlightSeat held = seat(1, "1A");
+        held.setStatus("BOOKED");
+        held.setReservationId(5L);
+        when(seatRepository.findByReservationId(5L)).thenReturn(List.of(held));
+
+        SeatSagaMessage reply = service.handle(reserve(List.of("1A"), 1));
+
+        assertThat(reply.getType()).isEqualTo(SeatSagaMessage.SEATS_RESERVED);
+        assertThat(reply.getSeatNumbers()).containsExactly("1A");
+        verify(seatRepository, never()).lockByFlightIdAndStatus(any(), any());
+        verify(seatRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void reserve_takenSeatOrTooFewSeats_isRejectedWithoutChanges() {
+        FlightSeat a = seat(1, "1A");
+        when(seatRepository.findByReservationId(5L)).thenReturn(List.of());
+        when(flightRepository.existsById(7L)).thenReturn(true);
+        when(seatRepository.lockByFlightIdAndStatus(7L, "AVAILABLE")).thenReturn(List.of(a));
+
+        SeatSagaMessage taken = service.handle(reserve(List.of("1B"), 1));
+        SeatSagaMessage tooMany = service.handle(reserve(List.of(), 2));
+
+        assertThat(taken.getType()).isEqualTo(SeatSagaMessage.SEATS_REJECTED);
+        assertThat(taken.getReason()).contains("1B");
+        assertThat(tooMany.getType()).isEqualTo(SeatSagaMessage.SEATS_REJECTED);
+        assertThat(a.getStatus()).isEqualTo("AVAILABLE");
+        verify(seatRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void reserve_unknownFlight_isRejected() {
+        when(seatRepository.findByReservationId(5L)).thenReturn(List.of());
+        when(flightRepository.existsById(7L)).thenReturn(false);
+
+        assertThat(service.handle(reserve(List.of(), 1)).getType()).isEqualTo(SeatSagaMessage.SEATS_REJECTED);
+    }
+
+    @Test
+    void release_freesTheSagasSeats_andAcknowledgesEvenWhenNoneAreLeft() {
+        FlightSeat held = seat(1, "1A");
+        held.setStatus("BOOKED");
+        held.setReservationId(5L);
+        when(seatRepository.findByReservationId(5L)).thenReturn(List.of(held), List.of());
+        SeatSagaMessage release = SeatSagaMessage.builder().type(SeatSagaMessage.RELEASE_SEATS).sagaId(5L).flightId(7L).build();
+
+        SeatSagaMessage first = service.handle(release);
+        SeatSagaMessage again = service.handle(release);
+
+        assertThat(held.getStatus()).isEqualTo("AVAILABLE");
+        assertThat(held.getReservationId()).isNull();
+        assertThat(first.getType()).isEqualTo(SeatSagaMessage.SEATS_RELEASED);
+        assertThat(again.getType()).isEqualTo(SeatSagaMessage.SEATS_RELEASED);
+        verify(seatRepository, times(1)).saveAll(any());
+    }
+}